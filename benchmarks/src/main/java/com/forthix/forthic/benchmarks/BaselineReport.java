@@ -0,0 +1,101 @@
+package com.forthix.forthic.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and fails if any benchmark regressed.
+ *
+ * Usage: {@code BaselineReport <baseline.json> <current.json> [threshold-percent]}
+ *
+ * Results are matched on benchmark name and parameters. For time-per-operation modes
+ * a higher score is worse; for throughput a lower score is worse. Exits with status 1
+ * if any benchmark is worse than the baseline by more than the threshold (default 10%).
+ */
+public final class BaselineReport {
+
+    private BaselineReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineReport <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            JsonNode result = entry.getValue();
+            double score = result.path("primaryMetric").path("score").asDouble();
+            String unit = result.path("primaryMetric").path("scoreUnit").asText();
+            if (base == null) {
+                System.out.printf("%-80s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", unit);
+                continue;
+            }
+
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore * 100.0;
+            boolean higherIsBetter = "thrpt".equals(result.path("mode").asText());
+            double worsening = higherIsBetter ? -change : change;
+            boolean regressed = worsening > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%%  %s%s%n",
+                entry.getKey(), baseScore, score, change, unit, regressed ? "  REGRESSION" : "");
+        }
+
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-80s %14s %14s %9s%n", key, "", "-", "missing");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf("No regressions beyond %.1f%%%n", threshold);
+    }
+
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file);
+        Map<String, JsonNode> result = new LinkedHashMap<>();
+        for (JsonNode node : root) {
+            result.put(key(node), node);
+        }
+        return result;
+    }
+
+    private static String key(JsonNode node) {
+        StringBuilder sb = new StringBuilder(node.path("benchmark").asText());
+        JsonNode params = node.path("params");
+        if (params.isObject()) {
+            sb.append(" {");
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            boolean first = true;
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!first) {
+                    sb.append(", ");
+                }
+                sb.append(field.getKey()).append('=').append(field.getValue().asText());
+                first = false;
+            }
+            sb.append('}');
+        }
+        return sb.toString();
+    }
+}
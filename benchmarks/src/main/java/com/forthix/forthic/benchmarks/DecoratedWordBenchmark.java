@@ -0,0 +1,122 @@
+package com.forthix.forthic.benchmarks;
+
+import com.forthix.forthic.annotations.Word;
+import com.forthix.forthic.interpreter.BareInterpreter;
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import com.forthix.forthic.module.ForthicWord;
+import com.forthix.forthic.modules.standard.MathModule;
+import com.forthix.forthic.modules.standard.RecordModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls to @Word methods: words bound at registration time versus the
+ * Method.invoke path DecoratedModule used before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecoratedWordBenchmark {
+
+    private BareInterpreter interp;
+    private Map<String, Object> record;
+
+    private ForthicWord boundMinus;
+    private ForthicWord boundRecAt;
+    private ForthicWord reflectiveMinus;
+    private ForthicWord reflectiveRecAt;
+
+    @Setup
+    public void setUp() throws Exception {
+        interp = new StandardInterpreter();
+        record = new LinkedHashMap<>();
+        record.put("name", "Alice");
+        record.put("age", 30);
+
+        boundMinus = interp.getAppModule().findWord("-");
+        boundRecAt = interp.getAppModule().findWord("REC@");
+
+        MathModule math = new MathModule();
+        math.setInterp(interp);
+        RecordModule records = new RecordModule();
+        records.setInterp(interp);
+        reflectiveMinus = new ReflectiveWord(math, MathModule.class.getMethod("minus", Object.class, Object.class));
+        reflectiveRecAt = new ReflectiveWord(records, RecordModule.class.getMethod("REC_at", Object.class, Object.class));
+    }
+
+    @Benchmark
+    public Object arithmeticBound() throws Exception {
+        interp.stackPush(7.0);
+        interp.stackPush(3.0);
+        boundMinus.execute(interp);
+        return interp.stackPop();
+    }
+
+    @Benchmark
+    public Object arithmeticReflective() throws Exception {
+        interp.stackPush(7.0);
+        interp.stackPush(3.0);
+        reflectiveMinus.execute(interp);
+        return interp.stackPop();
+    }
+
+    @Benchmark
+    public Object recordBound() throws Exception {
+        interp.stackPush(record);
+        interp.stackPush("name");
+        boundRecAt.execute(interp);
+        return interp.stackPop();
+    }
+
+    @Benchmark
+    public Object recordReflective() throws Exception {
+        interp.stackPush(record);
+        interp.stackPush("name");
+        reflectiveRecAt.execute(interp);
+        return interp.stackPop();
+    }
+
+    /**
+     * The reflective dispatch DecoratedModule used for normal (non-direct) words
+     */
+    static class ReflectiveWord extends ForthicWord {
+        private final Object module;
+        private final Method method;
+        private final int inputCount;
+
+        ReflectiveWord(Object module, Method method) {
+            super(method.getAnnotation(Word.class).name());
+            this.module = module;
+            this.method = method;
+            this.inputCount = method.getParameterCount();
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            Object[] inputs = new Object[inputCount];
+            for (int i = inputCount - 1; i >= 0; i--) {
+                inputs[i] = interp.stackPop();
+            }
+            method.setAccessible(true);
+            Object result;
+            try {
+                result = method.invoke(module, inputs);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+            interp.stackPush(result);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.forthix.forthic.benchmarks;
+
+import com.forthix.forthic.compiler.DefinitionCompiler;
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import com.forthix.forthic.module.ForthicWord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small numeric definition, interpreted vs. compiled to bytecode.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DefinitionBenchmark {
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    private StandardInterpreter interp;
+    private ForthicWord word;
+
+    @Setup
+    public void setUp() throws Exception {
+        interp = new StandardInterpreter();
+        if (compiled) {
+            interp.setDefinitionCompiler(new DefinitionCompiler(1));
+        }
+        interp.run("['acc'] VARIABLES  0 acc !");
+        interp.run(": STEP   acc @ 3 - 7 MOD  acc ! ;");
+        word = interp.getAppModule().findWord("STEP");
+    }
+
+    @Benchmark
+    public Object step() throws Exception {
+        interp.run("STEP");
+        return interp.getStack();
+    }
+
+    @Benchmark
+    public void stepResolved() throws Exception {
+        word.execute(interp);
+    }
+}
@@ -0,0 +1,72 @@
+package com.forthix.forthic.benchmarks;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import com.forthix.forthic.module.ForthicModule;
+import com.forthix.forthic.module.ForthicWord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of dispatching each kind of word, both on a resolved word and through
+ * the interpreter's token handling.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    @Param({"module", "definition", "execute", "decorated"})
+    public String kind;
+
+    private StandardInterpreter interp;
+    private ForthicWord word;
+    private String code;
+
+    @Setup
+    public void setUp() throws Exception {
+        ForthicModule bench = new ForthicModule("bench");
+        bench.addModuleWord("NOOP", interp -> { });
+
+        interp = new StandardInterpreter(List.of(bench), "UTC");
+        interp.importModule(bench, "b");
+        interp.run(": DEF-NOOP   NOP ;");
+
+        switch (kind) {
+            case "module":
+                code = "NOOP";
+                break;
+            case "definition":
+                code = "DEF-NOOP";
+                break;
+            case "execute":
+                code = "b.NOOP";
+                break;
+            default:
+                code = "NOP";
+                break;
+        }
+        word = interp.getAppModule().findWord(code);
+        // Make sure code strings of 100 tokens go through the tokenizer each time
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(code).append(' ');
+        }
+        code = sb.toString();
+    }
+
+    @Benchmark
+    public void executeResolvedWord() throws Exception {
+        word.execute(interp);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void runTokens() throws Exception {
+        interp.run(code);
+    }
+}
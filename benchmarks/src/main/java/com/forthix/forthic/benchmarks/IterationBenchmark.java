@@ -0,0 +1,74 @@
+package com.forthix.forthic.benchmarks;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iteration and collection words over large arrays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IterationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private StandardInterpreter interp;
+    private List<Object> numbers;
+    private List<Object> records;
+
+    @Setup
+    public void setUp() {
+        interp = new StandardInterpreter();
+        numbers = Sources.integers(size);
+        records = Sources.records(size);
+    }
+
+    private Object run(Object input, String code) throws Exception {
+        interp.stackPush(input);
+        interp.run(code);
+        return interp.stackPop();
+    }
+
+    @Benchmark
+    public Object map() throws Exception {
+        return run(numbers, "'2 *' MAP");
+    }
+
+    @Benchmark
+    public Object select() throws Exception {
+        return run(numbers, "'100 >' SELECT");
+    }
+
+    @Benchmark
+    public Object reduce() throws Exception {
+        return run(numbers, "0 '+' REDUCE");
+    }
+
+    @Benchmark
+    public Object sort() throws Exception {
+        return run(numbers, "SORT");
+    }
+
+    @Benchmark
+    public Object groupBy() throws Exception {
+        return run(records, "\"'category' REC@\" GROUP-BY");
+    }
+
+    @Benchmark
+    public Object groupByField() throws Exception {
+        return run(records, "'category' GROUP-BY-FIELD");
+    }
+
+    @Benchmark
+    public Object pipeRecAt() throws Exception {
+        return run(records, "'amount' |REC@");
+    }
+}
@@ -0,0 +1,56 @@
+package com.forthix.forthic.benchmarks;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON round-trip through JsonModule.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonBenchmark {
+
+    @Param({"1000", "100000"})
+    public int records;
+
+    private StandardInterpreter interp;
+    private List<Object> data;
+    private String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        interp = new StandardInterpreter();
+        data = Sources.records(records);
+        interp.stackPush(data);
+        interp.run(">JSON");
+        json = (String) interp.stackPop();
+    }
+
+    @Benchmark
+    public Object serialize() throws Exception {
+        interp.stackPush(data);
+        interp.run(">JSON");
+        return interp.stackPop();
+    }
+
+    @Benchmark
+    public Object parse() throws Exception {
+        interp.stackPush(json);
+        interp.run("JSON>");
+        return interp.stackPop();
+    }
+
+    @Benchmark
+    public Object roundTrip() throws Exception {
+        interp.stackPush(data);
+        interp.run(">JSON JSON>");
+        return interp.stackPop();
+    }
+}
@@ -0,0 +1,60 @@
+package com.forthix.forthic.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generated Forthic sources and data sets shared by the benchmarks.
+ */
+final class Sources {
+
+    private Sources() {
+    }
+
+    /**
+     * Forthic source of roughly the given size mixing definitions, strings,
+     * arrays, comments, literals and word references
+     */
+    static String mixed(int approxChars) {
+        StringBuilder sb = new StringBuilder(approxChars + 256);
+        int i = 0;
+        while (sb.length() < approxChars) {
+            sb.append("# Definition ").append(i).append('\n');
+            sb.append(": WORD-").append(i).append("   [1 2.5 'three' \"four\"] ")
+                .append(".field-").append(i % 17).append(" REC@ 2 * ;\n");
+            sb.append("[[\"key\" ").append(i).append("] [\"name\" '''item ").append(i).append("''']] REC\n");
+            sb.append("2025-05-20T08:00:00 POP {module-").append(i % 5).append(" }\n");
+            i++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Records with a handful of fields, grouped into a small number of categories
+     */
+    static List<Object> records(int count) {
+        Random random = new Random(42);
+        List<Object> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> rec = new LinkedHashMap<>();
+            rec.put("id", i);
+            rec.put("category", "cat-" + random.nextInt(50));
+            rec.put("amount", random.nextDouble() * 1000);
+            rec.put("name", "item-" + i);
+            result.add(rec);
+        }
+        return result;
+    }
+
+    static List<Object> integers(int count) {
+        Random random = new Random(42);
+        List<Object> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(random.nextInt(count));
+        }
+        return result;
+    }
+}
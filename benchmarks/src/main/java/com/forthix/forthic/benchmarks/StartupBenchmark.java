@@ -0,0 +1,30 @@
+package com.forthix.forthic.benchmarks;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a StandardInterpreter with all standard modules registered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StartupBenchmark {
+
+    @Benchmark
+    public Object newStandardInterpreter() {
+        return new StandardInterpreter();
+    }
+
+    @Benchmark
+    public Object newInterpreterAndRun() throws Exception {
+        StandardInterpreter interp = new StandardInterpreter();
+        interp.run("[1 2 3] '2 *' MAP");
+        return interp.stackPop();
+    }
+}
@@ -0,0 +1,42 @@
+package com.forthix.forthic.benchmarks;
+
+import com.forthix.forthic.tokenizer.Token;
+import com.forthix.forthic.tokenizer.TokenType;
+import com.forthix.forthic.tokenizer.Tokenizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenization throughput on large generated sources.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenizerBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int sourceChars;
+
+    private String source;
+
+    @Setup
+    public void setUp() {
+        source = Sources.mixed(sourceChars);
+    }
+
+    @Benchmark
+    public int tokenize() {
+        Tokenizer tokenizer = new Tokenizer(source);
+        int count = 0;
+        Token token = tokenizer.nextToken();
+        while (token.getType() != TokenType.EOS) {
+            count++;
+            token = tokenizer.nextToken();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,408 @@
+package com.forthix.forthic.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the small subset of the class file format the compiler needs.
+ *
+ * Generated methods are straight-line code with no branches and at most one handler
+ * catching any throwable, so a method needs at most one stack map frame. Only the
+ * instructions the compiler emits are supported, and the operand stack depth is
+ * tracked as they're added.
+ */
+class ClassFileWriter {
+    // Class file version for Java 15
+    private static final int VERSION = 59;
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private final ByteArrayOutputStream pool;
+    private final DataOutputStream poolOut;
+    private final Map<String, Integer> poolIndex;
+    private int poolCount;
+
+    private final int thisClass;
+    private final int superClass;
+    private final List<byte[]> fields;
+    private final List<byte[]> methods;
+
+    ClassFileWriter(String className, String superName) {
+        this.pool = new ByteArrayOutputStream();
+        this.poolOut = new DataOutputStream(pool);
+        this.poolIndex = new HashMap<>();
+        this.poolCount = 1;
+        this.fields = new ArrayList<>();
+        this.methods = new ArrayList<>();
+        this.thisClass = classRef(className);
+        this.superClass = classRef(superName);
+    }
+
+    // ===== Constant pool =====
+
+    private int utf8(String value) {
+        return constant("U" + value, 1, out -> out.writeUTF(value));
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("C" + internalName, 7, out -> out.writeShort(name));
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        return constant("N" + name + ";" + descriptor, 12, out -> {
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int classIndex = classRef(owner);
+        int natIndex = nameAndType(name, descriptor);
+        return constant(tag + owner + "." + name + descriptor, tag, out -> {
+            out.writeShort(classIndex);
+            out.writeShort(natIndex);
+        });
+    }
+
+    private interface PoolWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private int constant(String key, int tag, PoolWriter writer) {
+        Integer existing = poolIndex.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            poolOut.writeByte(tag);
+            writer.write(poolOut);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        int index = poolCount++;
+        poolIndex.put(key, index);
+        return index;
+    }
+
+    // ===== Members =====
+
+    void addField(int access, String name, String descriptor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        fields.add(bytes.toByteArray());
+    }
+
+    Code newMethod(int access, String name, String descriptor, int argSlots) {
+        return new Code(access, name, descriptor, argSlots);
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int codeName = utf8("Code");
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            out.write(pool.toByteArray());
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(fields.size());
+            for (byte[] field : fields) {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                // Code attribute name index is patched in here, now that it's known
+                out.write(method, 0, 6);
+                out.writeShort(1);
+                out.writeShort(codeName);
+                out.write(method, 6, method.length - 6);
+            }
+            out.writeShort(0); // attributes
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Bytecode of one method
+     */
+    class Code {
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final ByteArrayOutputStream code;
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+        private byte[] handler;
+        private byte[] frame;
+
+        private Code(int access, String name, String descriptor, int argSlots) {
+            this.access = access;
+            this.name = utf8(name);
+            this.descriptor = utf8(descriptor);
+            this.code = new ByteArrayOutputStream();
+            this.maxLocals = argSlots;
+        }
+
+        int size() {
+            return code.size();
+        }
+
+        private void op(int opcode, int stackDelta) {
+            code.write(opcode);
+            adjustStack(stackDelta);
+        }
+
+        private void u1(int value) {
+            code.write(value);
+        }
+
+        private void u2(int value) {
+            code.write(value >> 8);
+            code.write(value);
+        }
+
+        private void adjustStack(int delta) {
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        void aload(int local) {
+            if (local <= 3) {
+                op(0x2a + local, 1);
+            } else {
+                op(0x19, 1);
+                u1(local);
+            }
+            maxLocals = Math.max(maxLocals, local + 1);
+        }
+
+        void astore(int local) {
+            if (local <= 3) {
+                op(0x4b + local, -1);
+            } else {
+                op(0x3a, -1);
+                u1(local);
+            }
+            maxLocals = Math.max(maxLocals, local + 1);
+        }
+
+        void iload(int local) {
+            if (local <= 3) {
+                op(0x1a + local, 1);
+            } else {
+                op(0x15, 1);
+                u1(local);
+            }
+            maxLocals = Math.max(maxLocals, local + 1);
+        }
+
+        void istore(int local) {
+            if (local <= 3) {
+                op(0x3b + local, -1);
+            } else {
+                op(0x36, -1);
+                u1(local);
+            }
+            maxLocals = Math.max(maxLocals, local + 1);
+        }
+
+        void iconst(int value) {
+            if (value >= -1 && value <= 5) {
+                op(0x03 + value, 1);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                op(0x10, 1);
+                u1(value);
+            } else {
+                op(0x11, 1);
+                u2(value);
+            }
+        }
+
+        void aaload() {
+            op(0x32, -1);
+        }
+
+        void pop() {
+            op(0x57, -1);
+        }
+
+        void checkcast(String internalName) {
+            op(0xc0, 0);
+            u2(classRef(internalName));
+        }
+
+        void getfield(String owner, String fieldName, String fieldDescriptor) {
+            op(0xb4, 0);
+            u2(memberRef(9, owner, fieldName, fieldDescriptor));
+        }
+
+        void putfield(String owner, String fieldName, String fieldDescriptor) {
+            op(0xb5, -2);
+            u2(memberRef(9, owner, fieldName, fieldDescriptor));
+        }
+
+        void invokevirtual(String owner, String methodName, String methodDescriptor) {
+            op(0xb6, stackEffect(methodDescriptor) - 1);
+            u2(memberRef(10, owner, methodName, methodDescriptor));
+        }
+
+        void invokespecial(String owner, String methodName, String methodDescriptor) {
+            op(0xb7, stackEffect(methodDescriptor) - 1);
+            u2(memberRef(10, owner, methodName, methodDescriptor));
+        }
+
+        void invokestatic(String owner, String methodName, String methodDescriptor) {
+            op(0xb8, stackEffect(methodDescriptor));
+            u2(memberRef(10, owner, methodName, methodDescriptor));
+        }
+
+        void invokeinterface(String owner, String methodName, String methodDescriptor) {
+            int argCount = argumentCount(methodDescriptor);
+            op(0xb9, stackEffect(methodDescriptor) - 1);
+            u2(memberRef(11, owner, methodName, methodDescriptor));
+            u1(argCount + 1);
+            u1(0);
+        }
+
+        void returnVoid() {
+            op(0xb1, 0);
+        }
+
+        void athrow() {
+            op(0xbf, -1);
+            stack = 0;
+        }
+
+        /**
+         * Start a handler, at the current position, for any throwable thrown from start up
+         * to here. The handler begins with the throwable on the stack and with only the
+         * given locals usable: internal class names, or "I" for an int.
+         */
+        void startCatchAll(int start, String... locals) {
+            if (handler != null) {
+                throw new IllegalStateException("Only one handler per method is supported");
+            }
+            int position = code.size();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            try {
+                out.writeShort(start);
+                out.writeShort(position);
+                out.writeShort(position);
+                out.writeShort(0); // any throwable
+                handler = bytes.toByteArray();
+
+                // One full_frame, so its offset_delta is the handler's offset
+                bytes.reset();
+                out.writeByte(255);
+                out.writeShort(position);
+                out.writeShort(locals.length);
+                for (String local : locals) {
+                    writeVerificationType(out, local);
+                }
+                out.writeShort(1);
+                writeVerificationType(out, "java/lang/Throwable");
+                frame = bytes.toByteArray();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            stack = 0;
+            adjustStack(1);
+        }
+
+        private void writeVerificationType(DataOutputStream out, String type) throws IOException {
+            if (type.equals("I")) {
+                out.writeByte(1);
+            } else {
+                out.writeByte(7);
+                out.writeShort(classRef(type));
+            }
+        }
+
+        void end() {
+            byte[] bytes = code.toByteArray();
+            int stackMapName = frame == null ? 0 : utf8("StackMapTable");
+            ByteArrayOutputStream method = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(method);
+            try {
+                out.writeShort(access);
+                out.writeShort(name);
+                out.writeShort(descriptor);
+                // attributes_count and the Code attribute name are written by toByteArray()
+                int handlersLength = handler == null ? 0 : handler.length;
+                int attributesLength = frame == null ? 0 : 8 + frame.length;
+                out.writeInt(12 + bytes.length + handlersLength + attributesLength);
+                out.writeShort(maxStack);
+                out.writeShort(maxLocals);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                if (handler == null) {
+                    out.writeShort(0); // exception table
+                    out.writeShort(0); // attributes
+                } else {
+                    out.writeShort(1);
+                    out.write(handler);
+                    out.writeShort(1);
+                    out.writeShort(stackMapName);
+                    out.writeInt(2 + frame.length);
+                    out.writeShort(1); // number_of_entries
+                    out.write(frame);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            methods.add(method.toByteArray());
+        }
+    }
+
+    // Descriptors used here only have reference and void types, so every argument is one slot
+
+    private static int argumentCount(String methodDescriptor) {
+        int count = 0;
+        int i = 1;
+        while (methodDescriptor.charAt(i) != ')') {
+            char c = methodDescriptor.charAt(i);
+            while (c == '[') {
+                c = methodDescriptor.charAt(++i);
+            }
+            if (c == 'L') {
+                i = methodDescriptor.indexOf(';', i);
+            }
+            i++;
+            count++;
+        }
+        return count;
+    }
+
+    private static int stackEffect(String methodDescriptor) {
+        boolean returnsValue = !methodDescriptor.endsWith(")V");
+        return (returnsValue ? 1 : 0) - argumentCount(methodDescriptor);
+    }
+}
@@ -0,0 +1,363 @@
+package com.forthix.forthic.compiler;
+
+import com.forthix.forthic.module.DefinitionWord;
+import com.forthix.forthic.module.ExecuteWord;
+import com.forthix.forthic.module.ForthicWord;
+import com.forthix.forthic.module.PushValueWord;
+import com.forthix.forthic.module.WordInvokers;
+import com.forthix.forthic.tokenizer.PositionedString;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional compilation tier that turns hot definitions into JVM bytecode.
+ *
+ * Each definition becomes a hidden class whose execute method does, in straight-line
+ * code, what the interpreter's loop over the definition's words would do:
+ * <ul>
+ *   <li>Constants (PushValueWord) are loaded from a field, not pushed by a word call</li>
+ *   <li>Fixed-arity @Word words are called through their bound target directly, with
+ *       inputs and results kept in locals while the stack effect is known</li>
+ *   <li>Any other word gets its own call site, so the JIT sees one receiver type per
+ *       site instead of one megamorphic call in a loop</li>
+ * </ul>
+ * Values are only kept off the stack between a constant or result and the word that
+ * consumes it, so the stack is the same as under the interpreter whenever a word that
+ * isn't called directly runs, and when a word fails. The index of the word being run is
+ * kept in a local, so a failure can be reported at that word's location.
+ *
+ * Enable it per interpreter with {@code interp.setDefinitionCompiler(new DefinitionCompiler())}.
+ * A definition is compiled after it has run {@link #getThreshold()} times.
+ */
+public class DefinitionCompiler {
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    // Longer definitions wouldn't be compiled by the JIT anyway
+    private static final int MAX_CODE_SIZE = 8000;
+    private static final int MAX_LOCALS = 250;
+    // Local holding the index of the word being run
+    private static final int WORD_INDEX = 2;
+
+    private static final String CLASS_NAME = "com/forthix/forthic/compiler/CompiledDefinition";
+    private static final String WORD = "com/forthix/forthic/module/ForthicWord";
+    private static final String INTERP = "com/forthix/forthic/interpreter/BareInterpreter";
+    private static final String INVOKERS = "com/forthix/forthic/module/WordInvokers$";
+    private static final String OBJECT = "Ljava/lang/Object;";
+    private static final String WORDS_DESCRIPTOR = "[L" + WORD + ";";
+    private static final String OBJECTS_DESCRIPTOR = "[" + OBJECT;
+    private static final String EXECUTE_DESCRIPTOR = "(L" + INTERP + ";)V";
+
+    private final int threshold;
+    private final AtomicLong compiledCount;
+    private final AtomicLong failedCount;
+
+    public DefinitionCompiler(int threshold) {
+        this.threshold = threshold;
+        this.compiledCount = new AtomicLong();
+        this.failedCount = new AtomicLong();
+    }
+
+    public DefinitionCompiler() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Number of executions after which a definition is compiled
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public long getCompiledCount() {
+        return compiledCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Compile a definition's body into a word.
+     *
+     * The word runs the body without the definition's error wrapping; DefinitionWord adds
+     * that. An exception thrown by a word of the body comes out wrapped in a
+     * {@link WordFailure} giving the word's index. Returns null if the definition can't be compiled (too long, or the generated
+     * class was rejected), in which case it keeps being interpreted.
+     */
+    public ForthicWord compile(DefinitionWord definition) {
+        try {
+            ForthicWord result = new Generator(definition).generate();
+            if (result == null) {
+                failedCount.incrementAndGet();
+            } else {
+                compiledCount.incrementAndGet();
+            }
+            return result;
+        } catch (Throwable e) {
+            // e.g. a VerifyError for a body we don't handle correctly; stay interpreted
+            failedCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Exception thrown by compiled code in place of a word's exception, naming the word
+     */
+    public static final class WordFailure extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        WordFailure(int index, Exception cause) {
+            super(cause.getMessage(), cause, false, false);
+            this.index = index;
+        }
+
+        /**
+         * Index of the failing word in the definition's body
+         */
+        public int getIndex() {
+            return index;
+        }
+    }
+
+    /**
+     * Called by compiled code when the word at index throws
+     */
+    public static Throwable failedAt(Throwable error, int index) {
+        return error instanceof Exception ? new WordFailure(index, (Exception) error) : error;
+    }
+
+    /**
+     * Called by compiled code for values kept in locals, matching what stackPop() does
+     */
+    public static Object unwrap(Object value) {
+        if (value instanceof PositionedString) {
+            return ((PositionedString) value).valueOf();
+        }
+        return value;
+    }
+
+    /**
+     * A value produced by the body but not yet pushed onto the interpreter's stack
+     */
+    private static class Pending {
+        final Object constant;
+        final int local;
+        int constantIndex = -1;
+
+        Pending(Object constant, int local) {
+            this.constant = constant;
+            this.local = local;
+        }
+    }
+
+    private static class Generator {
+        private final DefinitionWord definition;
+        private final List<ForthicWord> words;
+        private final List<Object> constants;
+        private final List<Object> targets;
+        private final List<Pending> pending;
+        private ClassFileWriter.Code code;
+        private int nextLocal;
+
+        Generator(DefinitionWord definition) {
+            this.definition = definition;
+            this.words = new ArrayList<>();
+            this.constants = new ArrayList<>();
+            this.targets = new ArrayList<>();
+            this.pending = new ArrayList<>();
+            this.nextLocal = WORD_INDEX + 1; // 0: this, 1: interp
+        }
+
+        ForthicWord generate() throws Throwable {
+            ClassFileWriter writer = new ClassFileWriter(CLASS_NAME, WORD);
+            writer.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "words", WORDS_DESCRIPTOR);
+            writer.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "constants", OBJECTS_DESCRIPTOR);
+            writer.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "targets", OBJECTS_DESCRIPTOR);
+            writeConstructor(writer);
+
+            code = writer.newMethod(ClassFileWriter.ACC_PUBLIC, "execute", EXECUTE_DESCRIPTOR, 2);
+            code.iconst(0);
+            code.istore(WORD_INDEX);
+            int start = code.size();
+            List<ForthicWord> body = definition.getWords();
+            for (int i = 0; i < body.size(); i++) {
+                if (!emitWord(body.get(i), i) || code.size() > MAX_CODE_SIZE) {
+                    return null;
+                }
+            }
+            flush(pending.size());
+            code.returnVoid();
+
+            code.startCatchAll(start, CLASS_NAME, INTERP, "I");
+            code.iload(WORD_INDEX);
+            code.invokestatic("com/forthix/forthic/compiler/DefinitionCompiler", "failedAt",
+                "(Ljava/lang/Throwable;I)Ljava/lang/Throwable;");
+            code.athrow();
+            code.end();
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(writer.toByteArray(), true);
+            MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(
+                void.class, String.class, ForthicWord[].class, Object[].class, Object[].class));
+            return (ForthicWord) constructor.invoke(
+                definition.getName(),
+                words.toArray(new ForthicWord[0]),
+                constants.toArray(),
+                targets.toArray());
+        }
+
+        private void writeConstructor(ClassFileWriter writer) {
+            ClassFileWriter.Code init = writer.newMethod(ClassFileWriter.ACC_PUBLIC, "<init>",
+                "(Ljava/lang/String;" + WORDS_DESCRIPTOR + OBJECTS_DESCRIPTOR + OBJECTS_DESCRIPTOR + ")V", 5);
+            init.aload(0);
+            init.aload(1);
+            init.invokespecial(WORD, "<init>", "(Ljava/lang/String;)V");
+            init.aload(0);
+            init.aload(2);
+            init.putfield(CLASS_NAME, "words", WORDS_DESCRIPTOR);
+            init.aload(0);
+            init.aload(3);
+            init.putfield(CLASS_NAME, "constants", OBJECTS_DESCRIPTOR);
+            init.aload(0);
+            init.aload(4);
+            init.putfield(CLASS_NAME, "targets", OBJECTS_DESCRIPTOR);
+            init.returnVoid();
+            init.end();
+        }
+
+        private boolean emitWord(ForthicWord word, int index) {
+            if (word.getClass() == PushValueWord.class) {
+                pending.add(new Pending(((PushValueWord) word).getValue(), -1));
+                return true;
+            }
+            code.iconst(index);
+            code.istore(WORD_INDEX);
+
+            ForthicWord resolved = word;
+            while (resolved instanceof ExecuteWord) {
+                resolved = ((ExecuteWord) resolved).getTargetWord();
+            }
+
+            Object target = WordInvokers.getTarget(resolved);
+            if (target != null) {
+                return emitDirectCall(target);
+            }
+
+            // Everything else works on the stack itself
+            flush(pending.size());
+            code.aload(0);
+            code.getfield(CLASS_NAME, "words", WORDS_DESCRIPTOR);
+            code.iconst(words.size());
+            code.aaload();
+            code.aload(1);
+            code.invokevirtual(WORD, "execute", EXECUTE_DESCRIPTOR);
+            words.add(resolved);
+            return true;
+        }
+
+        private boolean emitDirectCall(Object target) {
+            String iface;
+            int inputCount;
+            boolean isVoid = false;
+            if (target instanceof WordInvokers.Value0) { iface = "Value0"; inputCount = 0; }
+            else if (target instanceof WordInvokers.Value1) { iface = "Value1"; inputCount = 1; }
+            else if (target instanceof WordInvokers.Value2) { iface = "Value2"; inputCount = 2; }
+            else if (target instanceof WordInvokers.Value3) { iface = "Value3"; inputCount = 3; }
+            else if (target instanceof WordInvokers.Void0) { iface = "Void0"; inputCount = 0; isVoid = true; }
+            else if (target instanceof WordInvokers.Void1) { iface = "Void1"; inputCount = 1; isVoid = true; }
+            else if (target instanceof WordInvokers.Void2) { iface = "Void2"; inputCount = 2; isVoid = true; }
+            else if (target instanceof WordInvokers.Void3) { iface = "Void3"; inputCount = 3; isVoid = true; }
+            else return false;
+
+            // Pending values below the inputs go onto the stack first
+            int fromPending = Math.min(inputCount, pending.size());
+            flush(pending.size() - fromPending);
+            List<Pending> pendingInputs = new ArrayList<>(pending);
+            pending.clear();
+
+            // Remaining (deeper) inputs come off the stack, top first
+            int fromStack = inputCount - fromPending;
+            int[] stackLocals = new int[fromStack];
+            for (int i = fromStack - 1; i >= 0; i--) {
+                code.aload(1);
+                code.invokevirtual(INTERP, "stackPop", "()" + OBJECT);
+                stackLocals[i] = newLocal();
+                code.astore(stackLocals[i]);
+            }
+
+            code.aload(0);
+            code.getfield(CLASS_NAME, "targets", OBJECTS_DESCRIPTOR);
+            code.iconst(targets.size());
+            code.aaload();
+            code.checkcast(INVOKERS + iface);
+            targets.add(target);
+            for (int local : stackLocals) {
+                code.aload(local);
+            }
+            for (Pending input : pendingInputs) {
+                loadInput(input);
+            }
+
+            StringBuilder descriptor = new StringBuilder("(");
+            for (int i = 0; i < inputCount; i++) {
+                descriptor.append(OBJECT);
+            }
+            descriptor.append(isVoid ? ")V" : ")" + OBJECT);
+            code.invokeinterface(INVOKERS + iface, "call", descriptor.toString());
+
+            if (!isVoid) {
+                int local = newLocal();
+                code.astore(local);
+                pending.add(new Pending(null, local));
+            }
+            return nextLocal <= MAX_LOCALS;
+        }
+
+        /**
+         * Push the first count pending values onto the interpreter's stack
+         */
+        private void flush(int count) {
+            for (int i = 0; i < count; i++) {
+                Pending value = pending.get(i);
+                code.aload(1);
+                if (value.local >= 0) {
+                    code.aload(value.local);
+                } else {
+                    loadConstant(value.constant);
+                }
+                code.invokevirtual(INTERP, "stackPush", "(" + OBJECT + ")V");
+            }
+            pending.subList(0, count).clear();
+        }
+
+        /**
+         * Load a pending value the way stackPop() would return it
+         */
+        private void loadInput(Pending value) {
+            if (value.local >= 0) {
+                code.aload(value.local);
+                code.invokestatic("com/forthix/forthic/compiler/DefinitionCompiler", "unwrap", "(" + OBJECT + ")" + OBJECT);
+            } else {
+                loadConstant(unwrap(value.constant));
+            }
+        }
+
+        private void loadConstant(Object value) {
+            code.aload(0);
+            code.getfield(CLASS_NAME, "constants", OBJECTS_DESCRIPTOR);
+            code.iconst(constants.size());
+            code.aaload();
+            constants.add(value);
+        }
+
+        private int newLocal() {
+            return nextLocal++;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.forthix.forthic.compiler;
+
+import com.forthix.forthic.errors.CodeLocation;
+import com.forthix.forthic.interpreter.BareInterpreter;
+import com.forthix.forthic.tokenizer.Token;
+import com.forthix.forthic.tokenizer.Tokenizer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forthic source compiled ahead of time, so loading a library doesn't tokenize it or
+ * parse its literals again.
+ *
+ * An image holds the source's tokens as {@link Opcodes} instructions (definitions are the
+ * instructions between START_DEF and END_DEF), a constant pool of strings and literal
+ * values, a table of the words the source refers to, and each instruction's location.
+ * Numbers in the image are written as variable-length integers, and each location as
+ * its difference from the previous instruction's, so an image is about the size of its
+ * source rather than a multiple of it.
+ * Running it with {@link BareInterpreter#run(ModuleImage)} has the same effect as running
+ * the source: words are still looked up when the image runs, since the source may define
+ * them, and only a name the dictionary doesn't have falls back to its literal value.
+ *
+ * Images record the format version and the fingerprint of the dictionary they were
+ * compiled against (see {@link BareInterpreter#getDictionaryFingerprint()}), and only run
+ * in interpreters with the same fingerprint.
+ *
+ * <pre>
+ * ModuleImage.compile(librarySource, interp).write(path);   // at build time
+ * interp.run(ModuleImage.read(path));                        // at startup
+ * </pre>
+ */
+public final class ModuleImage {
+    public static final int MAGIC = 0x46544849; // "FTHI"
+    public static final int VERSION = 2;
+
+    // Constant pool tags
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte BIG_INTEGER = 6;
+    private static final byte BIG_DECIMAL = 7;
+
+    // Instructions are written with the opcode in the low bits of the operand's varint;
+    // images only use the opcodes up to END_DEF
+    private static final int OPCODE_BITS = 4;
+    private static final int OPCODE_MASK = (1 << OPCODE_BITS) - 1;
+
+    private final long fingerprint;
+    private final String screenName;
+    private final Object[] constants;
+    private final String[] wordNames;
+    // Constant index of each word's literal value, or -1 if it isn't a literal (or its
+    // value isn't one the image can store, so it's parsed when the image runs)
+    private final int[] wordLiterals;
+    private final int[] code;
+    // Location of each instruction: line, column, start and end offsets
+    private final int[] locations;
+
+    private ModuleImage(long fingerprint, String screenName, Object[] constants, String[] wordNames,
+                        int[] wordLiterals, int[] code, int[] locations) {
+        this.fingerprint = fingerprint;
+        this.screenName = screenName;
+        this.constants = constants;
+        this.wordNames = wordNames;
+        this.wordLiterals = wordLiterals;
+        this.code = code;
+        this.locations = locations;
+    }
+
+    // ===== Compiling =====
+
+    /**
+     * Compile source for interpreters with the same dictionary as interp.
+     * Nothing is run; tokenizer errors are thrown here rather than at load.
+     */
+    public static ModuleImage compile(String source, BareInterpreter interp, CodeLocation referenceLocation) {
+        return new Builder(interp).build(source, referenceLocation);
+    }
+
+    public static ModuleImage compile(String source, BareInterpreter interp) {
+        return compile(source, interp, null);
+    }
+
+    private static class Builder {
+        private final BareInterpreter interp;
+        private final List<Object> constants = new ArrayList<>();
+        private final Map<Object, Integer> constantIndex = new HashMap<>();
+        private final List<String> wordNames = new ArrayList<>();
+        private final List<Integer> wordLiterals = new ArrayList<>();
+        private final Map<String, Integer> wordIndex = new HashMap<>();
+        private int[] code = new int[1024];
+        private int[] locations = new int[4 * 1024];
+        private int size;
+
+        Builder(BareInterpreter interp) {
+            this.interp = interp;
+        }
+
+        ModuleImage build(String source, CodeLocation referenceLocation) {
+            Tokenizer tokenizer = new Tokenizer(source, referenceLocation);
+            String screenName = referenceLocation == null ? null : referenceLocation.getScreenName();
+            while (true) {
+                Token token = tokenizer.nextToken();
+                switch (token.getType()) {
+                    case EOS:
+                        return new ModuleImage(interp.getDictionaryFingerprint(), screenName,
+                            constants.toArray(),
+                            wordNames.toArray(new String[0]),
+                            wordLiterals.stream().mapToInt(Integer::intValue).toArray(),
+                            Arrays.copyOf(code, size),
+                            Arrays.copyOf(locations, 4 * size));
+                    case COMMENT:
+                        continue;
+                    case STRING:
+                        add(Opcodes.STRING, constant(token.getString()), token);
+                        break;
+                    case DOT_SYMBOL:
+                        add(Opcodes.PUSH, constant(token.getString()), token);
+                        break;
+                    case WORD:
+                        add(Opcodes.CALL, word(token.getString()), token);
+                        break;
+                    case START_ARRAY:
+                        add(Opcodes.START_ARRAY, 0, token);
+                        break;
+                    case END_ARRAY:
+                        add(Opcodes.END_ARRAY, 0, token);
+                        break;
+                    case START_MODULE:
+                        add(Opcodes.START_MODULE, constant(token.getString()), token);
+                        break;
+                    case END_MODULE:
+                        add(Opcodes.END_MODULE, 0, token);
+                        break;
+                    case START_DEF:
+                        add(Opcodes.START_DEF, constant(token.getString()), token);
+                        break;
+                    case START_MEMO:
+                        add(Opcodes.START_MEMO, constant(token.getString()), token);
+                        break;
+                    case END_DEF:
+                        add(Opcodes.END_DEF, 0, token);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected token: " + token);
+                }
+            }
+        }
+
+        private void add(int opcode, int operand, Token token) {
+            if (size == code.length) {
+                code = Arrays.copyOf(code, 2 * size);
+                locations = Arrays.copyOf(locations, 8 * size);
+            }
+            CodeLocation location = token.getLocation();
+            code[size] = Opcodes.encode(opcode, operand);
+            locations[4 * size] = location.getLine();
+            locations[4 * size + 1] = location.getColumn();
+            locations[4 * size + 2] = location.getStartPos();
+            locations[4 * size + 3] = location.getEndPos();
+            size++;
+        }
+
+        private int constant(Object value) {
+            Integer index = constantIndex.get(value);
+            if (index == null) {
+                index = constants.size();
+                constants.add(value);
+                constantIndex.put(value, index);
+            }
+            return index;
+        }
+
+        private int word(String name) {
+            Integer index = wordIndex.get(name);
+            if (index == null) {
+                index = wordNames.size();
+                wordNames.add(name);
+                Object literal = interp.literalValue(name);
+                wordLiterals.add(literal != null && isStorable(literal) ? constant(literal) : -1);
+                wordIndex.put(name, index);
+            }
+            return index;
+        }
+    }
+
+    private static boolean isStorable(Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Long
+            || value instanceof Double || value instanceof Boolean
+            || value instanceof BigInteger || value instanceof BigDecimal;
+    }
+
+    // ===== Reading and Writing =====
+
+    public void write(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(out);
+        }
+    }
+
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(fingerprint);
+        writeString(out, screenName == null ? "" : screenName);
+
+        writeVarint(out, constants.length);
+        for (Object constant : constants) {
+            if (constant instanceof String) {
+                out.writeByte(STRING);
+                writeString(out, (String) constant);
+            } else if (constant instanceof Integer) {
+                out.writeByte(INTEGER);
+                writeVarint(out, zigzag((Integer) constant));
+            } else if (constant instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) constant);
+            } else if (constant instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) constant);
+            } else if (constant instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) constant);
+            } else if (constant instanceof BigInteger) {
+                out.writeByte(BIG_INTEGER);
+                writeString(out, constant.toString());
+            } else {
+                out.writeByte(BIG_DECIMAL);
+                writeString(out, constant.toString());
+            }
+        }
+
+        writeVarint(out, wordNames.length);
+        for (int i = 0; i < wordNames.length; i++) {
+            writeString(out, wordNames[i]);
+            writeVarint(out, wordLiterals[i] + 1);
+        }
+
+        writeVarint(out, code.length);
+        for (int instruction : code) {
+            writeVarint(out, Opcodes.operand(instruction) << OPCODE_BITS | Opcodes.opcode(instruction));
+        }
+        // Each location relative to the previous one. On the same line the column moves
+        // with the start offset, so only the start and length are written; the low bit of
+        // the start difference says whether the line and column follow.
+        int line = 0;
+        int column = 0;
+        int start = 0;
+        for (int pc = 0; pc < code.length; pc++) {
+            int newLine = locations[4 * pc];
+            int newColumn = locations[4 * pc + 1];
+            int newStart = locations[4 * pc + 2];
+            int newEnd = locations[4 * pc + 3];
+            boolean moved = newLine != line || newColumn != column + (newStart - start);
+            writeVarint(out, zigzag(newStart - start) << 1 | (moved ? 1 : 0));
+            if (moved) {
+                writeVarint(out, zigzag(newLine - line));
+                writeVarint(out, zigzag(newColumn));
+            }
+            writeVarint(out, zigzag(newEnd - newStart));
+            line = newLine;
+            column = newColumn;
+            start = newStart;
+        }
+        out.flush();
+    }
+
+    /**
+     * Read an image from a file, memory-mapping it rather than copying it into the heap
+     *
+     * @throws IOException If the file isn't an image of this version
+     */
+    public static ModuleImage read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static ModuleImage read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a Forthic module image");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported module image version " + version + " (expected " + VERSION + ")");
+            }
+            long fingerprint = buffer.getLong();
+            String screenName = readString(buffer);
+
+            Object[] constants = new Object[readVarint(buffer)];
+            for (int i = 0; i < constants.length; i++) {
+                byte tag = buffer.get();
+                switch (tag) {
+                    case STRING: constants[i] = readString(buffer); break;
+                    case INTEGER: constants[i] = unzigzag(readVarint(buffer)); break;
+                    case LONG: constants[i] = buffer.getLong(); break;
+                    case DOUBLE: constants[i] = buffer.getDouble(); break;
+                    case BOOLEAN: constants[i] = buffer.get() != 0; break;
+                    case BIG_INTEGER: constants[i] = new BigInteger(readString(buffer)); break;
+                    case BIG_DECIMAL: constants[i] = new BigDecimal(readString(buffer)); break;
+                    default: throw new IOException("Bad constant tag " + tag);
+                }
+            }
+
+            String[] wordNames = new String[readVarint(buffer)];
+            int[] wordLiterals = new int[wordNames.length];
+            for (int i = 0; i < wordNames.length; i++) {
+                wordNames[i] = readString(buffer);
+                wordLiterals[i] = readVarint(buffer) - 1;
+            }
+
+            int[] code = new int[readVarint(buffer)];
+            for (int pc = 0; pc < code.length; pc++) {
+                int instruction = readVarint(buffer);
+                code[pc] = Opcodes.encode(instruction & OPCODE_MASK, instruction >>> OPCODE_BITS);
+            }
+            int[] locations = new int[4 * code.length];
+            int line = 0;
+            int column = 0;
+            int start = 0;
+            for (int pc = 0; pc < code.length; pc++) {
+                int startDelta = readVarint(buffer);
+                int newStart = start + unzigzag(startDelta >>> 1);
+                int newLine = line;
+                int newColumn = column + (newStart - start);
+                if ((startDelta & 1) != 0) {
+                    newLine = line + unzigzag(readVarint(buffer));
+                    newColumn = unzigzag(readVarint(buffer));
+                }
+                locations[4 * pc] = newLine;
+                locations[4 * pc + 1] = newColumn;
+                locations[4 * pc + 2] = newStart;
+                locations[4 * pc + 3] = newStart + unzigzag(readVarint(buffer));
+                line = newLine;
+                column = newColumn;
+                start = newStart;
+            }
+            return new ModuleImage(fingerprint, screenName.isEmpty() ? null : screenName,
+                constants, wordNames, wordLiterals, code, locations);
+        } catch (RuntimeException e) {
+            // e.g. BufferUnderflowException for a truncated file
+            throw new IOException("Corrupt module image", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[readVarint(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Unsigned value in 7-bit groups, low group first, high bit set on all but the last
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Corrupt module image: bad varint");
+    }
+
+    // Signed values as unsigned, so small negative differences stay short
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // ===== Access =====
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Instructions (see {@link Opcodes}); don't modify
+     */
+    public int[] getCode() {
+        return code;
+    }
+
+    public Object getConstant(int index) {
+        return constants[index];
+    }
+
+    public String getWordName(int index) {
+        return wordNames[index];
+    }
+
+    /**
+     * Whether word index has a literal value stored in the image
+     */
+    public boolean hasWordLiteral(int index) {
+        return wordLiterals[index] >= 0;
+    }
+
+    public Object getWordLiteral(int index) {
+        return constants[wordLiterals[index]];
+    }
+
+    public int getWordCount() {
+        return wordNames.length;
+    }
+
+    /**
+     * Location of the instruction at pc in the source the image was compiled from
+     */
+    public CodeLocation getLocation(int pc) {
+        return new CodeLocation(screenName == null ? "<string>" : screenName,
+            locations[4 * pc], locations[4 * pc + 1], locations[4 * pc + 2], locations[4 * pc + 3]);
+    }
+}
@@ -0,0 +1,67 @@
+package com.forthix.forthic.compiler;
+
+/**
+ * Instruction set for code stored as an int array: module images (see {@link ModuleImage})
+ * and definition bodies (see {@link com.forthix.forthic.module.DefinitionWord}).
+ *
+ * Each instruction is one int: the opcode in the low 8 bits and an operand, an index
+ * into a pool of constants or words, in the high 24 bits.
+ */
+public final class Opcodes {
+    /** Push constant[operand] */
+    public static final int PUSH = 1;
+    /** Push the string constant[operand], remembering where it appeared */
+    public static final int STRING = 2;
+    /** Run (or compile into the current definition) word[operand] */
+    public static final int CALL = 3;
+    /** Start an array literal */
+    public static final int START_ARRAY = 4;
+    /** End an array literal */
+    public static final int END_ARRAY = 5;
+    /** Push the module named constant[operand] (empty for the app module) */
+    public static final int START_MODULE = 6;
+    /** Pop the current module */
+    public static final int END_MODULE = 7;
+    /** Start a definition named constant[operand] */
+    public static final int START_DEF = 8;
+    /** Start a memo definition named constant[operand] */
+    public static final int START_MEMO = 9;
+    /** End the current definition */
+    public static final int END_DEF = 10;
+    /** Run the definition word[operand] (threaded code only) */
+    public static final int CALL_DEFINITION = 11;
+    /**
+     * Call the fixed-arity target word[operand] (see
+     * {@link com.forthix.forthic.module.WordInvokers#getTarget}) with 0-3 inputs and push
+     * its result (threaded code only)
+     */
+    public static final int CALL_VALUE0 = 12;
+    public static final int CALL_VALUE1 = 13;
+    public static final int CALL_VALUE2 = 14;
+    public static final int CALL_VALUE3 = 15;
+    /** Call the fixed-arity target word[operand] with 0-3 inputs (threaded code only) */
+    public static final int CALL_VOID0 = 16;
+    public static final int CALL_VOID1 = 17;
+    public static final int CALL_VOID2 = 18;
+    public static final int CALL_VOID3 = 19;
+
+    public static final int MAX_OPERAND = (1 << 24) - 1;
+
+    private Opcodes() {
+    }
+
+    public static int encode(int opcode, int operand) {
+        if (operand < 0 || operand > MAX_OPERAND) {
+            throw new IllegalArgumentException("Operand out of range: " + operand);
+        }
+        return opcode | (operand << 8);
+    }
+
+    public static int opcode(int instruction) {
+        return instruction & 0xFF;
+    }
+
+    public static int operand(int instruction) {
+        return instruction >>> 8;
+    }
+}
@@ -1,14 +1,29 @@
 package com.forthix.forthic.interpreter;
 
+import com.forthix.forthic.compiler.DefinitionCompiler;
+import com.forthix.forthic.compiler.ModuleImage;
+import com.forthix.forthic.compiler.Opcodes;
 import com.forthix.forthic.errors.*;
 import com.forthix.forthic.module.*;
 import com.forthix.forthic.tokenizer.*;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 /**
  * BareInterpreter - Core Forthic execution engine
  */
 public class BareInterpreter {
+  protected static final int COMPILED_CODE_CACHE_SIZE = 256;
+  protected static final int RESOLVED_WORD_CACHE_SIZE = 4096;
+  protected static final int LITERAL_WORD_CACHE_SIZE = 4096;
+  protected static final int STREAM_BUFFER_SIZE = 64 * 1024;
+  // Held-back text longer than this is rescanned only once it has doubled
+  protected static final int STREAM_RESCAN_THRESHOLD = 64 * 1024;
+  // Cached marker for names that aren't in any dictionary
+  private static final ForthicWord UNRESOLVED = new PushValueWord("", null);
+  // Fork running on each thread, so modules it shares can find it (see ForthicModule.getInterp)
+  private static final ThreadLocal<BareInterpreter> runningFork = new ThreadLocal<>();
+
   protected ForthicStack stack;
   protected ForthicModule appModule;
   protected List<ForthicModule> moduleStack;
@@ -20,8 +35,25 @@ public class BareInterpreter {
   protected DefinitionWord curDefinition;
   protected CodeLocation stringLocation;
   protected List<LiteralHandler> literalHandlers;
+  protected Map<String, ForthicWord> literalWords;
+  protected Map<CompiledCodeKey, CompiledCodeEntry> compiledCodeCache;
+  protected Map<ForthicModule, ResolvedWords> resolvedWords;
+  // Sum of the registered modules' change counts, as of a dictionary version
+  protected long registeredStamp;
+  protected long registeredStampVersion = -1;
+  protected final BareInterpreter prototype;
+  protected final ModuleForker forker;
+  protected DefinitionCompiler definitionCompiler;
+  protected Profiler profiler;
+  protected Profiler activeProfiler;
+  protected StringBuilder streamPending;
+  protected CodeLocation streamLocation;
+  protected int streamRescanLength;
+  private volatile boolean hasForks;
 
   public BareInterpreter(List<ForthicModule> modules) {
+    this.prototype = this;
+    this.forker = null;
     this.stack = new ForthicStack();
     this.tokenizerStack = new ArrayList<>();
     this.appModule = new ForthicModule("");
@@ -35,6 +67,14 @@ public class BareInterpreter {
     this.stringLocation = null;
     this.previousToken = null;
     this.literalHandlers = new ArrayList<>();
+    this.literalWords = new HashMap<>();
+    this.compiledCodeCache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CompiledCodeKey, CompiledCodeEntry> eldest) {
+        return size() > COMPILED_CODE_CACHE_SIZE;
+      }
+    };
+    this.resolvedWords = new IdentityHashMap<>();
     registerStandardLiterals();
     importModules(modules);
   }
@@ -43,6 +83,107 @@ public class BareInterpreter {
     this(new ArrayList<>());
   }
 
+  /**
+   * Create a fork of an interpreter (see {@link #fork()})
+   */
+  protected BareInterpreter(BareInterpreter source) {
+    this.prototype = source.prototype;
+    this.prototype.hasForks = true;
+    this.forker = new ModuleForker();
+    this.stack = new ForthicStack();
+    this.tokenizerStack = new ArrayList<>();
+    this.appModule = forker.fork(source.appModule, this);
+    this.appModule.setInterp(this);
+    this.moduleStack = new ArrayList<>();
+    for (ForthicModule module : source.moduleStack) {
+      this.moduleStack.add(forker.forkedModule(module));
+    }
+    this.registeredModules = new HashMap<>();
+    for (Map.Entry<String, ForthicModule> entry : source.registeredModules.entrySet()) {
+      registeredModules.put(entry.getKey(), forker.forkedModule(entry.getValue()));
+    }
+    this.isCompiling = false;
+    this.isMemoDefinition = false;
+    this.curDefinition = null;
+    this.stringLocation = null;
+    this.previousToken = null;
+    this.literalHandlers = new ArrayList<>(source.literalHandlers);
+    this.literalWords = new HashMap<>();
+    this.compiledCodeCache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CompiledCodeKey, CompiledCodeEntry> eldest) {
+        return size() > COMPILED_CODE_CACHE_SIZE;
+      }
+    };
+    this.resolvedWords = new IdentityHashMap<>();
+    this.definitionCompiler = source.definitionCompiler;
+  }
+
+  /**
+   * Create a lightweight copy of this interpreter for use on another thread.
+   *
+   * The fork shares registered modules (and their words) with this interpreter but has
+   * its own stack, app module and variables, and definitions are relinked to the fork's
+   * variables. No module registration is repeated, so forking is much cheaper than
+   * building a new interpreter.
+   *
+   * A word may fork the interpreter running it, as PMAP does: the fork starts in the
+   * current module with an empty stack. This interpreter must not be running on another
+   * thread while it is forked.
+   *
+   * Shared modules find the fork through the thread running it, so drive forks through
+   * {@link #run(String)}.
+   */
+  public BareInterpreter fork() {
+    return new BareInterpreter(this);
+  }
+
+  /**
+   * The interpreter this one was forked from, or itself if it isn't a fork
+   */
+  public BareInterpreter getPrototype() {
+    return prototype;
+  }
+
+  public boolean isFork() {
+    return prototype != this;
+  }
+
+  public boolean hasForks() {
+    return hasForks;
+  }
+
+  /**
+   * The fork currently running on this thread, if any
+   */
+  public static BareInterpreter getRunningFork() {
+    return runningFork.get();
+  }
+
+  /**
+   * Put a fork back into the state it was forked in: empty stack, no pending definition
+   * and variables set back to their original values.
+   *
+   * @return false if this isn't a fork or if words, variables or modules were added to it,
+   *         in which case it can't be restored
+   */
+  public boolean restoreFork() {
+    if (forker == null || !forker.isUnchanged()) {
+      return false;
+    }
+    stack = new ForthicStack();
+    moduleStack.clear();
+    moduleStack.add(appModule);
+    tokenizerStack.clear();
+    isCompiling = false;
+    isMemoDefinition = false;
+    curDefinition = null;
+    stringLocation = null;
+    previousToken = null;
+    forker.restoreVariables();
+    return true;
+  }
+
   public ForthicModule getAppModule() {
     return appModule;
   }
@@ -65,6 +206,46 @@ public class BareInterpreter {
     return stringLocation;
   }
 
+  public DefinitionCompiler getDefinitionCompiler() {
+    return definitionCompiler;
+  }
+
+  /**
+   * Start a new profile, dropping the last one
+   */
+  public void startProfiling() {
+    profiler = new Profiler();
+    activeProfiler = profiler;
+  }
+
+  public void stopProfiling() {
+    if (activeProfiler != null) {
+      activeProfiler.stop();
+    }
+    activeProfiler = null;
+  }
+
+  /**
+   * The running or last profile, or null if profiling was never started
+   */
+  public Profiler getProfiler() {
+    return profiler;
+  }
+
+  /**
+   * The running profile, or null if profiling is off
+   */
+  public Profiler getActiveProfiler() {
+    return activeProfiler;
+  }
+
+  /**
+   * Compile hot definitions to bytecode with the given compiler, or turn compilation off (null)
+   */
+  public void setDefinitionCompiler(DefinitionCompiler definitionCompiler) {
+    this.definitionCompiler = definitionCompiler;
+  }
+
   public void reset() {
     stack = new ForthicStack();
     appModule.getVariables().clear();
@@ -74,9 +255,33 @@ public class BareInterpreter {
     isMemoDefinition = false;
     curDefinition = null;
     stringLocation = null;
+    clearStream();
+    compiledCodeCache.clear();
+    resolvedWords.clear();
   }
 
   public boolean run(String string, CodeLocation referenceLocation) throws Exception {
+    return callAsRunning(() -> runString(string, referenceLocation));
+  }
+
+  /**
+   * Call an action with this interpreter as the running fork on this thread, as
+   * {@link #run(String)} does. Use this to drive a fork through compiled code or words.
+   */
+  public <R> R callAsRunning(Callable<R> action) throws Exception {
+    if (forker == null) {
+      return action.call();
+    }
+    BareInterpreter previous = runningFork.get();
+    runningFork.set(this);
+    try {
+      return action.call();
+    } finally {
+      runningFork.set(previous);
+    }
+  }
+
+  private boolean runString(String string, CodeLocation referenceLocation) throws Exception {
     tokenizerStack.add(new Tokenizer(string, referenceLocation));
     runWithTokenizer(tokenizerStack.get(tokenizerStack.size() - 1));
     tokenizerStack.remove(tokenizerStack.size() - 1);
@@ -87,6 +292,293 @@ public class BareInterpreter {
     return run(string, null);
   }
 
+  /**
+   * Run a module image compiled ahead of time, with the same effect as running its source
+   */
+  public boolean run(ModuleImage image) throws Exception {
+    if (image.getFingerprint() != getDictionaryFingerprint()) {
+      throw new ForthicError(getTopInputString(), "Module image was compiled for a different dictionary");
+    }
+    return callAsRunning(() -> runImage(image));
+  }
+
+  /**
+   * Hash of the registered modules and their words. Compiled images only run in
+   * interpreters with the fingerprint they were compiled with.
+   */
+  public long getDictionaryFingerprint() {
+    long hash = getClass().getName().hashCode();
+    List<String> moduleNames = new ArrayList<>(registeredModules.keySet());
+    Collections.sort(moduleNames);
+    for (String moduleName : moduleNames) {
+      hash = 31 * hash + moduleName.hashCode();
+      List<String> wordNames = new ArrayList<>();
+      for (ForthicWord word : registeredModules.get(moduleName).exportableWords()) {
+        wordNames.add(word.getName());
+      }
+      Collections.sort(wordNames);
+      for (String wordName : wordNames) {
+        hash = 31 * hash + wordName.hashCode();
+      }
+    }
+    return 31 * hash + literalHandlers.size();
+  }
+
+  /**
+   * Value a literal token pushes, or null if name isn't a literal
+   */
+  public Object literalValue(String name) {
+    ForthicWord word = findLiteralWord(name);
+    return word instanceof PushValueWord ? ((PushValueWord) word).getValue() : null;
+  }
+
+  // Each instruction is handled as the token it was compiled from would be, except that
+  // literals stored in the image aren't parsed again
+  private boolean runImage(ModuleImage image) throws Exception {
+    int[] code = image.getCode();
+    ForthicWord[] literalWords = new ForthicWord[image.getWordCount()];
+    tokenizerStack.add(new Tokenizer("", code.length == 0 ? null : image.getLocation(0)));
+    try {
+      for (int pc = 0; pc < code.length; pc++) {
+        int operand = Opcodes.operand(code[pc]);
+        CodeLocation location = image.getLocation(pc);
+        Token token;
+        switch (Opcodes.opcode(code[pc])) {
+          case Opcodes.CALL:
+            token = new Token(TokenType.WORD, image.getWordName(operand), location);
+            ForthicWord word = findDictionaryWord(token.getString());
+            if (word == null && image.hasWordLiteral(operand)) {
+              if (literalWords[operand] == null) {
+                literalWords[operand] = new PushValueWord(token.getString(), image.getWordLiteral(operand));
+              }
+              word = literalWords[operand];
+            }
+            if (word == null) {
+              word = findLiteralWord(token.getString());
+            }
+            if (word == null) {
+              throw new UnknownWordError(getTopInputString(), token.getString(), location);
+            }
+            handleWord(word, token);
+            previousToken = token;
+            continue;
+          case Opcodes.PUSH:
+            token = new Token(TokenType.DOT_SYMBOL, (String) image.getConstant(operand), location);
+            break;
+          case Opcodes.STRING:
+            token = new Token(TokenType.STRING, (String) image.getConstant(operand), location);
+            break;
+          case Opcodes.START_ARRAY:
+            token = new Token(TokenType.START_ARRAY, "[", location);
+            break;
+          case Opcodes.END_ARRAY:
+            token = new Token(TokenType.END_ARRAY, "]", location);
+            break;
+          case Opcodes.START_MODULE:
+            token = new Token(TokenType.START_MODULE, (String) image.getConstant(operand), location);
+            break;
+          case Opcodes.END_MODULE:
+            token = new Token(TokenType.END_MODULE, "}", location);
+            break;
+          case Opcodes.START_DEF:
+            token = new Token(TokenType.START_DEF, (String) image.getConstant(operand), location);
+            break;
+          case Opcodes.START_MEMO:
+            token = new Token(TokenType.START_MEMO, (String) image.getConstant(operand), location);
+            break;
+          case Opcodes.END_DEF:
+            token = new Token(TokenType.END_DEF, ";", location);
+            break;
+          default:
+            throw new IllegalStateException("Bad instruction " + code[pc] + " at " + pc);
+        }
+        handleToken(token);
+        previousToken = token;
+      }
+      handleToken(new Token(TokenType.EOS, "", code.length == 0 ? null : image.getLocation(code.length - 1)));
+    } finally {
+      tokenizerStack.remove(tokenizerStack.size() - 1);
+    }
+    return true;
+  }
+
+  /**
+   * Run Forthic read from a Reader, executing each chunk as it arrives (see {@link #runChunk(String)}).
+   * Text held back from an unfinished chunked script is dropped first.
+   */
+  public boolean run(java.io.Reader reader, CodeLocation referenceLocation) throws Exception {
+    clearStream();
+    streamLocation = referenceLocation;
+    char[] buffer = new char[STREAM_BUFFER_SIZE];
+    int count;
+    try {
+      while ((count = reader.read(buffer)) >= 0) {
+        if (count > 0) {
+          runChunk(new String(buffer, 0, count));
+        }
+      }
+    } catch (Exception e) {
+      clearStream();
+      throw e;
+    }
+    return endChunks();
+  }
+
+  public boolean run(java.io.Reader reader) throws Exception {
+    return run(reader, null);
+  }
+
+  /**
+   * Run the next chunk of a script that arrives in pieces.
+   *
+   * Complete tokens are executed right away. A token that may continue in the next
+   * chunk (a word, string or comment running up to the end of the chunk) is held back
+   * and scanned again with it, so tokens, strings and definitions can span chunks.
+   * Only the held-back text is kept between chunks. Call {@link #endChunks()} after
+   * the last chunk. If a chunk fails, the held-back text is dropped, so the next chunk
+   * starts a new script.
+   */
+  public void runChunk(String chunk) throws Exception {
+    callAsRunning(() -> {
+      runStreamChunk(chunk);
+      return null;
+    });
+  }
+
+  /**
+   * Run what's left of a chunked script, as the end of its input
+   */
+  public boolean endChunks() throws Exception {
+    if (streamPending == null) {
+      return true;
+    }
+    String rest = streamPending.toString();
+    CodeLocation location = streamLocation;
+    clearStream();
+    return run(rest, location);
+  }
+
+  private void clearStream() {
+    streamPending = null;
+    streamLocation = null;
+    streamRescanLength = 0;
+  }
+
+  private void runStreamChunk(String chunk) throws Exception {
+    try {
+      scanStreamChunk(chunk);
+    } catch (Exception e) {
+      clearStream();
+      throw e;
+    }
+  }
+
+  private void scanStreamChunk(String chunk) throws Exception {
+    if (streamPending == null) {
+      streamPending = new StringBuilder();
+    }
+    streamPending.append(chunk);
+    if (streamPending.length() < streamRescanLength) {
+      return;
+    }
+
+    String text = streamPending.toString();
+    Tokenizer tokenizer = new Tokenizer(text, streamLocation, true);
+    String input = tokenizer.getInputString();
+    int heldBack = 0;
+    tokenizerStack.add(tokenizer);
+    try {
+      while (true) {
+        heldBack = tokenizer.getPosition();
+        Token token = tokenizer.nextToken();
+        if (token == null || token.getType() == TokenType.EOS || tokenizer.mayContinue(token)) {
+          break;
+        }
+        handleToken(token);
+        previousToken = token;
+      }
+    } finally {
+      tokenizerStack.remove(tokenizerStack.size() - 1);
+    }
+
+    streamLocation = tokenizer.locationAt(heldBack);
+    streamPending = new StringBuilder(input.length() - heldBack + STREAM_BUFFER_SIZE);
+    streamPending.append(input, heldBack, input.length());
+    streamRescanLength = streamPending.length() > STREAM_RESCAN_THRESHOLD ? 2 * streamPending.length() : 0;
+  }
+
+  /**
+   * Compile a Forthic string into a word that can be executed repeatedly.
+   *
+   * Results are kept in a bounded LRU cache keyed by source string and current module,
+   * and are recompiled when the current module or a registered module changes (see
+   * {@link #dictionaryStamp}). Code that can't be compiled
+   * ahead of time (definitions, module blocks, words that don't exist yet) is returned
+   * as a word that simply runs the string.
+   */
+  public ForthicWord compile(String code) {
+    CompiledCodeKey key = new CompiledCodeKey(curModule(), code);
+    long stamp = dictionaryStamp(key.module);
+    CompiledCodeEntry entry = compiledCodeCache.get(key);
+    if (entry != null && entry.stamp == stamp) {
+      return entry.word;
+    }
+
+    ForthicWord word = compileCode(code);
+    if (word == null) {
+      word = new InterpretWord(code);
+    }
+    compiledCodeCache.put(key, new CompiledCodeEntry(word, stamp));
+    return word;
+  }
+
+  /**
+   * Resolve every token of a string against the current module.
+   * Returns null if the string has to be interpreted to preserve its meaning.
+   */
+  protected CompiledCode compileCode(String code) {
+    CompiledCode result = new CompiledCode(code);
+    try {
+      Tokenizer tokenizer = new Tokenizer(code);
+      while (true) {
+        Token token = tokenizer.nextToken();
+        ForthicWord word;
+        switch (token.getType()) {
+          case EOS:
+            return result;
+          case COMMENT:
+            continue;
+          case STRING:
+            word = new PushValueWord(token.getString(), new PositionedString(token.getString(), token.getLocation()));
+            break;
+          case START_ARRAY:
+            word = new PushValueWord("[", token.detach());
+            break;
+          case END_ARRAY:
+            word = new EndArrayWord();
+            break;
+          case DOT_SYMBOL:
+            word = new PushValueWord(token.getString(), token.getString());
+            break;
+          case WORD:
+            word = findWord(token.getString());
+            if (word == null) {
+              return null;
+            }
+            break;
+          default:
+            // Definitions and module blocks change how later tokens resolve
+            return null;
+        }
+        word.setLocation(token.getLocation());
+        result.addWord(word);
+      }
+    } catch (ForthicError e) {
+      // Let run() report tokenizer errors at the right point
+      return null;
+    }
+  }
+
   public ForthicModule curModule() {
     return moduleStack.get(moduleStack.size() - 1);
   }
@@ -103,6 +595,9 @@ public class BareInterpreter {
 
   public void registerModule(ForthicModule module) {
     registeredModules.put(module.getName(), module);
+    compiledCodeCache.clear();
+    resolvedWords.clear();
+    registeredStampVersion = -1;
   }
 
   public ForthicModule findModule(String name) {
@@ -205,7 +700,7 @@ public class BareInterpreter {
 
   protected void handleStartArrayToken(Token token) {
     if (isCompiling) {
-      PushValueWord word = new PushValueWord("[", token);
+      PushValueWord word = new PushValueWord("[", token.detach());
       word.setLocation(token.getLocation());
       curDefinition.addWord(word);
     } else {
@@ -218,6 +713,8 @@ public class BareInterpreter {
     word.setLocation(token.getLocation());
     if (isCompiling) {
       curDefinition.addWord(word);
+    } else if (activeProfiler != null) {
+      activeProfiler.run(word, this);
     } else {
       word.execute(this);
     }
@@ -281,9 +778,16 @@ public class BareInterpreter {
     if (word == null) {
       throw new UnknownWordError(getTopInputString(), token.getString(), token.getLocation());
     }
-    word.setLocation(token.getLocation());
+    handleWord(word, token);
+  }
+
+  protected void handleWord(ForthicWord word, Token token) throws Exception {
     if (isCompiling) {
+      // Only compiled words keep their location; it's built lazily from the token
+      word.setLocation(token.getLocation());
       curDefinition.addWord(word);
+    } else if (activeProfiler != null) {
+      activeProfiler.run(word, this);
     } else {
       word.execute(this);
     }
@@ -300,17 +804,32 @@ public class BareInterpreter {
   }
 
   protected void registerStandardLiterals() {
-    // Order matters: more specific handlers first
-    literalHandlers.add(Literals::toBool); // TRUE, FALSE
-    literalHandlers.add(Literals::toFloat); // 3.14
-    literalHandlers.add(Literals::toInt); // 42
+    // TRUE, FALSE, 42, 12345678901, 3.14, 19.99M
+    literalHandlers.add(Literals::classify);
   }
 
+  /**
+   * Word pushing the value of a literal token, or null.
+   *
+   * Words for immutable values are kept, so a literal repeated through a script is
+   * parsed once and shares one word.
+   */
   protected ForthicWord findLiteralWord(String name) {
+    ForthicWord word = literalWords.get(name);
+    if (word != null) {
+      return word;
+    }
     for (LiteralHandler handler : literalHandlers) {
       Object value = handler.handle(name);
       if (value != null) {
-        return new PushValueWord(name, value);
+        word = new PushValueWord(name, value);
+        if (value instanceof Number || value instanceof Boolean || value instanceof java.time.temporal.Temporal) {
+          if (literalWords.size() >= LITERAL_WORD_CACHE_SIZE) {
+            literalWords.clear();
+          }
+          literalWords.put(name, word);
+        }
+        return word;
       }
     }
     return null;
@@ -318,14 +837,7 @@ public class BareInterpreter {
 
   protected ForthicWord findWord(String name) {
     // 1. Check module stack (dictionary words + variables)
-    ForthicWord result = curModule().findWord(name);
-    if (result == null) {
-      for (ForthicModule module : registeredModules.values()) {
-        result = module.findWord(name);
-        if (result != null)
-          break;
-      }
-    }
+    ForthicWord result = findDictionaryWord(name);
 
     // 2. Check literal handlers as fallback
     if (result == null) {
@@ -335,6 +847,115 @@ public class BareInterpreter {
     return result;
   }
 
+  /**
+   * Resolve a name against the current module and then the registered modules.
+   *
+   * Results (including misses) are cached per module and dropped when the module or a
+   * registered module changes (see {@link #dictionaryStamp}), so a lookup is a couple of
+   * hash probes no matter how many modules are registered.
+   */
+  protected ForthicWord findDictionaryWord(String name) {
+    ForthicModule module = curModule();
+    long stamp = dictionaryStamp(module);
+    ResolvedWords resolved = resolvedWords.get(module);
+    if (resolved == null || resolved.stamp != stamp) {
+      resolved = new ResolvedWords(stamp);
+      resolvedWords.put(module, resolved);
+    }
+    Map<String, ForthicWord> cache = resolved.words;
+
+    ForthicWord result = cache.get(name);
+    if (result == null) {
+      result = module.findWord(name);
+      if (result == null) {
+        for (ForthicModule registered : registeredModules.values()) {
+          result = registered.findWord(name);
+          if (result != null)
+            break;
+        }
+      }
+      if (cache.size() >= RESOLVED_WORD_CACHE_SIZE) {
+        cache.clear();
+      }
+      cache.put(name, result == null ? UNRESOLVED : result);
+    }
+    return result == UNRESOLVED ? null : result;
+  }
+
+  /**
+   * Stamp of what resolving a name in module depends on: the change counts of the module
+   * and of the registered modules. Counts only grow, so the sum changes whenever any of
+   * them does, and changes to modules of other interpreters leave it alone.
+   *
+   * The registered modules' sum is only recomputed when some module has changed since
+   * it was last taken, so the usual cost is a field read and a comparison.
+   */
+  protected long dictionaryStamp(ForthicModule module) {
+    long version = ForthicModule.getDictionaryVersion();
+    if (version != registeredStampVersion) {
+      long sum = 0;
+      for (ForthicModule registered : registeredModules.values()) {
+        sum += registered.getChangeCount();
+      }
+      registeredStamp = sum;
+      registeredStampVersion = version;
+    }
+    return module.getChangeCount() + registeredStamp;
+  }
+
+  protected static class CompiledCodeKey {
+    private final ForthicModule module;
+    private final String code;
+
+    CompiledCodeKey(ForthicModule module, String code) {
+      this.module = module;
+      this.code = code;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof CompiledCodeKey)) return false;
+      CompiledCodeKey that = (CompiledCodeKey) obj;
+      return module == that.module && code.equals(that.code);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(module) + code.hashCode();
+    }
+  }
+
+  protected static class CompiledCodeEntry {
+    private final ForthicWord word;
+    private final long stamp;
+
+    CompiledCodeEntry(ForthicWord word, long stamp) {
+      this.word = word;
+      this.stamp = stamp;
+    }
+  }
+
+  protected static class ResolvedWords {
+    private final long stamp;
+    private final Map<String, ForthicWord> words = new HashMap<>();
+
+    ResolvedWords(long stamp) {
+      this.stamp = stamp;
+    }
+  }
+
+  protected static class InterpretWord extends ForthicWord {
+    public InterpretWord(String code) {
+      super(code);
+    }
+
+    @Override
+    public void execute(BareInterpreter interp) throws Exception {
+      interp.run(name);
+    }
+  }
+
   protected static class StartModuleWord extends ForthicWord {
     public StartModuleWord(String moduleName) {
       super(moduleName);
@@ -21,13 +21,22 @@ public class Interpreter extends BareInterpreter {
         this(List.of());
     }
 
+    protected Interpreter(Interpreter source) {
+        super(source);
+    }
+
+    @Override
+    public Interpreter fork() {
+        return new Interpreter(this);
+    }
+
     /**
      * Register and import a module with optional prefix
      */
     public void importModule(ForthicModule module, String prefix) {
         // Register the module (this sets the interpreter)
         module.setInterp(this);
-        registeredModules.put(module.getName(), module);
+        registerModule(module);
 
         // Import into app module
         appModule.importModule(prefix, module, this);
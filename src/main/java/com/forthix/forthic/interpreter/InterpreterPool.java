@@ -0,0 +1,111 @@
+package com.forthix.forthic.interpreter;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe pool of interpreter forks.
+ *
+ * Set up a prototype once (modules loaded, app-level definitions compiled), then hand
+ * it to a pool. Each {@link #acquire()} returns a fork of the prototype with its own
+ * stack and variables; {@link #release(BareInterpreter)} restores it and keeps it for
+ * the next caller, along with the compiled code it has cached.
+ *
+ * The prototype must not be used directly once it is pooled.
+ *
+ * <pre>
+ * StandardInterpreter prototype = new StandardInterpreter();
+ * prototype.run(": DOUBLE   2 * ;");
+ * InterpreterPool&lt;StandardInterpreter&gt; pool = new InterpreterPool&lt;&gt;(prototype);
+ *
+ * Object result = pool.withInterpreter(interp -&gt; {
+ *     interp.run("21 DOUBLE");
+ *     return interp.stackPop();
+ * });
+ * </pre>
+ */
+public class InterpreterPool<T extends BareInterpreter> {
+    private final T prototype;
+    private final int maxIdle;
+    private final ConcurrentLinkedDeque<T> idle;
+    private final AtomicInteger idleCount;
+
+    /**
+     * @param prototype Interpreter to fork
+     * @param maxIdle Maximum number of released forks kept for reuse
+     */
+    public InterpreterPool(T prototype, int maxIdle) {
+        this.prototype = prototype;
+        this.maxIdle = maxIdle;
+        this.idle = new ConcurrentLinkedDeque<>();
+        this.idleCount = new AtomicInteger();
+    }
+
+    public InterpreterPool(T prototype) {
+        this(prototype, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public T getPrototype() {
+        return prototype;
+    }
+
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /**
+     * Check out an interpreter, reusing an idle fork if there is one
+     */
+    public T acquire() {
+        T result = idle.pollFirst();
+        if (result != null) {
+            idleCount.decrementAndGet();
+            return result;
+        }
+        return fork();
+    }
+
+    /**
+     * Return an interpreter to the pool.
+     *
+     * Forks that defined new words, variables or modules can't be restored and are dropped.
+     */
+    public void release(T interp) {
+        if (interp.getPrototype() != prototype.getPrototype()) {
+            throw new IllegalArgumentException("Interpreter was not acquired from this pool");
+        }
+        if (!interp.restoreFork()) {
+            return;
+        }
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idle.offerFirst(interp);
+    }
+
+    /**
+     * Run a task with a pooled interpreter, releasing it afterwards
+     */
+    public <R> R withInterpreter(PooledTask<T, R> task) throws Exception {
+        T interp = acquire();
+        try {
+            return task.run(interp);
+        } finally {
+            release(interp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T fork() {
+        return (T) prototype.fork();
+    }
+
+    /**
+     * Work done with a pooled interpreter
+     */
+    @FunctionalInterface
+    public interface PooledTask<T extends BareInterpreter, R> {
+        R run(T interp) throws Exception;
+    }
+}
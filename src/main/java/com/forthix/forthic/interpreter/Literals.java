@@ -1,17 +1,42 @@
 package com.forthix.forthic.interpreter;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Standard literal handlers for Forthic.
  */
 public class Literals {
 
+    /**
+     * Parse any standard literal: booleans, integers and floats.
+     *
+     * Looks at the first character to rule out most non-literals at once, then reads
+     * numbers in one pass without exceptions:
+     * - TRUE, FALSE
+     * - Integers (42, -10): Integer if in range, otherwise Long, otherwise BigInteger.
+     *   No leading zeros or '+', as "007" isn't how the integer prints.
+     * - Floats (3.14, -2.5, .5, 1.5e3): must contain a decimal point. Double.
+     * - Decimals (19.99M, 100M): BigDecimal
+     */
+    public static Object classify(String str) {
+        if (str.isEmpty()) return null;
+        char first = str.charAt(0);
+        if (first == 'T' || first == 'F') {
+            return toBool(str);
+        }
+        if ((first >= '0' && first <= '9') || first == '-' || first == '+' || first == '.') {
+            return toNumber(str);
+        }
+        return null;
+    }
+
     /**
      * Parse boolean literals: TRUE, FALSE
      */
@@ -26,28 +51,74 @@ public class Literals {
      * Must contain a decimal point
      */
     public static Object toFloat(String str) {
-        if (!str.contains(".")) return null;
-        try {
-            return Double.parseDouble(str);
-        } catch (NumberFormatException e) {
-            return null;
-        }
+        Object result = toNumber(str);
+        return result instanceof Double ? result : null;
     }
 
     /**
-     * Parse integer literals: 42, -10, 0
+     * Parse integer literals: 42, -10, 0, 12345678901
      * Must not contain a decimal point
      */
     public static Object toInt(String str) {
-        if (str.contains(".")) return null;
-        try {
-            int result = Integer.parseInt(str);
-            // Verify it's actually an integer string (not "42abc")
-            if (!Integer.toString(result).equals(str)) return null;
-            return result;
-        } catch (NumberFormatException e) {
+        Object result = toNumber(str);
+        return result instanceof Integer || result instanceof Long || result instanceof BigInteger ? result : null;
+    }
+
+    private static Object toNumber(String str) {
+        int n = str.length();
+        boolean decimal = n > 1 && str.charAt(n - 1) == 'M';
+        int end = decimal ? n - 1 : n;
+        int i = 0;
+        char sign = str.charAt(0);
+        if (sign == '-' || sign == '+') {
+            i++;
+        }
+
+        int intStart = i;
+        while (i < end && isDigit(str.charAt(i))) i++;
+        int intDigits = i - intStart;
+
+        int fractionDigits = -1;
+        if (i < end && str.charAt(i) == '.') {
+            i++;
+            int fractionStart = i;
+            while (i < end && isDigit(str.charAt(i))) i++;
+            fractionDigits = i - fractionStart;
+        }
+        if (intDigits == 0 && fractionDigits <= 0) return null;
+
+        boolean exponent = false;
+        if (i < end && (str.charAt(i) == 'e' || str.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (str.charAt(i) == '+' || str.charAt(i) == '-')) i++;
+            int exponentStart = i;
+            while (i < end && isDigit(str.charAt(i))) i++;
+            if (i == exponentStart) return null;
+            exponent = true;
+        }
+        if (i != end) return null;
+
+        if (decimal) {
+            return new BigDecimal(str.substring(sign == '+' ? 1 : 0, end));
+        }
+        if (fractionDigits >= 0) {
+            return Double.parseDouble(str);
+        }
+        // Integers print without '+', leading zeros or "-0", and need a point for an exponent
+        if (exponent || sign == '+' || (str.charAt(intStart) == '0' && (intDigits > 1 || intStart > 0))) {
             return null;
         }
+        if (intDigits <= 18) {
+            long value = 0;
+            for (int k = intStart; k < end; k++) {
+                value = value * 10 + (str.charAt(k) - '0');
+            }
+            if (intStart > 0) value = -value;
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) return (int) value;
+            return value;
+        }
+        BigInteger value = new BigInteger(str);
+        return value.bitLength() < 64 ? (Object) value.longValue() : value;
     }
 
     /**
@@ -65,57 +136,43 @@ public class Literals {
 
             try {
                 // Extract IANA timezone from brackets if present
-                Pattern bracketPattern = Pattern.compile("\\[([^\\]]+)\\]$");
-                Matcher bracketMatcher = bracketPattern.matcher(str);
+                int bracketStart = timezoneBracketStart(str);
 
-                if (bracketMatcher.find()) {
+                if (bracketStart >= 0) {
                     // Extract IANA timezone name from brackets
-                    String tzName = bracketMatcher.group(1);
+                    String tzName = str.substring(bracketStart + 1, str.length() - 1);
 
                     // Validate timezone identifier
-                    ZoneId tz;
-                    try {
-                        tz = ZoneId.of(tzName);
-                    } catch (Exception e) {
+                    ZoneId tz = zone(tzName);
+                    if (tz == null) {
                         return null;  // Invalid timezone
                     }
 
                     // Extract datetime string (before bracket)
-                    String datetimeStr = str.substring(0, bracketMatcher.start());
+                    String datetimeStr = str.substring(0, bracketStart);
 
                     // Handle Z suffix - convert to +00:00
                     if (datetimeStr.endsWith("Z")) {
                         datetimeStr = datetimeStr.substring(0, datetimeStr.length() - 1) + "+00:00";
                     }
 
-                    // Parse datetime (may have offset)
-                    ZonedDateTime zdt;
-                    try {
-                        // Try ISO format with offset
-                        zdt = ZonedDateTime.parse(datetimeStr, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                        // Convert to specified timezone
-                        return zdt.withZoneSameInstant(tz);
-                    } catch (DateTimeParseException e) {
-                        try {
-                            // Try simple format without offset - parse in the target timezone
-                            return ZonedDateTime.parse(datetimeStr,
-                                DateTimeFormatter.ISO_LOCAL_DATE_TIME.withZone(tz));
-                        } catch (DateTimeParseException e2) {
-                            return null;
-                        }
+                    // Parse datetime (may have offset), converted to the specified timezone;
+                    // without an offset, parse it in the target timezone
+                    if (hasOffset(datetimeStr)) {
+                        return ZonedDateTime.parse(datetimeStr, DateTimeFormatter.ISO_OFFSET_DATE_TIME).withZoneSameInstant(tz);
                     }
+                    return ZonedDateTime.parse(datetimeStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME.withZone(tz));
                 }
 
                 // No brackets - handle as before
 
                 // Handle explicit UTC (Z suffix)
                 if (str.endsWith("Z")) {
-                    return ZonedDateTime.parse(str, DateTimeFormatter.ISO_INSTANT.withZone(ZoneId.of("UTC")));
+                    return ZonedDateTime.parse(str, UTC_INSTANT);
                 }
 
                 // Handle explicit timezone offset (+05:00, -05:00)
-                Pattern offsetPattern = Pattern.compile("[+-]\\d{2}:\\d{2}$");
-                if (offsetPattern.matcher(str).find()) {
+                if (hasOffset(str)) {
                     return ZonedDateTime.parse(str, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
                 }
 
@@ -127,5 +184,55 @@ public class Literals {
             }
         };
     }
-}
 
+    private static final DateTimeFormatter UTC_INSTANT = DateTimeFormatter.ISO_INSTANT.withZone(ZoneId.of("UTC"));
+
+    // Zones by name; there are only a few hundred valid names
+    private static final Map<String, ZoneId> zones = new ConcurrentHashMap<>();
+
+    /**
+     * Zone with a name, or null if the name isn't valid
+     */
+    private static ZoneId zone(String name) {
+        ZoneId zone = zones.get(name);
+        if (zone == null) {
+            try {
+                zone = ZoneId.of(name);
+            } catch (Exception e) {
+                return null;
+            }
+            zones.put(name, zone);
+        }
+        return zone;
+    }
+
+    /**
+     * Start of a trailing "[zone]", or -1. The zone is everything after the last '['
+     * that follows the last inner ']'.
+     */
+    private static int timezoneBracketStart(String str) {
+        int close = str.length() - 1;
+        if (close < 0 || str.charAt(close) != ']') {
+            return -1;
+        }
+        int open = str.indexOf('[', str.lastIndexOf(']', close - 1) + 1);
+        return open >= 0 && open < close - 1 ? open : -1;
+    }
+
+    /**
+     * Whether a string ends with an offset like +05:00 or -05:00
+     */
+    private static boolean hasOffset(String str) {
+        int n = str.length();
+        if (n < 6) return false;
+        char sign = str.charAt(n - 6);
+        return (sign == '+' || sign == '-')
+            && isDigit(str.charAt(n - 5)) && isDigit(str.charAt(n - 4))
+            && str.charAt(n - 3) == ':'
+            && isDigit(str.charAt(n - 2)) && isDigit(str.charAt(n - 1));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,195 @@
+package com.forthix.forthic.interpreter;
+
+import com.forthix.forthic.module.DefinitionWord;
+import com.forthix.forthic.module.ForthicWord;
+import com.forthix.forthic.module.PushValueWord;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-word execution profile of one interpreter, started by PROFILE-START.
+ *
+ * Words run from the top level, from interpreted definitions and from the strings that
+ * MAP, SELECT and the like compile are timed one by one.
+ * While profiling, definitions run interpreted rather than compiled so the words inside
+ * them are timed too. A word's inclusive time includes the words it runs; its exclusive
+ * time doesn't. Allocated bytes are measured the same way when the JVM supports it (-1
+ * otherwise). Literals aren't timed.
+ *
+ * Only the thread running the interpreter is profiled, so forks made by parallel words
+ * (PMAP and the like) aren't.
+ */
+public class Profiler {
+  private static final com.sun.management.ThreadMXBean allocationBean = allocationBean();
+
+  private final long startNanos;
+  private final Map<String, WordStats> stats = new HashMap<>();
+  private final List<Map<String, Object>> timestamps = new ArrayList<>();
+  private volatile boolean running = true;
+
+  // Stack of words being run
+  private WordStats[] frameStats = new WordStats[16];
+  private long[] frameStart = new long[16];
+  private long[] frameStartBytes = new long[16];
+  private long[] frameChildNanos = new long[16];
+  private long[] frameChildBytes = new long[16];
+  private int depth;
+
+  private static class WordStats {
+    final String word;
+    long calls;
+    long inclusiveNanos;
+    long exclusiveNanos;
+    long inclusiveBytes;
+    long exclusiveBytes;
+    // Running activations, so recursive calls count once toward inclusive totals
+    int active;
+
+    WordStats(String word) {
+      this.word = word;
+    }
+  }
+
+  public Profiler() {
+    this.startNanos = System.nanoTime();
+  }
+
+  private static com.sun.management.ThreadMXBean allocationBean() {
+    try {
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+          return sunBean;
+        }
+      }
+    } catch (Throwable e) {
+      // Allocation isn't measured
+    }
+    return null;
+  }
+
+  private static long allocatedBytes() {
+    return allocationBean == null ? -1 : allocationBean.getCurrentThreadAllocatedBytes();
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  public void stop() {
+    running = false;
+  }
+
+  /**
+   * Run a word, timing it unless it's a literal. Definitions time themselves (see enter).
+   */
+  public void run(ForthicWord word, BareInterpreter interp) throws Exception {
+    if (word instanceof DefinitionWord || word instanceof PushValueWord) {
+      word.execute(interp);
+      return;
+    }
+    enter(word.getName());
+    try {
+      word.execute(interp);
+    } finally {
+      exit();
+    }
+  }
+
+  /**
+   * Start timing a word; every enter must be followed by an exit
+   */
+  public void enter(String word) {
+    if (depth == frameStats.length) {
+      int size = depth * 2;
+      frameStats = Arrays.copyOf(frameStats, size);
+      frameStart = Arrays.copyOf(frameStart, size);
+      frameStartBytes = Arrays.copyOf(frameStartBytes, size);
+      frameChildNanos = Arrays.copyOf(frameChildNanos, size);
+      frameChildBytes = Arrays.copyOf(frameChildBytes, size);
+    }
+    WordStats wordStats = stats.computeIfAbsent(word, WordStats::new);
+    wordStats.active++;
+    frameStats[depth] = wordStats;
+    frameChildNanos[depth] = 0;
+    frameChildBytes[depth] = 0;
+    frameStartBytes[depth] = allocatedBytes();
+    frameStart[depth] = System.nanoTime();
+    depth++;
+  }
+
+  /**
+   * Finish timing the word of the last enter
+   */
+  public void exit() {
+    long end = System.nanoTime();
+    long endBytes = allocatedBytes();
+    depth--;
+    WordStats wordStats = frameStats[depth];
+    frameStats[depth] = null;
+    wordStats.active--;
+
+    long nanos = end - frameStart[depth];
+    long bytes = endBytes < 0 ? 0 : endBytes - frameStartBytes[depth];
+    if (running) {
+      wordStats.calls++;
+      wordStats.exclusiveNanos += nanos - frameChildNanos[depth];
+      wordStats.exclusiveBytes += bytes - frameChildBytes[depth];
+      if (wordStats.active == 0) {
+        wordStats.inclusiveNanos += nanos;
+        wordStats.inclusiveBytes += bytes;
+      }
+    }
+    if (depth > 0) {
+      frameChildNanos[depth - 1] += nanos;
+      frameChildBytes[depth - 1] += bytes;
+    }
+  }
+
+  /**
+   * Record a named point in time
+   */
+  public void timestamp(String label) {
+    Map<String, Object> entry = new LinkedHashMap<>();
+    entry.put("label", label);
+    entry.put("time_ms", (System.nanoTime() - startNanos) / 1_000_000.0);
+    timestamps.add(entry);
+  }
+
+  /**
+   * Per-word results, most exclusive time first: records with word, calls,
+   * inclusive_ns, exclusive_ns, inclusive_bytes and exclusive_bytes
+   */
+  public List<Map<String, Object>> getWordStats() {
+    List<WordStats> sorted = new ArrayList<>(stats.values());
+    sorted.removeIf(s -> s.calls == 0);
+    sorted.sort((a, b) -> Long.compare(b.exclusiveNanos, a.exclusiveNanos));
+    boolean hasBytes = allocationBean != null;
+    List<Map<String, Object>> result = new ArrayList<>();
+    for (WordStats s : sorted) {
+      Map<String, Object> record = new LinkedHashMap<>();
+      record.put("word", s.word);
+      record.put("calls", s.calls);
+      record.put("inclusive_ns", s.inclusiveNanos);
+      record.put("exclusive_ns", s.exclusiveNanos);
+      record.put("inclusive_bytes", hasBytes ? s.inclusiveBytes : -1L);
+      record.put("exclusive_bytes", hasBytes ? s.exclusiveBytes : -1L);
+      result.add(record);
+    }
+    return result;
+  }
+
+  /**
+   * Timestamps in order: records with label and time_ms (since profiling started)
+   */
+  public List<Map<String, Object>> getTimestamps() {
+    return new ArrayList<>(timestamps);
+  }
+}
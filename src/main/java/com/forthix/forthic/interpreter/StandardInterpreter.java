@@ -20,10 +20,13 @@ import java.util.List;
  * - record: Record/map operations
  * - datetime: Date and time operations
  * - json: JSON serialization
+ * - table: Columnar tables of records
  */
 public class StandardInterpreter extends Interpreter {
 
     private final String timezone;
+    // Resolved on first use, since datetime words ask for it on every call
+    private volatile ZoneId zoneId;
 
     /**
      * Create interpreter with standard modules plus additional custom modules
@@ -52,6 +55,17 @@ public class StandardInterpreter extends Interpreter {
         this(List.of(), timezone);
     }
 
+    protected StandardInterpreter(StandardInterpreter source) {
+        super(source);
+        this.timezone = source.timezone;
+        this.zoneId = source.zoneId;
+    }
+
+    @Override
+    public StandardInterpreter fork() {
+        return new StandardInterpreter(this);
+    }
+
     /**
      * Build complete list of modules (standard + additional)
      */
@@ -67,6 +81,7 @@ public class StandardInterpreter extends Interpreter {
         modules.add(new RecordModule());
         modules.add(new DateTimeModule());
         modules.add(new JsonModule());
+        modules.add(new TableModule());
 
         // Add any additional modules
         modules.addAll(additional);
@@ -85,6 +100,11 @@ public class StandardInterpreter extends Interpreter {
      * Get the configured timezone as a ZoneId
      */
     public ZoneId getZoneId() {
-        return ZoneId.of(timezone);
+        ZoneId zone = zoneId;
+        if (zone == null) {
+            zone = ZoneId.of(timezone);
+            zoneId = zone;
+        }
+        return zone;
     }
 }
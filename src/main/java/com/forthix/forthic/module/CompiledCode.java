@@ -0,0 +1,48 @@
+package com.forthix.forthic.module;
+
+import com.forthix.forthic.interpreter.BareInterpreter;
+import com.forthix.forthic.interpreter.Profiler;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Forthic string compiled into a reusable block of words.
+ *
+ * Unlike a DefinitionWord, executing a compiled block behaves exactly as if the
+ * source string had been run: errors from the words propagate unwrapped.
+ */
+public class CompiledCode extends ForthicWord {
+  private final List<ForthicWord> words;
+
+  public CompiledCode(String code) {
+    super(code);
+    this.words = new ArrayList<>();
+  }
+
+  public void addWord(ForthicWord word) {
+    words.add(word);
+  }
+
+  public List<ForthicWord> getWords() {
+    return new ArrayList<>(words);
+  }
+
+  @Override
+  public void execute(BareInterpreter interp) throws Exception {
+    Profiler profiler = interp.getActiveProfiler();
+    if (profiler != null) {
+      for (int i = 0; i < words.size(); i++) {
+        profiler.run(words.get(i), interp);
+      }
+      return;
+    }
+    for (int i = 0; i < words.size(); i++) {
+      words.get(i).execute(interp);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("CompiledCode(%s, %d words)", name, words.size());
+  }
+}
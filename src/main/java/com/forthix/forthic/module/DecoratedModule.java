@@ -5,9 +5,9 @@ import com.forthix.forthic.interpreter.BareInterpreter;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 /**
  * Base class for modules using @Word annotation.
@@ -16,10 +16,22 @@ import java.util.regex.Pattern;
  */
 public abstract class DecoratedModule extends ForthicModule {
 
+    private final Map<String, WordInvokers.Numeric2> numericPaths = new HashMap<>();
+
     public DecoratedModule(String name) {
         super(name);
     }
 
+    /**
+     * Give a two-input word a path for when both inputs are numbers, so numbers left
+     * unboxed on the stack by other numeric words stay unboxed. The word stays a
+     * fixed-arity word, so compiled definitions still call its method directly.
+     * Call from the module's constructor.
+     */
+    protected void addNumericPath(String wordName, WordInvokers.Numeric2 path) {
+        numericPaths.put(wordName, path);
+    }
+
     @Override
     public void setInterp(BareInterpreter interp) {
         super.setInterp(interp);
@@ -41,7 +53,10 @@ public abstract class DecoratedModule extends ForthicModule {
     }
 
     /**
-     * Register a single annotated word
+     * Register a single annotated word.
+     *
+     * The method is bound once here (see {@link WordInvokers}), so calling the word
+     * involves no reflection.
      */
     private void registerAnnotatedWord(Method method, Word annotation) {
         // Determine word name
@@ -50,72 +65,28 @@ public abstract class DecoratedModule extends ForthicModule {
         // Check if this is a direct word (manipulates stack directly)
         boolean isDirect = annotation.isDirect();
 
-        ForthicWord word;
-
         if (isDirect) {
             // Direct word: method receives BareInterpreter and manipulates stack directly
-            word = new ForthicWord(wordName) {
-                @Override
-                public void execute(BareInterpreter interp) throws Exception {
-                    method.setAccessible(true);
-                    try {
-                        method.invoke(DecoratedModule.this, interp);
-                    } catch (java.lang.reflect.InvocationTargetException e) {
-                        // Unwrap the actual exception
-                        Throwable cause = e.getCause();
-                        if (cause instanceof Exception) {
-                            throw (Exception) cause;
-                        } else if (cause instanceof Error) {
-                            throw (Error) cause;
-                        } else {
-                            throw e;
-                        }
-                    }
-                }
-            };
+            if (method.getParameterCount() != 1 || !method.getParameterTypes()[0].isAssignableFrom(BareInterpreter.class)) {
+                throw new IllegalArgumentException("Direct word " + wordName + " must take a single BareInterpreter argument");
+            }
         } else {
-            // Normal word: parse stack effect and handle marshalling
+            // Normal word: inputs come from the stack effect
             int inputCount = parseInputCount(annotation.stackEffect());
-            boolean isVoid = method.getReturnType().equals(Void.TYPE);
-
-            word = new ForthicWord(wordName) {
-                @Override
-                public void execute(BareInterpreter interp) throws Exception {
-                    // Pop inputs in reverse order (stack is LIFO)
-                    Object[] inputs = new Object[inputCount];
-                    for (int i = inputCount - 1; i >= 0; i--) {
-                        inputs[i] = interp.stackPop();
-                    }
-
-                    // Call original method with popped inputs
-                    method.setAccessible(true);
-                    Object result;
-                    try {
-                        result = method.invoke(DecoratedModule.this, inputs);
-                    } catch (java.lang.reflect.InvocationTargetException e) {
-                        // Unwrap the actual exception
-                        Throwable cause = e.getCause();
-                        if (cause instanceof Exception) {
-                            throw (Exception) cause;
-                        } else if (cause instanceof Error) {
-                            throw (Error) cause;
-                        } else {
-                            throw e;
-                        }
-                    }
-
-                    // Push result if method is not void
-                    // For void methods: don't push anything
-                    // For non-void methods: always push result (even if null)
-                    if (!isVoid) {
-                        interp.stackPush(result);
-                    }
-                }
-            };
+            if (inputCount != method.getParameterCount()) {
+                throw new IllegalArgumentException(String.format(
+                    "Word %s has %d inputs in its stack effect but %d method parameters",
+                    wordName, inputCount, method.getParameterCount()));
+            }
+        }
+
+        WordInvokers.Numeric2 numericPath = numericPaths.get(wordName);
+        if (numericPath != null && (isDirect || method.getParameterCount() != 2 || method.getReturnType().equals(Void.TYPE))) {
+            throw new IllegalArgumentException("Word " + wordName + " must take two inputs and return a value to have a numeric path");
         }
 
         // Register as exportable word
-        addExportableWord(word);
+        addExportableWord(WordInvokers.bind(wordName, this, method, isDirect, numericPath));
     }
 
     /**
@@ -1,25 +1,81 @@
 package com.forthix.forthic.module;
 
+import com.forthix.forthic.compiler.DefinitionCompiler;
+import com.forthix.forthic.compiler.Opcodes;
+import com.forthix.forthic.errors.CodeLocation;
 import com.forthix.forthic.errors.WordExecutionError;
 import com.forthix.forthic.interpreter.BareInterpreter;
-import com.forthix.forthic.tokenizer.Tokenizer;
+import com.forthix.forthic.interpreter.Profiler;
+import com.forthix.forthic.tokenizer.Token;
+import com.forthix.forthic.tokenizer.TokenType;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A word that contains a list of words to execute.
  * Used for user-defined words (definitions).
+ *
+ * The body runs as threaded code: on first execution the words are lowered to an int
+ * array of {@link Opcodes} instructions and an operand pool. Constants are pushed by the
+ * dispatch loop itself, prefixed-import aliases are resolved to their targets, nested
+ * definitions get their own call site, and fixed-arity @Word words are called through
+ * their bound targets with one call site per arity. Each word's location is kept in a
+ * side table for error reports.
+ *
+ * If the interpreter has a {@link DefinitionCompiler}, a definition that runs often
+ * enough is compiled to bytecode and runs compiled from then on. Changing the
+ * definition drops the compiled code.
+ *
+ * While the interpreter is profiling, definitions are timed and run interpreted so
+ * the words inside them are timed too.
  */
 public class DefinitionWord extends ForthicWord {
   private final List<ForthicWord> words;
+  private final List<CodeLocation> wordLocations;
+  private volatile ThreadedCode threadedCode;
+  private volatile ForthicWord compiledBody;
+  private int executionCount;
 
   public DefinitionWord(String name) {
     super(name);
     this.words = new ArrayList<>();
+    this.wordLocations = new ArrayList<>();
   }
 
+  /**
+   * Add a word, remembering its current location as where it's used in this definition
+   */
   public void addWord(ForthicWord word) {
+    addWord(word, word.getLocation());
+  }
+
+  public void addWord(ForthicWord word, CodeLocation location) {
     words.add(word);
+    wordLocations.add(location);
+    threadedCode = null;
+    deoptimize();
+  }
+
+  /**
+   * Location of the word at index in this definition (words are shared, so their own
+   * location is wherever they were last compiled)
+   */
+  public CodeLocation getWordLocation(int index) {
+    return wordLocations.get(index);
+  }
+
+  /**
+   * Drop compiled code; the definition is interpreted until it gets hot again
+   */
+  public void deoptimize() {
+    compiledBody = null;
+    executionCount = 0;
+  }
+
+  public boolean isCompiled() {
+    return compiledBody != null;
   }
 
   public List<ForthicWord> getWords() {
@@ -28,16 +84,195 @@ public class DefinitionWord extends ForthicWord {
 
   @Override
   public void execute(BareInterpreter interp) throws Exception {
-    for (ForthicWord word : words) {
+    Profiler profiler = interp.getActiveProfiler();
+    if (profiler != null) {
+      executeProfiled(interp, profiler);
+      return;
+    }
+    ForthicWord body = compiledBody;
+    if (body == null) {
+      body = compileIfHot(interp);
+    }
+    if (body != null) {
       try {
-        word.execute(interp);
-      } catch (Exception e) {
-        Tokenizer tokenizer = interp.getTokenizer();
+        body.execute(interp);
+      } catch (DefinitionCompiler.WordFailure e) {
         throw new WordExecutionError(
             "Error executing " + this.name,
-            e,
-            tokenizer.getTokenLocation());
+            e.getCause(),
+            locationOf(wordLocations.get(e.getIndex()), interp));
+      }
+      return;
+    }
+
+    ThreadedCode code = threadedCode;
+    if (code == null) {
+      code = new ThreadedCode(words, wordLocations);
+      threadedCode = code;
+    }
+    int[] instructions = code.instructions;
+    Object[] operands = code.operands;
+    int pc = 0;
+    try {
+      for (; pc < instructions.length; pc++) {
+        int instruction = instructions[pc];
+        Object operand = operands[Opcodes.operand(instruction)];
+        Object a;
+        Object b;
+        Object c;
+        switch (Opcodes.opcode(instruction)) {
+          case Opcodes.PUSH:
+          case Opcodes.START_ARRAY:
+            interp.stackPush(operand);
+            break;
+          case Opcodes.CALL_DEFINITION:
+            ((DefinitionWord) operand).execute(interp);
+            break;
+          case Opcodes.CALL_VALUE0:
+            interp.stackPush(((WordInvokers.Value0) operand).call());
+            break;
+          case Opcodes.CALL_VALUE1:
+            a = interp.stackPop();
+            interp.stackPush(((WordInvokers.Value1) operand).call(a));
+            break;
+          case Opcodes.CALL_VALUE2:
+            b = interp.stackPop();
+            a = interp.stackPop();
+            interp.stackPush(((WordInvokers.Value2) operand).call(a, b));
+            break;
+          case Opcodes.CALL_VALUE3:
+            c = interp.stackPop();
+            b = interp.stackPop();
+            a = interp.stackPop();
+            interp.stackPush(((WordInvokers.Value3) operand).call(a, b, c));
+            break;
+          case Opcodes.CALL_VOID0:
+            ((WordInvokers.Void0) operand).call();
+            break;
+          case Opcodes.CALL_VOID1:
+            a = interp.stackPop();
+            ((WordInvokers.Void1) operand).call(a);
+            break;
+          case Opcodes.CALL_VOID2:
+            b = interp.stackPop();
+            a = interp.stackPop();
+            ((WordInvokers.Void2) operand).call(a, b);
+            break;
+          case Opcodes.CALL_VOID3:
+            c = interp.stackPop();
+            b = interp.stackPop();
+            a = interp.stackPop();
+            ((WordInvokers.Void3) operand).call(a, b, c);
+            break;
+          default:
+            ((ForthicWord) operand).execute(interp);
+            break;
+        }
+      }
+    } catch (Exception e) {
+      throw new WordExecutionError("Error executing " + this.name, e, locationOf(code.locations[pc], interp));
+    }
+  }
+
+  private void executeProfiled(BareInterpreter interp, Profiler profiler) throws Exception {
+    profiler.enter(name);
+    try {
+      for (int i = 0; i < words.size(); i++) {
+        try {
+          profiler.run(words.get(i), interp);
+        } catch (Exception e) {
+          throw new WordExecutionError(
+              "Error executing " + this.name,
+              e,
+              locationOf(wordLocations.get(i), interp));
+        }
       }
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  // Where a word of the body failed, or the current token's location if that isn't known
+  private static CodeLocation locationOf(CodeLocation wordLocation, BareInterpreter interp) {
+    return wordLocation != null ? wordLocation : interp.getTokenizer().getTokenLocation();
+  }
+
+  private ForthicWord compileIfHot(BareInterpreter interp) {
+    DefinitionCompiler compiler = interp.getDefinitionCompiler();
+    if (compiler == null || ++executionCount < compiler.getThreshold()) {
+      return null;
+    }
+    ForthicWord body = compiler.compile(this);
+    if (body == null) {
+      // Can't be compiled; don't try again
+      executionCount = Integer.MIN_VALUE;
+    }
+    compiledBody = body;
+    return body;
+  }
+
+  /**
+   * A definition body lowered to instructions. Operands are the values to push for PUSH
+   * and START_ARRAY, the bound targets for the CALL_VALUE and CALL_VOID instructions,
+   * and the words to run for the other instructions.
+   */
+  private static final class ThreadedCode {
+    final int[] instructions;
+    final Object[] operands;
+    final CodeLocation[] locations;
+
+    ThreadedCode(List<ForthicWord> words, List<CodeLocation> wordLocations) {
+      Map<Object, Integer> pool = new IdentityHashMap<>();
+      List<Object> operandList = new ArrayList<>();
+      instructions = new int[words.size()];
+      locations = wordLocations.toArray(new CodeLocation[0]);
+      for (int i = 0; i < words.size(); i++) {
+        ForthicWord word = words.get(i);
+        // Prefixed imports only forward to their target
+        while (word instanceof ExecuteWord) {
+          word = ((ExecuteWord) word).getTargetWord();
+        }
+
+        int opcode;
+        Object operand = word;
+        // Numeric words stay on CALL so their unboxed path is used
+        Object target = word instanceof WordInvokers.NumericValue2Word ? null : WordInvokers.getTarget(word);
+        if (word.getClass() == PushValueWord.class) {
+          operand = ((PushValueWord) word).getValue();
+          opcode = isArrayStart(operand) ? Opcodes.START_ARRAY : Opcodes.PUSH;
+        } else if (word.getClass() == DefinitionWord.class) {
+          opcode = Opcodes.CALL_DEFINITION;
+        } else if (target != null) {
+          operand = target;
+          opcode = targetOpcode(target);
+        } else {
+          opcode = Opcodes.CALL;
+        }
+
+        Integer index = pool.get(operand);
+        if (index == null) {
+          index = operandList.size();
+          operandList.add(operand);
+          pool.put(operand, index);
+        }
+        instructions[i] = Opcodes.encode(opcode, index);
+      }
+      operands = operandList.toArray();
+    }
+
+    private static int targetOpcode(Object target) {
+      if (target instanceof WordInvokers.Value0) return Opcodes.CALL_VALUE0;
+      if (target instanceof WordInvokers.Value1) return Opcodes.CALL_VALUE1;
+      if (target instanceof WordInvokers.Value2) return Opcodes.CALL_VALUE2;
+      if (target instanceof WordInvokers.Value3) return Opcodes.CALL_VALUE3;
+      if (target instanceof WordInvokers.Void0) return Opcodes.CALL_VOID0;
+      if (target instanceof WordInvokers.Void1) return Opcodes.CALL_VOID1;
+      if (target instanceof WordInvokers.Void2) return Opcodes.CALL_VOID2;
+      return Opcodes.CALL_VOID3;
+    }
+
+    private static boolean isArrayStart(Object value) {
+      return value instanceof Token && ((Token) value).getType() == TokenType.START_ARRAY;
     }
   }
 
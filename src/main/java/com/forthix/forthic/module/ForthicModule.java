@@ -2,24 +2,31 @@ package com.forthix.forthic.module;
 
 import com.forthix.forthic.interpreter.BareInterpreter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A module contains words, variables, and other modules.
  * Modules provide namespacing and organization for Forthic code.
  */
 public class ForthicModule {
+  // Bumped whenever any module gains a word, variable or module
+  private static final AtomicLong dictionaryVersion = new AtomicLong();
+
   private final String name;
   private final List<ForthicWord> words;
+  private final Map<String, ForthicWord> wordIndex;
   private final List<String> exportable;
   private final Map<String, Variable> variables;
   private final Map<String, ForthicModule> modules;
   private final Map<String, Set<String>> modulePrefixes;
   private String forthicCode;
   private BareInterpreter interp;
+  private int changeCount;
 
   public ForthicModule(String name, String forthicCode) {
     this.name = name;
     this.words = new ArrayList<>();
+    this.wordIndex = new HashMap<>();
     this.exportable = new ArrayList<>();
     this.variables = new HashMap<>();
     this.modules = new HashMap<>();
@@ -44,9 +51,39 @@ public class ForthicModule {
     if (interp == null) {
       throw new RuntimeException("Module " + name + " has no interpreter");
     }
+    // Modules shared with forks of our interpreter act on the fork that is running
+    if (interp.hasForks()) {
+      BareInterpreter fork = BareInterpreter.getRunningFork();
+      if (fork != null && fork.getPrototype() == interp) {
+        return fork;
+      }
+    }
     return interp;
   }
 
+  boolean hasInterp() {
+    return interp != null;
+  }
+
+  /**
+   * Number of words, variables and modules added to this module so far
+   */
+  public int getChangeCount() {
+    return changeCount;
+  }
+
+  /**
+   * Counter that changes whenever any module has words, variables or modules added
+   */
+  public static long getDictionaryVersion() {
+    return dictionaryVersion.get();
+  }
+
+  private void changed() {
+    changeCount++;
+    dictionaryVersion.incrementAndGet();
+  }
+
   // Duplication methods
 
   /**
@@ -55,6 +92,7 @@ public class ForthicModule {
   public ForthicModule dup() {
     ForthicModule result = new ForthicModule(name);
     result.words.addAll(words);
+    result.wordIndex.putAll(wordIndex);
     result.exportable.addAll(exportable);
     for (Map.Entry<String, Variable> entry : variables.entrySet()) {
       result.variables.put(entry.getKey(), entry.getValue().dup());
@@ -70,6 +108,7 @@ public class ForthicModule {
   public ForthicModule copy(BareInterpreter interp) {
     ForthicModule result = new ForthicModule(name);
     result.words.addAll(words);
+    result.wordIndex.putAll(wordIndex);
     result.exportable.addAll(exportable);
     for (Map.Entry<String, Variable> entry : variables.entrySet()) {
       result.variables.put(entry.getKey(), entry.getValue().dup());
@@ -96,6 +135,7 @@ public class ForthicModule {
 
   public void registerModule(String moduleName, String prefix, ForthicModule module) {
     modules.put(moduleName, module);
+    changed();
 
     modulePrefixes.putIfAbsent(moduleName, new HashSet<>());
     modulePrefixes.get(moduleName).add(prefix);
@@ -123,11 +163,20 @@ public class ForthicModule {
 
   public void addWord(ForthicWord word) {
     words.add(word);
+    wordIndex.put(word.getName(), word);
+    changed();
   }
 
-  public void addMemoWords(ForthicWord word) {
-    // Simplified: just add the word (memoization can be added later)
-    addWord(word);
+  /**
+   * Add the memo word family for a definition:
+   * NAME (cached value), NAME! (recompute) and NAME!@ (recompute and push)
+   */
+  public MemoWord addMemoWords(ForthicWord word) {
+    MemoWord memo = new MemoWord(word);
+    addWord(new MemoWord.RefreshWord(word.getName() + "!", memo, false));
+    addWord(memo);
+    addWord(new MemoWord.RefreshWord(word.getName() + "!@", memo, true));
+    return memo;
   }
 
   public void addExportable(List<String> names) {
@@ -136,7 +185,9 @@ public class ForthicModule {
 
   public void addExportableWord(ForthicWord word) {
     words.add(word);
+    wordIndex.put(word.getName(), word);
     exportable.add(word.getName());
+    changed();
   }
 
   public ModuleWord addModuleWord(String wordName, WordExecutor wordFunc) {
@@ -147,8 +198,9 @@ public class ForthicModule {
 
   public List<ForthicWord> exportableWords() {
     List<ForthicWord> result = new ArrayList<>();
+    Set<String> exportableNames = new HashSet<>(exportable);
     for (ForthicWord word : words) {
-      if (exportable.contains(word.getName())) {
+      if (exportableNames.contains(word.getName())) {
         result.add(word);
       }
     }
@@ -164,14 +216,9 @@ public class ForthicModule {
   }
 
   public ForthicWord findDictionaryWord(String wordName) {
-    // Search from end to beginning (most recent first)
-    for (int i = words.size() - 1; i >= 0; i--) {
-      ForthicWord w = words.get(i);
-      if (w.getName().equals(wordName)) {
-        return w;
-      }
-    }
-    return null;
+    // The index always holds the most recently added word for each name,
+    // so redefinitions shadow earlier words
+    return wordIndex.get(wordName);
   }
 
   public PushValueWord findVariable(String varname) {
@@ -187,6 +234,7 @@ public class ForthicModule {
   public void addVariable(String name, Object value) {
     if (!variables.containsKey(name)) {
       variables.put(name, new Variable(name, value));
+      changed();
     }
   }
 
@@ -202,6 +250,32 @@ public class ForthicModule {
     return modules;
   }
 
+  // Forking (see ModuleForker)
+
+  /**
+   * Copy of this module with fresh variables and no words or modules
+   */
+  ForthicModule forkShell(ModuleForker forker) {
+    ForthicModule result = new ForthicModule(name, forthicCode);
+    result.exportable.addAll(exportable);
+    for (Map.Entry<String, Variable> entry : variables.entrySet()) {
+      result.variables.put(entry.getKey(), forker.forkVariable(entry.getValue()));
+    }
+    for (Map.Entry<String, Set<String>> entry : modulePrefixes.entrySet()) {
+      result.modulePrefixes.put(entry.getKey(), new HashSet<>(entry.getValue()));
+    }
+    return result;
+  }
+
+  List<ForthicWord> getWordList() {
+    return words;
+  }
+
+  void addForkedWord(ForthicWord word) {
+    words.add(word);
+    wordIndex.put(word.getName(), word);
+  }
+
   @Override
   public String toString() {
     return String.format("ForthicModule(%s, %d words, %d vars)", name, words.size(), variables.size());
@@ -2,81 +2,197 @@ package com.forthix.forthic.module;
 
 import com.forthix.forthic.tokenizer.PositionedString;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Stack for the Forthic interpreter.
- * Wraps an ArrayList to provide stack operations and proper handling of PositionedStrings.
+ * Handles PositionedStrings and keeps numbers pushed through the primitive methods unboxed.
+ *
+ * Each slot has a type tag. Values pushed with {@link #push(Object)} are stored as objects;
+ * {@link #pushDouble(double)} stores into a primitive lane, so numeric words can pass results
+ * along without boxing. Boxed access ({@link #pop()}, {@link #getItems()}) sees the same
+ * values as before: a pushed double pops as a Double.
  */
 public class ForthicStack {
-    private List<Object> items;
+    private static final byte OBJECT = 0;
+    private static final byte DOUBLE = 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] tags;
+    private Object[] objects;
+    // Primitive lane, allocated on first use
+    private double[] doubles;
+    private int size;
 
     public ForthicStack() {
-        this.items = new ArrayList<>();
+        this.tags = new byte[INITIAL_CAPACITY];
+        this.objects = new Object[INITIAL_CAPACITY];
+        this.size = 0;
     }
 
     public ForthicStack(List<Object> items) {
-        this.items = new ArrayList<>(items);
+        this();
+        setRawItems(items);
     }
 
     /**
      * Get stack items with PositionedStrings unwrapped to their string values
      */
     public List<Object> getItems() {
-        return items.stream()
-            .map(item -> {
-                if (item instanceof PositionedString) {
-                    return ((PositionedString) item).valueOf();
-                }
-                return item;
-            })
-            .collect(Collectors.toList());
+        List<Object> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Object item = get(i);
+            if (item instanceof PositionedString) {
+                item = ((PositionedString) item).valueOf();
+            }
+            result.add(item);
+        }
+        return result;
     }
 
     /**
      * Get raw stack items including PositionedStrings
      */
     public List<Object> getRawItems() {
-        return new ArrayList<>(items);
+        List<Object> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+        return result;
     }
 
     /**
      * Set raw stack items
      */
     public void setRawItems(List<Object> items) {
-        this.items = new ArrayList<>(items);
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+        for (Object item : items) {
+            push(item);
+        }
     }
 
     /**
      * Pop an item from the stack
      */
     public Object pop() {
-        if (items.isEmpty()) {
+        if (size == 0) {
             return null;
         }
-        return items.remove(items.size() - 1);
+        Object result = get(size - 1);
+        objects[--size] = null;
+        return result;
     }
 
     /**
      * Push an item onto the stack
      */
     public void push(Object item) {
-        items.add(item);
+        ensureCapacity();
+        tags[size] = OBJECT;
+        objects[size++] = item;
+    }
+
+    // ===== Primitive access =====
+
+    public void pushDouble(double value) {
+        ensureCapacity();
+        if (doubles == null) {
+            doubles = new double[tags.length];
+        }
+        tags[size] = DOUBLE;
+        doubles[size++] = value;
+    }
+
+    /**
+     * True if the top count items are all numbers (unboxed or Number objects).
+     * Numeric words check this before using {@link #popDouble()}.
+     */
+    public boolean hasNumbers(int count) {
+        if (size < count) {
+            return false;
+        }
+        for (int i = size - count; i < size; i++) {
+            if (tags[i] == OBJECT && !(objects[i] instanceof Number)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pop a number as a double. The top item must be a number (see {@link #hasNumbers(int)}).
+     */
+    public double popDouble() {
+        int i = --size;
+        if (tags[i] == DOUBLE) {
+            return doubles[i];
+        }
+        Object value = objects[i];
+        objects[i] = null;
+        return ((Number) value).doubleValue();
+    }
+
+    /**
+     * Remove the top item without boxing it
+     */
+    public void drop() {
+        if (size > 0) {
+            objects[--size] = null;
+        }
+    }
+
+    /**
+     * Push a copy of the top item, keeping its representation.
+     * A PositionedString is replaced by its string value, as popping it would.
+     */
+    public void dupTop() {
+        int i = size - 1;
+        if (tags[i] == OBJECT && objects[i] instanceof PositionedString) {
+            objects[i] = ((PositionedString) objects[i]).valueOf();
+        }
+        ensureCapacity();
+        copySlot(i, size);
+        size++;
+    }
+
+    /**
+     * Exchange the top two items, keeping their representations.
+     * PositionedStrings are replaced by their string values, as popping them would.
+     */
+    public void swapTop() {
+        int a = size - 2;
+        int b = size - 1;
+        for (int i = a; i <= b; i++) {
+            if (tags[i] == OBJECT && objects[i] instanceof PositionedString) {
+                objects[i] = ((PositionedString) objects[i]).valueOf();
+            }
+        }
+        ensureCapacity();
+        copySlot(b, size);
+        copySlot(a, b);
+        copySlot(size, a);
+        objects[size] = null;
     }
 
     /**
      * Get the number of items on the stack
      */
     public int length() {
-        return items.size();
+        return size;
     }
 
     /**
      * Duplicate the stack (shallow copy of items)
      */
     public ForthicStack dup() {
-        return new ForthicStack(items);
+        ForthicStack result = new ForthicStack();
+        result.tags = Arrays.copyOf(tags, tags.length);
+        result.objects = Arrays.copyOf(objects, objects.length);
+        result.doubles = doubles == null ? null : Arrays.copyOf(doubles, doubles.length);
+        result.size = size;
+        return result;
     }
 
     /**
@@ -88,6 +204,34 @@ public class ForthicStack {
 
     @Override
     public String toString() {
-        return items.toString();
+        return getRawItems().toString();
+    }
+
+    // ===== Internals =====
+
+    private Object get(int i) {
+        return tags[i] == DOUBLE ? doubles[i] : objects[i];
+    }
+
+    private void copySlot(int from, int to) {
+        byte tag = tags[from];
+        tags[to] = tag;
+        if (tag == DOUBLE) {
+            doubles[to] = doubles[from];
+        } else {
+            objects[to] = objects[from];
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size < tags.length) {
+            return;
+        }
+        int capacity = tags.length * 2;
+        tags = Arrays.copyOf(tags, capacity);
+        objects = Arrays.copyOf(objects, capacity);
+        if (doubles != null) {
+            doubles = Arrays.copyOf(doubles, capacity);
+        }
     }
 }
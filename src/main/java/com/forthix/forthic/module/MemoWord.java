@@ -0,0 +1,240 @@
+package com.forthix.forthic.module;
+
+import com.forthix.forthic.interpreter.BareInterpreter;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A memoized definition created with {@code @: NAME ... ;}.
+ *
+ * The first execution runs the definition and caches the value it leaves on the
+ * stack; later executions push the cached value. Computation is single-flight:
+ * if several threads ask for a missing value at once, one runs the definition and
+ * the others wait for its result.
+ *
+ * Values can be given a time-to-live and can be invalidated explicitly. The
+ * companion words {@code NAME!} (recompute) and {@code NAME!@} (recompute and push)
+ * are {@link RefreshWord}s.
+ */
+public class MemoWord extends ForthicWord {
+  private final ForthicWord definition;
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final Object lock;
+
+  // Guarded by lock
+  private boolean hasValue;
+  private Object value;
+  private long computedAt;
+  private long ttlNanos;
+  private CompletableFuture<Object> inFlight;
+  private Thread computingThread;
+  // Bumped by invalidate, so values computed from before an invalidation aren't kept
+  private long invalidations;
+
+  public MemoWord(ForthicWord definition) {
+    super(definition.getName());
+    this.definition = definition;
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.lock = new Object();
+    this.hasValue = false;
+    this.value = null;
+    this.ttlNanos = 0;
+    this.inFlight = null;
+  }
+
+  public ForthicWord getDefinition() {
+    return definition;
+  }
+
+  @Override
+  public void execute(BareInterpreter interp) throws Exception {
+    interp.stackPush(getValue(interp));
+  }
+
+  /**
+   * Return the cached value, computing it if it's missing or expired
+   */
+  public Object getValue(BareInterpreter interp) throws Exception {
+    CompletableFuture<Object> future;
+    boolean isOwner;
+    long startedAfter;
+    synchronized (lock) {
+      if (hasValue && !isExpired()) {
+        hits.increment();
+        return value;
+      }
+      misses.increment();
+      isOwner = joinOrStart();
+      future = inFlight;
+      startedAfter = invalidations;
+    }
+    return isOwner ? compute(future, startedAfter, interp) : await(future);
+  }
+
+  /**
+   * Recompute the value, even if a cached value is still valid.
+   * A computation already in flight is joined rather than repeated.
+   */
+  public Object refresh(BareInterpreter interp) throws Exception {
+    CompletableFuture<Object> future;
+    boolean isOwner;
+    long startedAfter;
+    synchronized (lock) {
+      misses.increment();
+      isOwner = joinOrStart();
+      future = inFlight;
+      startedAfter = invalidations;
+    }
+    return isOwner ? compute(future, startedAfter, interp) : await(future);
+  }
+
+  /**
+   * Drop the cached value so the next execution recomputes it. A computation in flight
+   * still returns its result to the callers waiting on it, but the result isn't cached,
+   * and later callers start a new computation rather than joining it.
+   */
+  public void invalidate() {
+    synchronized (lock) {
+      hasValue = false;
+      value = null;
+      invalidations++;
+      inFlight = null;
+      computingThread = null;
+    }
+  }
+
+  /**
+   * Set how long a computed value stays valid. A null or zero duration means forever.
+   */
+  public void setTtl(Duration ttl) {
+    synchronized (lock) {
+      ttlNanos = ttl == null ? 0 : ttl.toNanos();
+    }
+  }
+
+  public Duration getTtl() {
+    synchronized (lock) {
+      return ttlNanos == 0 ? null : Duration.ofNanos(ttlNanos);
+    }
+  }
+
+  public boolean hasValue() {
+    synchronized (lock) {
+      return hasValue && !isExpired();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  // ===== Single-flight computation =====
+
+  private boolean isExpired() {
+    return ttlNanos > 0 && System.nanoTime() - computedAt >= ttlNanos;
+  }
+
+  /**
+   * Join the computation in flight, or start one. Returns true if the caller
+   * started it and must run the definition. Must be called holding the lock.
+   */
+  private boolean joinOrStart() {
+    if (inFlight == null) {
+      inFlight = new CompletableFuture<>();
+      computingThread = Thread.currentThread();
+      return true;
+    }
+    if (computingThread == Thread.currentThread()) {
+      throw new IllegalStateException("Memo " + name + " refers to itself while being computed");
+    }
+    return false;
+  }
+
+  private Object await(CompletableFuture<Object> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw (Error) cause;
+    }
+  }
+
+  private Object compute(CompletableFuture<Object> future, long startedAfter, BareInterpreter interp)
+      throws Exception {
+    Object result;
+    try {
+      definition.execute(interp);
+      result = interp.stackPop();
+    } catch (Exception | Error e) {
+      synchronized (lock) {
+        finish(future);
+      }
+      future.completeExceptionally(e);
+      throw e;
+    }
+
+    synchronized (lock) {
+      if (invalidations == startedAfter) {
+        value = result;
+        hasValue = true;
+        computedAt = System.nanoTime();
+      }
+      finish(future);
+    }
+    future.complete(result);
+    return result;
+  }
+
+  /**
+   * Clear the computation in flight, unless an invalidation already replaced it.
+   * Must be called holding the lock.
+   */
+  private void finish(CompletableFuture<Object> future) {
+    if (inFlight == future) {
+      inFlight = null;
+      computingThread = null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("MemoWord(%s)", name);
+  }
+
+  /**
+   * {@code NAME!} recomputes the memo value; {@code NAME!@} also pushes it
+   */
+  public static class RefreshWord extends ForthicWord {
+    private final MemoWord memo;
+    private final boolean pushValue;
+
+    public RefreshWord(String name, MemoWord memo, boolean pushValue) {
+      super(name);
+      this.memo = memo;
+      this.pushValue = pushValue;
+    }
+
+    public MemoWord getMemo() {
+      return memo;
+    }
+
+    @Override
+    public void execute(BareInterpreter interp) throws Exception {
+      Object value = memo.refresh(interp);
+      if (pushValue) {
+        interp.stackPush(value);
+      }
+    }
+  }
+}
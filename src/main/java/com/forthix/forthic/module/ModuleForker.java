@@ -0,0 +1,159 @@
+package com.forthix.forthic.module;
+
+import com.forthix.forthic.interpreter.BareInterpreter;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies the mutable parts of a module tree for an interpreter fork.
+ *
+ * Modules defined in Forthic code are copied with fresh variables, and definitions
+ * that refer to those variables are relinked to the copies. Decorated modules are
+ * shared, since their words hold no per-interpreter state. Memo words are shared
+ * too, so a memo computed in one fork is cached for all of them.
+ */
+public final class ModuleForker {
+  // Original -> copy
+  private final Map<ForthicModule, ForthicModule> modules;
+  private final Map<Variable, Variable> variables;
+  private final Map<ForthicWord, ForthicWord> words;
+  // Copy -> change count right after forking
+  private final Map<ForthicModule, Integer> changeCounts;
+
+  public ModuleForker() {
+    this.modules = new IdentityHashMap<>();
+    this.variables = new IdentityHashMap<>();
+    this.words = new IdentityHashMap<>();
+    this.changeCounts = new IdentityHashMap<>();
+  }
+
+  /**
+   * Fork a module and the modules nested in it.
+   *
+   * @param module Module to fork
+   * @param interp Interpreter the copies belong to
+   * @return The copy of the module
+   */
+  public ForthicModule fork(ForthicModule module, BareInterpreter interp) {
+    ForthicModule result = forkStructure(module);
+
+    // Words are relinked once every variable has its copy, since a definition
+    // may refer to variables of any module in the tree
+    for (Map.Entry<ForthicModule, ForthicModule> entry : modules.entrySet()) {
+      ForthicModule original = entry.getKey();
+      ForthicModule copy = entry.getValue();
+      if (changeCounts.containsKey(copy)) {
+        continue;
+      }
+      for (ForthicWord word : original.getWordList()) {
+        copy.addForkedWord(relink(word));
+      }
+      if (original.hasInterp()) {
+        copy.setInterp(interp);
+      }
+      changeCounts.put(copy, copy.getChangeCount());
+    }
+    return result;
+  }
+
+  /**
+   * The copy of a module, or the module itself if it is shared
+   */
+  public ForthicModule forkedModule(ForthicModule module) {
+    ForthicModule result = modules.get(module);
+    return result == null ? module : result;
+  }
+
+  /**
+   * True if no forked module has had words, variables or modules added since forking
+   */
+  public boolean isUnchanged() {
+    for (Map.Entry<ForthicModule, Integer> entry : changeCounts.entrySet()) {
+      if (entry.getKey().getChangeCount() != entry.getValue()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Set every forked variable back to the value of its original
+   */
+  public void restoreVariables() {
+    for (Map.Entry<Variable, Variable> entry : variables.entrySet()) {
+      entry.getValue().setValue(entry.getKey().getValue());
+    }
+  }
+
+  Variable forkVariable(Variable variable) {
+    Variable result = variable.dup();
+    variables.put(variable, result);
+    return result;
+  }
+
+  private ForthicModule forkStructure(ForthicModule module) {
+    if (module instanceof DecoratedModule) {
+      return module;
+    }
+    ForthicModule result = modules.get(module);
+    if (result != null) {
+      return result;
+    }
+
+    result = module.forkShell(this);
+    modules.put(module, result);
+    for (Map.Entry<String, ForthicModule> entry : module.getModules().entrySet()) {
+      result.getModules().put(entry.getKey(), forkStructure(entry.getValue()));
+    }
+    return result;
+  }
+
+  private ForthicWord relink(ForthicWord word) {
+    ForthicWord result = words.get(word);
+    if (result != null) {
+      return result;
+    }
+
+    result = word;
+    if (word instanceof PushValueWord) {
+      Object value = ((PushValueWord) word).getValue();
+      Variable variable = value instanceof Variable ? variables.get(value) : null;
+      if (variable != null) {
+        result = new PushValueWord(word.getName(), variable);
+      }
+    } else if (word instanceof DefinitionWord) {
+      List<ForthicWord> body = ((DefinitionWord) word).getWords();
+      List<ForthicWord> relinked = new ArrayList<>(body.size());
+      boolean changed = false;
+      for (ForthicWord item : body) {
+        ForthicWord copy = relink(item);
+        changed |= copy != item;
+        relinked.add(copy);
+      }
+      if (changed) {
+        DefinitionWord definition = new DefinitionWord(word.getName());
+        for (int i = 0; i < relinked.size(); i++) {
+          definition.addWord(relinked.get(i), ((DefinitionWord) word).getWordLocation(i));
+        }
+        result = definition;
+      }
+    } else if (word instanceof ExecuteWord) {
+      ForthicWord target = ((ExecuteWord) word).getTargetWord();
+      ForthicWord relinkedTarget = relink(target);
+      if (relinkedTarget != target) {
+        result = new ExecuteWord(word.getName(), relinkedTarget);
+      }
+    }
+
+    if (result != word) {
+      result.setLocation(word.getLocation());
+      for (ForthicWord.WordErrorHandler handler : word.getErrorHandlers()) {
+        result.addErrorHandler(handler);
+      }
+    }
+    words.put(word, result);
+    return result;
+  }
+}
@@ -0,0 +1,412 @@
+package com.forthix.forthic.module;
+
+import com.forthix.forthic.interpreter.BareInterpreter;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds words that call @Word methods without reflection.
+ *
+ * Each annotated method is turned into an implementation of one of the small
+ * functional interfaces below through LambdaMetafactory, so a call is a plain
+ * interface call the JIT can inline. Methods with 0-3 inputs get fixed-arity
+ * words that pop straight into arguments; anything else (more inputs, primitive
+ * parameters) is called through a bound method handle.
+ *
+ * The interfaces are public only because the generated classes live in the
+ * package of the module that declares the method.
+ */
+public final class WordInvokers {
+
+    // Factories are per method, so lambda classes are spun once per JVM rather than per module instance
+    private static final Map<Method, MethodHandle> factories = new ConcurrentHashMap<>();
+
+    private WordInvokers() {
+    }
+
+    @FunctionalInterface
+    public interface Direct {
+        void call(BareInterpreter interp) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Value0 {
+        Object call() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Value1 {
+        Object call(Object a) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Value2 {
+        Object call(Object a, Object b) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Value3 {
+        Object call(Object a, Object b, Object c) throws Exception;
+    }
+
+    /**
+     * Path of a two-input word for when both inputs are numbers: pops them with
+     * popDouble() and pushes the result, so unboxed numbers stay unboxed
+     */
+    @FunctionalInterface
+    public interface Numeric2 {
+        void call(ForthicStack stack) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Void0 {
+        void call() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Void1 {
+        void call(Object a) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Void2 {
+        void call(Object a, Object b) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Void3 {
+        void call(Object a, Object b, Object c) throws Exception;
+    }
+
+    /**
+     * Bind an annotated method of a module to a word.
+     *
+     * @param name Word name
+     * @param module Module instance the method is called on
+     * @param method Annotated method
+     * @param isDirect True if the method takes the interpreter and manages the stack itself
+     * @param numericPath Path used when both inputs of a two-input word are numbers, or null
+     */
+    static ForthicWord bind(String name, DecoratedModule module, Method method, boolean isDirect, Numeric2 numericPath) {
+        boolean isVoid = method.getReturnType().equals(Void.TYPE);
+        int inputCount = method.getParameterCount();
+
+        try {
+            MethodHandle factory = factories.computeIfAbsent(method, m -> createFactory(m, isDirect));
+            if (factory != null) {
+                Object target = factory.invoke(module);
+                if (isDirect) {
+                    return new DirectWord(name, (Direct) target);
+                }
+                switch (inputCount) {
+                    case 0:
+                        return isVoid ? new Void0Word(name, (Void0) target) : new Value0Word(name, (Value0) target);
+                    case 1:
+                        return isVoid ? new Void1Word(name, (Void1) target) : new Value1Word(name, (Value1) target);
+                    case 2:
+                        if (numericPath != null && !isVoid) {
+                            return new NumericValue2Word(name, (Value2) target, numericPath);
+                        }
+                        return isVoid ? new Void2Word(name, (Void2) target) : new Value2Word(name, (Value2) target);
+                    default:
+                        return isVoid ? new Void3Word(name, (Void3) target) : new Value3Word(name, (Value3) target);
+                }
+            }
+
+            // General case: spread popped inputs into a bound method handle
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).bindTo(module);
+            if (isDirect) {
+                handle = handle.asType(MethodType.methodType(void.class, BareInterpreter.class));
+                return new HandleWord(name, handle, -1, false);
+            }
+            handle = handle.asSpreader(Object[].class, inputCount)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+            return new HandleWord(name, handle, inputCount, !isVoid);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Can't bind word " + name + " to " + method, e);
+        }
+    }
+
+    /**
+     * The bound target of a fixed-arity word (one of the Value/Void interfaces), or null
+     * if the word wasn't created here or takes the interpreter directly. Lets the compiler
+     * call the target itself instead of going through the word.
+     */
+    public static Object getTarget(ForthicWord word) {
+        if (word instanceof Value0Word) return ((Value0Word) word).target;
+        if (word instanceof Value1Word) return ((Value1Word) word).target;
+        if (word instanceof Value2Word) return ((Value2Word) word).target;
+        if (word instanceof NumericValue2Word) return ((NumericValue2Word) word).target;
+        if (word instanceof Value3Word) return ((Value3Word) word).target;
+        if (word instanceof Void0Word) return ((Void0Word) word).target;
+        if (word instanceof Void1Word) return ((Void1Word) word).target;
+        if (word instanceof Void2Word) return ((Void2Word) word).target;
+        if (word instanceof Void3Word) return ((Void3Word) word).target;
+        return null;
+    }
+
+    /**
+     * Create a factory (module -> functional interface) for a method, or null if the
+     * method has to go through the general method handle path.
+     */
+    private static MethodHandle createFactory(Method method, boolean isDirect) {
+        int inputCount = method.getParameterCount();
+        if (!isDirect && inputCount > 3) {
+            return null;
+        }
+        for (Class<?> type : method.getParameterTypes()) {
+            if (type.isPrimitive()) {
+                return null;
+            }
+        }
+
+        Class<?> iface = interfaceFor(inputCount, method.getReturnType().equals(Void.TYPE), isDirect);
+        Method sam = iface.getMethods()[0];
+        try {
+            Class<?> owner = method.getDeclaringClass();
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+            MethodHandle impl = lookup.unreflect(method);
+            MethodType instantiated = impl.type().dropParameterTypes(0, 1).wrap();
+            if (method.getReturnType().equals(Void.TYPE)) {
+                instantiated = instantiated.changeReturnType(void.class);
+            }
+            CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                "call",
+                MethodType.methodType(iface, owner),
+                MethodType.methodType(sam.getReturnType(), sam.getParameterTypes()),
+                impl,
+                instantiated);
+            return site.getTarget().asType(MethodType.methodType(Object.class, DecoratedModule.class));
+        } catch (Throwable e) {
+            // e.g. the declaring class can't be opened for private access
+            return null;
+        }
+    }
+
+    private static Class<?> interfaceFor(int inputCount, boolean isVoid, boolean isDirect) {
+        if (isDirect) {
+            return Direct.class;
+        }
+        switch (inputCount) {
+            case 0:
+                return isVoid ? Void0.class : Value0.class;
+            case 1:
+                return isVoid ? Void1.class : Value1.class;
+            case 2:
+                return isVoid ? Void2.class : Value2.class;
+            default:
+                return isVoid ? Void3.class : Value3.class;
+        }
+    }
+
+    // ===== Words =====
+    // Inputs are popped in reverse order (stack is LIFO). Non-void methods always push
+    // their result, even if it is null.
+
+    static final class DirectWord extends ForthicWord {
+        private final Direct target;
+
+        DirectWord(String name, Direct target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            target.call(interp);
+        }
+    }
+
+    static final class Value0Word extends ForthicWord {
+        private final Value0 target;
+
+        Value0Word(String name, Value0 target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            interp.stackPush(target.call());
+        }
+    }
+
+    static final class Value1Word extends ForthicWord {
+        private final Value1 target;
+
+        Value1Word(String name, Value1 target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            Object a = interp.stackPop();
+            interp.stackPush(target.call(a));
+        }
+    }
+
+    static final class Value2Word extends ForthicWord {
+        private final Value2 target;
+
+        Value2Word(String name, Value2 target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            Object b = interp.stackPop();
+            Object a = interp.stackPop();
+            interp.stackPush(target.call(a, b));
+        }
+    }
+
+    static final class NumericValue2Word extends ForthicWord {
+        private final Value2 target;
+        private final Numeric2 numericPath;
+
+        NumericValue2Word(String name, Value2 target, Numeric2 numericPath) {
+            super(name);
+            this.target = target;
+            this.numericPath = numericPath;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            ForthicStack stack = interp.getStack();
+            if (stack.hasNumbers(2)) {
+                numericPath.call(stack);
+                return;
+            }
+            Object b = interp.stackPop();
+            Object a = interp.stackPop();
+            interp.stackPush(target.call(a, b));
+        }
+    }
+
+    static final class Value3Word extends ForthicWord {
+        private final Value3 target;
+
+        Value3Word(String name, Value3 target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            Object c = interp.stackPop();
+            Object b = interp.stackPop();
+            Object a = interp.stackPop();
+            interp.stackPush(target.call(a, b, c));
+        }
+    }
+
+    static final class Void0Word extends ForthicWord {
+        private final Void0 target;
+
+        Void0Word(String name, Void0 target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            target.call();
+        }
+    }
+
+    static final class Void1Word extends ForthicWord {
+        private final Void1 target;
+
+        Void1Word(String name, Void1 target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            Object a = interp.stackPop();
+            target.call(a);
+        }
+    }
+
+    static final class Void2Word extends ForthicWord {
+        private final Void2 target;
+
+        Void2Word(String name, Void2 target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            Object b = interp.stackPop();
+            Object a = interp.stackPop();
+            target.call(a, b);
+        }
+    }
+
+    static final class Void3Word extends ForthicWord {
+        private final Void3 target;
+
+        Void3Word(String name, Void3 target) {
+            super(name);
+            this.target = target;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            Object c = interp.stackPop();
+            Object b = interp.stackPop();
+            Object a = interp.stackPop();
+            target.call(a, b, c);
+        }
+    }
+
+    static final class HandleWord extends ForthicWord {
+        private final MethodHandle handle;
+        private final int inputCount;
+        private final boolean pushResult;
+
+        HandleWord(String name, MethodHandle handle, int inputCount, boolean pushResult) {
+            super(name);
+            this.handle = handle;
+            this.inputCount = inputCount;
+            this.pushResult = pushResult;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            try {
+                if (inputCount < 0) {
+                    handle.invokeExact(interp);
+                    return;
+                }
+                Object[] inputs = new Object[inputCount];
+                for (int i = inputCount - 1; i >= 0; i--) {
+                    inputs[i] = interp.stackPop();
+                }
+                Object result = (Object) handle.invokeExact(inputs);
+                if (pushResult) {
+                    interp.stackPush(result);
+                }
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
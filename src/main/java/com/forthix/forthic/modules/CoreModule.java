@@ -3,12 +3,21 @@ package com.forthix.forthic.modules;
 import com.forthix.forthic.annotations.Word;
 import com.forthix.forthic.errors.IntentionalStopError;
 import com.forthix.forthic.errors.InvalidVariableNameError;
+import com.forthix.forthic.errors.UnknownWordError;
 import com.forthix.forthic.interpreter.BareInterpreter;
+import com.forthix.forthic.interpreter.Profiler;
 import com.forthix.forthic.module.DecoratedModule;
+import com.forthix.forthic.module.ForthicWord;
+import com.forthix.forthic.module.MemoWord;
 import com.forthix.forthic.module.Variable;
 import com.forthix.forthic.module.ForthicModule;
+import com.forthix.forthic.module.ForthicStack;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * CoreModule - Essential interpreter operations
@@ -18,7 +27,8 @@ import java.util.List;
  * - Variables: VARIABLES, !, @, !@
  * - Module system: INTERPRET, EXPORT, USE_MODULES
  * - Control: IDENTITY, NOP, DEFAULT, *DEFAULT, NULL
- * - Profiling: PROFILE_START, PROFILE_TIMESTAMP, PROFILE_END, PROFILE_DATA
+ * - Memos: MEMO-INVALIDATE, MEMO-TTL, MEMO-STATS
+ * - Profiling: PROFILE-START, PROFILE-TIMESTAMP, PROFILE-END, PROFILE-DATA
  * - Logging: START_LOG, END_LOG, CONSOLE_LOG
  */
 public class CoreModule extends DecoratedModule {
@@ -55,25 +65,54 @@ public class CoreModule extends DecoratedModule {
         return variable;
     }
 
+    private static MemoWord findMemo(BareInterpreter interp, Object name) {
+        String memoName = name == null ? "" : name.toString();
+        ForthicWord word = interp.curModule().findDictionaryWord(memoName);
+        if (word == null) {
+            word = interp.getAppModule().findDictionaryWord(memoName);
+        }
+        if (!(word instanceof MemoWord)) {
+            throw new UnknownWordError(interp.getTopInputString(), memoName, interp.getStringLocation());
+        }
+        return (MemoWord) word;
+    }
+
     // ========================================
     // Stack Operations
     // ========================================
 
-    @Word(stackEffect = "( a:any -- )", description = "Removes top item from stack")
-    public void POP(Object a) {
-        // No return = push nothing
+    // These work on the stack directly so unboxed numbers stay unboxed.
+    // stackPop() is still used when there are too few items, for its underflow error.
+
+    @Word(stackEffect = "( a:any -- )", description = "Removes top item from stack", isDirect = true)
+    public void POP(BareInterpreter interp) {
+        ForthicStack stack = interp.getStack();
+        if (stack.length() < 1) {
+            interp.stackPop();
+            return;
+        }
+        stack.drop();
     }
 
-    @Word(stackEffect = "( a:any -- a:any a:any )", description = "Duplicates top stack item")
-    public void DUP(Object a) {
-        getInterp().stackPush(a);
-        getInterp().stackPush(a);
+    @Word(stackEffect = "( a:any -- a:any a:any )", description = "Duplicates top stack item", isDirect = true)
+    public void DUP(BareInterpreter interp) {
+        ForthicStack stack = interp.getStack();
+        if (stack.length() < 1) {
+            interp.stackPop();
+            return;
+        }
+        stack.dupTop();
     }
 
-    @Word(stackEffect = "( a:any b:any -- b:any a:any )", description = "Swaps top two stack items")
-    public void SWAP(Object a, Object b) {
-        getInterp().stackPush(b);
-        getInterp().stackPush(a);
+    @Word(stackEffect = "( a:any b:any -- b:any a:any )", description = "Swaps top two stack items", isDirect = true)
+    public void SWAP(BareInterpreter interp) {
+        ForthicStack stack = interp.getStack();
+        if (stack.length() < 2) {
+            interp.stackPop();
+            interp.stackPop();
+            return;
+        }
+        stack.swapTop();
     }
 
     @Word(stackEffect = "( -- )", description = "Prints top of stack and stops execution", name = ".s")
@@ -207,6 +246,62 @@ public class CoreModule extends DecoratedModule {
         return value;
     }
 
+    // ========================================
+    // Memos
+    // ========================================
+
+    @Word(stackEffect = "( name:string -- )", description = "Drops the cached value of a memo (@:) word", name = "MEMO-INVALIDATE")
+    public void MEMO_INVALIDATE(Object name) {
+        findMemo(getInterp(), name).invalidate();
+    }
+
+    @Word(stackEffect = "( name:string seconds:number -- )", description = "Sets how long a memo value stays cached (0 or NULL means forever)", name = "MEMO-TTL")
+    public void MEMO_TTL(Object name, Object seconds) {
+        double secs = seconds == null ? 0 : ((Number) seconds).doubleValue();
+        findMemo(getInterp(), name).setTtl(secs <= 0 ? null : Duration.ofNanos((long) (secs * 1_000_000_000L)));
+    }
+
+    @Word(stackEffect = "( name:string -- stats:any )", description = "Returns hit/miss counts for a memo word", name = "MEMO-STATS")
+    public Map<String, Object> MEMO_STATS(Object name) {
+        MemoWord memo = findMemo(getInterp(), name);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", memo.getHitCount());
+        result.put("misses", memo.getMissCount());
+        result.put("cached", memo.hasValue());
+        return result;
+    }
+
+    // ========================================
+    // Profiling
+    // ========================================
+
+    @Word(stackEffect = "( -- )", description = "Starts a new word profile", name = "PROFILE-START")
+    public void PROFILE_START() {
+        getInterp().startProfiling();
+    }
+
+    @Word(stackEffect = "( label:string -- )", description = "Records a named timestamp in the running profile", name = "PROFILE-TIMESTAMP")
+    public void PROFILE_TIMESTAMP(Object label) {
+        Profiler profiler = getInterp().getActiveProfiler();
+        if (profiler != null) {
+            profiler.timestamp(label == null ? "" : label.toString());
+        }
+    }
+
+    @Word(stackEffect = "( -- )", description = "Stops profiling", name = "PROFILE-END")
+    public void PROFILE_END() {
+        getInterp().stopProfiling();
+    }
+
+    @Word(stackEffect = "( -- data:any )", description = "Returns per-word calls, times and allocated bytes, and timestamps, of the last profile", name = "PROFILE-DATA")
+    public Map<String, Object> PROFILE_DATA() {
+        Profiler profiler = getInterp().getProfiler();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("words", profiler == null ? new ArrayList<>() : profiler.getWordStats());
+        result.put("timestamps", profiler == null ? new ArrayList<>() : profiler.getTimestamps());
+        return result;
+    }
+
     // ========================================
     // Logging
     // ========================================
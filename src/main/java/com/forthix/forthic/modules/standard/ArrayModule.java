@@ -3,8 +3,13 @@ package com.forthix.forthic.modules.standard;
 import com.forthix.forthic.annotations.Word;
 import com.forthix.forthic.interpreter.BareInterpreter;
 import com.forthix.forthic.module.DecoratedModule;
+import com.forthix.forthic.module.ForthicWord;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 /**
  * Array and collection operations for manipulating arrays and records.
@@ -13,19 +18,37 @@ import java.util.*;
  * - Access: NTH, LAST, SLICE, TAKE, DROP, LENGTH, INDEX, KEY-OF
  * - Transform: MAP, REVERSE
  * - Combine: APPEND, ZIP, ZIP_WITH
- * - Filter: SELECT, UNIQUE, DIFFERENCE, INTERSECTION, UNION
+ * - Filter: SELECT, UNIQUE, DIFFERENCE, INTERSECTION, UNION, >SET
  * - Sort: SORT, SHUFFLE, ROTATE
  * - Group: BY_FIELD, GROUP-BY-FIELD, GROUP_BY, GROUPS_OF
  * - Utility: <REPEAT, FOREACH, REDUCE, UNPACK, FLATTEN
+ * - Parallel: PMAP, PSELECT, PGROUP-BY
+ * - Lazy: >SEQ, >ARRAY (MAP, SELECT, TAKE, DROP, FLATTEN and UNIQUE stay lazy on a Seq)
+ * - Tables: GROUP-BY-FIELD groups a Table into Tables; >ARRAY converts a Table to records
  */
 public class ArrayModule extends DecoratedModule {
 
+    // Parallel words split their input into about this many chunks per worker thread
+    private static final int CHUNKS_PER_WORKER = 4;
+
     private final Random random = new Random();
+    private ForkJoinPool parallelPool = ForkJoinPool.commonPool();
 
     public ArrayModule() {
         super("array");
     }
 
+    public ForkJoinPool getParallelPool() {
+        return parallelPool;
+    }
+
+    /**
+     * Set the pool PMAP, PSELECT and PGROUP-BY run on (the common pool by default)
+     */
+    public void setParallelPool(ForkJoinPool parallelPool) {
+        this.parallelPool = parallelPool;
+    }
+
     // ===== Access Operations =====
 
     @Word(stackEffect = "( container:any -- length:number )", description = "Get length of array or record")
@@ -165,7 +188,9 @@ public class ArrayModule extends DecoratedModule {
 
         int count = ((Number) n).intValue();
 
-        if (container instanceof List) {
+        if (container instanceof Seq) {
+            return ((Seq) container).take(count);
+        } else if (container instanceof List) {
             List<?> list = (List<?>) container;
             return new ArrayList<>(list.subList(0, Math.min(count, list.size())));
         } else if (container instanceof Map) {
@@ -193,7 +218,9 @@ public class ArrayModule extends DecoratedModule {
             return container;
         }
 
-        if (container instanceof List) {
+        if (container instanceof Seq) {
+            return ((Seq) container).drop(count);
+        } else if (container instanceof List) {
             List<?> list = (List<?>) container;
             if (count >= list.size()) {
                 return new ArrayList<>();
@@ -221,6 +248,20 @@ public class ArrayModule extends DecoratedModule {
         if (result == null) {
             result = new ArrayList<>();
         }
+        if (result instanceof PersistentVector) {
+            return ((PersistentVector) result).append(item);
+        }
+        if (result instanceof PersistentMap) {
+            if (item instanceof List && ((List<?>) item).size() >= 2) {
+                List<?> pair = (List<?>) item;
+                return ((PersistentMap) result).with(pair.get(0).toString(), pair.get(1));
+            }
+            return result;
+        }
+        if (result instanceof Table || result instanceof Table.Column) {
+            // Tables are read-only
+            result = new ArrayList<>((List<?>) result);
+        }
 
         if (result instanceof List) {
             @SuppressWarnings("unchecked")
@@ -295,15 +336,16 @@ public class ArrayModule extends DecoratedModule {
     public List<Object> ZIP_WITH(Object container1, Object container2, Object forthic) throws Exception {
         List<?> list1 = container1 instanceof List ? (List<?>) container1 : new ArrayList<>();
         List<?> list2 = container2 instanceof List ? (List<?>) container2 : new ArrayList<>();
-        String code = forthic == null ? "" : forthic.toString();
+        BareInterpreter interp = getInterp();
+        ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
 
         List<Object> result = new ArrayList<>();
         int minSize = Math.min(list1.size(), list2.size());
         for (int i = 0; i < minSize; i++) {
-            getInterp().stackPush(list1.get(i));
-            getInterp().stackPush(list2.get(i));
-            getInterp().run(code);
-            result.add(getInterp().stackPop());
+            interp.stackPush(list1.get(i));
+            interp.stackPush(list2.get(i));
+            code.execute(interp);
+            result.add(interp.stackPop());
         }
         return result;
     }
@@ -316,7 +358,9 @@ public class ArrayModule extends DecoratedModule {
             return array;
         }
 
-        if (array instanceof List) {
+        if (array instanceof Seq) {
+            return ((Seq) array).unique();
+        } else if (array instanceof List) {
             List<?> list = (List<?>) array;
             return new ArrayList<>(new LinkedHashSet<>(list));
         }
@@ -332,12 +376,12 @@ public class ArrayModule extends DecoratedModule {
             return lcontainer;
         }
 
-        if (lcontainer instanceof List && rcontainer instanceof List) {
+        if (lcontainer instanceof List && rcontainer instanceof Collection) {
             List<?> left = (List<?>) lcontainer;
-            List<?> right = (List<?>) rcontainer;
+            Predicate<Object> inRight = ValueSet.membership((Collection<?>) rcontainer);
             List<Object> result = new ArrayList<>();
             for (Object item : left) {
-                if (!right.contains(item)) {
+                if (!inRight.test(item)) {
                     result.add(item);
                 }
             }
@@ -364,12 +408,12 @@ public class ArrayModule extends DecoratedModule {
             return new ArrayList<>();
         }
 
-        if (lcontainer instanceof List && rcontainer instanceof List) {
+        if (lcontainer instanceof List && rcontainer instanceof Collection) {
             List<?> left = (List<?>) lcontainer;
-            List<?> right = (List<?>) rcontainer;
+            Predicate<Object> inRight = ValueSet.membership((Collection<?>) rcontainer);
             List<Object> result = new ArrayList<>();
             for (Object item : left) {
-                if (right.contains(item)) {
+                if (inRight.test(item)) {
                     result.add(item);
                 }
             }
@@ -425,6 +469,17 @@ public class ArrayModule extends DecoratedModule {
         return new ArrayList<>();
     }
 
+    @Word(stackEffect = "( items:any[] -- set:any )", description = "Create a set for repeated membership tests with IN, ANY, ALL, DIFFERENCE and INTERSECTION", name = ">SET")
+    public ValueSet to_SET(Object items) {
+        if (items instanceof Collection) {
+            return new ValueSet((Collection<?>) items);
+        }
+        if (items instanceof Map) {
+            return new ValueSet(((Map<?, ?>) items).values());
+        }
+        return new ValueSet();
+    }
+
     // ===== Sort Operations =====
 
     @Word(stackEffect = "( container:any[] -- array:any[] )", description = "Sort container")
@@ -517,13 +572,14 @@ public class ArrayModule extends DecoratedModule {
         }
 
         List<?> list = (List<?>) items;
-        String code = forthic == null ? "" : forthic.toString();
+        BareInterpreter interp = getInterp();
+        ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
         Map<String, Object> result = new LinkedHashMap<>();
 
         for (Object item : list) {
-            getInterp().stackPush(item);
-            getInterp().run(code);
-            Object key = getInterp().stackPop();
+            interp.stackPush(item);
+            code.execute(interp);
+            Object key = interp.stackPop();
             if (key != null) {
                 result.put(key.toString(), item);
             }
@@ -562,6 +618,10 @@ public class ArrayModule extends DecoratedModule {
 
         List<?> list = (List<?>) container;
         String fieldName = field == null ? "" : field.toString();
+        if (list instanceof Table) {
+            // Groups are tables
+            return ((Table) list).groupBy(fieldName);
+        }
         Map<String, List<Object>> result = new LinkedHashMap<>();
 
         for (Object item : list) {
@@ -603,31 +663,36 @@ public class ArrayModule extends DecoratedModule {
 
     // ===== Complex Operations (MAP, FOREACH, REDUCE, etc.) =====
 
-    @Word(stackEffect = "( container:any forthic:string -- result:any )", description = "Map forthic over container")
+    @Word(stackEffect = "( container:any forthic:string -- result:any )", description = "Map forthic over container (lazily for a Seq: forthic runs again each time the result is traversed)")
     public Object MAP(Object container, Object forthic) throws Exception {
         if (container == null) {
             return new ArrayList<>();
         }
 
-        String code = forthic == null ? "" : forthic.toString();
+        BareInterpreter interp = getInterp();
 
-        if (container instanceof List) {
+        if (container instanceof Seq) {
+            LazyStage stage = new LazyStage(forthic == null ? "" : forthic.toString());
+            return ((Seq) container).map(stage::apply);
+        } else if (container instanceof List) {
             List<?> list = (List<?>) container;
+            ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
             List<Object> result = new ArrayList<>();
             for (Object item : list) {
-                getInterp().stackPush(item);
-                getInterp().run(code);
-                result.add(getInterp().stackPop());
+                interp.stackPush(item);
+                code.execute(interp);
+                result.add(interp.stackPop());
             }
             return result;
         } else if (container instanceof Map) {
+            ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
             @SuppressWarnings("unchecked")
             Map<String, Object> map = (Map<String, Object>) container;
             Map<String, Object> result = new LinkedHashMap<>();
             for (Map.Entry<String, Object> entry : map.entrySet()) {
-                getInterp().stackPush(entry.getValue());
-                getInterp().run(code);
-                result.put(entry.getKey(), getInterp().stackPop());
+                interp.stackPush(entry.getValue());
+                code.execute(interp);
+                result.put(entry.getKey(), interp.stackPop());
             }
             return result;
         }
@@ -640,52 +705,58 @@ public class ArrayModule extends DecoratedModule {
             return;
         }
 
-        String code = forthic == null ? "" : forthic.toString();
+        BareInterpreter interp = getInterp();
+        ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
 
         if (container instanceof List) {
             List<?> list = (List<?>) container;
             for (Object item : list) {
-                getInterp().stackPush(item);
-                getInterp().run(code);
+                interp.stackPush(item);
+                code.execute(interp);
             }
         } else if (container instanceof Map) {
             @SuppressWarnings("unchecked")
             Map<String, Object> map = (Map<String, Object>) container;
             for (Object value : map.values()) {
-                getInterp().stackPush(value);
-                getInterp().run(code);
+                interp.stackPush(value);
+                code.execute(interp);
             }
         }
     }
 
-    @Word(stackEffect = "( container:any forthic:string -- filtered:any )", description = "Filter items with predicate")
+    @Word(stackEffect = "( container:any forthic:string -- filtered:any )", description = "Filter items with predicate (lazily for a Seq: forthic runs again each time the result is traversed)")
     public Object SELECT(Object container, Object forthic) throws Exception {
         if (container == null) {
             return new ArrayList<>();
         }
 
-        String code = forthic == null ? "" : forthic.toString();
+        BareInterpreter interp = getInterp();
 
-        if (container instanceof List) {
+        if (container instanceof Seq) {
+            LazyStage stage = new LazyStage(forthic == null ? "" : forthic.toString());
+            return ((Seq) container).select(item -> isTruthy(stage.apply(item)));
+        } else if (container instanceof List) {
             List<?> list = (List<?>) container;
+            ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
             List<Object> result = new ArrayList<>();
             for (Object item : list) {
-                getInterp().stackPush(item);
-                getInterp().run(code);
-                Object predResult = getInterp().stackPop();
+                interp.stackPush(item);
+                code.execute(interp);
+                Object predResult = interp.stackPop();
                 if (isTruthy(predResult)) {
                     result.add(item);
                 }
             }
             return result;
         } else if (container instanceof Map) {
+            ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
             @SuppressWarnings("unchecked")
             Map<String, Object> map = (Map<String, Object>) container;
             Map<String, Object> result = new LinkedHashMap<>();
             for (Map.Entry<String, Object> entry : map.entrySet()) {
-                getInterp().stackPush(entry.getValue());
-                getInterp().run(code);
-                Object predResult = getInterp().stackPop();
+                interp.stackPush(entry.getValue());
+                code.execute(interp);
+                Object predResult = interp.stackPop();
                 if (isTruthy(predResult)) {
                     result.put(entry.getKey(), entry.getValue());
                 }
@@ -701,25 +772,26 @@ public class ArrayModule extends DecoratedModule {
             return initial;
         }
 
-        String code = forthic == null ? "" : forthic.toString();
+        BareInterpreter interp = getInterp();
+        ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
         Object accumulator = initial;
 
         if (container instanceof List) {
             List<?> list = (List<?>) container;
             for (Object item : list) {
-                getInterp().stackPush(accumulator);
-                getInterp().stackPush(item);
-                getInterp().run(code);
-                accumulator = getInterp().stackPop();
+                interp.stackPush(accumulator);
+                interp.stackPush(item);
+                code.execute(interp);
+                accumulator = interp.stackPop();
             }
         } else if (container instanceof Map) {
             @SuppressWarnings("unchecked")
             Map<String, Object> map = (Map<String, Object>) container;
             for (Object value : map.values()) {
-                getInterp().stackPush(accumulator);
-                getInterp().stackPush(value);
-                getInterp().run(code);
-                accumulator = getInterp().stackPop();
+                interp.stackPush(accumulator);
+                interp.stackPush(value);
+                code.execute(interp);
+                accumulator = interp.stackPop();
             }
         }
         return accumulator;
@@ -731,15 +803,16 @@ public class ArrayModule extends DecoratedModule {
             return new LinkedHashMap<>();
         }
 
-        String code = forthic == null ? "" : forthic.toString();
+        BareInterpreter interp = getInterp();
+        ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
         Map<String, List<Object>> result = new LinkedHashMap<>();
 
         if (container instanceof List) {
             List<?> list = (List<?>) container;
             for (Object item : list) {
-                getInterp().stackPush(item);
-                getInterp().run(code);
-                Object key = getInterp().stackPop();
+                interp.stackPush(item);
+                code.execute(interp);
+                Object key = interp.stackPop();
                 if (key != null) {
                     String keyStr = key.toString();
                     result.computeIfAbsent(keyStr, k -> new ArrayList<>()).add(item);
@@ -749,11 +822,111 @@ public class ArrayModule extends DecoratedModule {
         return result;
     }
 
+    // ===== Lazy Sequences =====
+
+    @Word(stackEffect = "( container:any -- seq:any )", description = "Create a lazy sequence over an array or record values", name = ">SEQ")
+    public Seq to_SEQ(Object container) {
+        if (container instanceof Iterable) {
+            return Seq.of((Iterable<?>) container);
+        }
+        if (container instanceof Map) {
+            return Seq.of(((Map<?, ?>) container).values());
+        }
+        return Seq.of(new ArrayList<>());
+    }
+
+    @Word(stackEffect = "( items:any -- array:any[] )", description = "Materialize a lazy sequence, set or table into an array", name = ">ARRAY")
+    public Object to_ARRAY(Object items) {
+        if (items == null) {
+            return new ArrayList<>();
+        }
+        if (items instanceof Seq || items instanceof Set || items instanceof Table || items instanceof Table.Column) {
+            return new ArrayList<>((Collection<?>) items);
+        }
+        return items;
+    }
+
+    // ===== Parallel Operations =====
+    //
+    // These run forthic on chunks of the container in parallel, each chunk on its own fork
+    // of the interpreter, so forthic must consume its item and leave one value and must not
+    // depend on items being processed in order. Results are in input order.
+
+    @Word(stackEffect = "( container:any forthic:string -- result:any )", description = "Map forthic over container in parallel")
+    public Object PMAP(Object container, Object forthic) throws Exception {
+        if (!(container instanceof List) && !(container instanceof Map)) {
+            return MAP(container, forthic);
+        }
+
+        if (container instanceof List) {
+            return new ArrayList<>(Arrays.asList(parallelApply((List<?>) container, forthic)));
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = (Map<String, Object>) container;
+        Object[] values = parallelApply(new ArrayList<>(map.values()), forthic);
+        Map<String, Object> result = new LinkedHashMap<>();
+        int i = 0;
+        for (String key : map.keySet()) {
+            result.put(key, values[i++]);
+        }
+        return result;
+    }
+
+    @Word(stackEffect = "( container:any forthic:string -- filtered:any )", description = "Filter items with predicate in parallel")
+    public Object PSELECT(Object container, Object forthic) throws Exception {
+        if (!(container instanceof List) && !(container instanceof Map)) {
+            return SELECT(container, forthic);
+        }
+
+        if (container instanceof List) {
+            List<?> list = (List<?>) container;
+            Object[] predResults = parallelApply(list, forthic);
+            List<Object> result = new ArrayList<>();
+            for (int i = 0; i < predResults.length; i++) {
+                if (isTruthy(predResults[i])) {
+                    result.add(list.get(i));
+                }
+            }
+            return result;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = (Map<String, Object>) container;
+        Object[] predResults = parallelApply(new ArrayList<>(map.values()), forthic);
+        Map<String, Object> result = new LinkedHashMap<>();
+        int i = 0;
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (isTruthy(predResults[i++])) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    @Word(stackEffect = "( container:any forthic:string -- grouped:any )", description = "Group container by key function in parallel", name = "PGROUP-BY")
+    public Map<String, List<Object>> PGROUP_BY(Object container, Object forthic) throws Exception {
+        if (!(container instanceof List)) {
+            return GROUP_BY(container, forthic);
+        }
+
+        List<?> list = (List<?>) container;
+        Object[] keys = parallelApply(list, forthic);
+        Map<String, List<Object>> result = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                result.computeIfAbsent(keys[i].toString(), k -> new ArrayList<>()).add(list.get(i));
+            }
+        }
+        return result;
+    }
+
     @Word(stackEffect = "( container:any[] -- flattened:any[] )", description = "Flatten nested array structure")
     public List<Object> FLATTEN(Object container) {
         if (container == null || !(container instanceof List)) {
             return new ArrayList<>();
         }
+        if (container instanceof Seq) {
+            return ((Seq) container).flatten();
+        }
 
         List<Object> result = new ArrayList<>();
         flattenHelper((List<?>) container, result, Integer.MAX_VALUE);
@@ -782,16 +955,119 @@ public class ArrayModule extends DecoratedModule {
         Object item = interp.stackPop();
 
         int count = numTimes == null ? 0 : ((Number) numTimes).intValue();
-        String code = forthic == null ? "" : forthic.toString();
+        ForthicWord code = interp.compile(forthic == null ? "" : forthic.toString());
 
         for (int i = 0; i < count; i++) {
             interp.stackPush(item);
-            interp.run(code);
+            code.execute(interp);
         }
     }
 
     // ===== Helper Methods =====
 
+    /**
+     * Run forthic on each item and return the value it leaves for each, in input order.
+     *
+     * Items are split into chunks that worker tasks on the parallel pool take in turn. Each
+     * worker gets one fork of the interpreter, made here before any task starts, so it sees
+     * the current definitions and variable values. An error is rethrown from the first
+     * failing chunk; a worker stops at its first error.
+     */
+    private Object[] parallelApply(List<?> items, Object forthic) throws Exception {
+        BareInterpreter interp = getInterp();
+        String source = forthic == null ? "" : forthic.toString();
+        int size = items.size();
+        Object[] results = new Object[size];
+
+        ForkJoinPool pool = parallelPool;
+        int chunkCount = Math.min(size, pool.getParallelism() * CHUNKS_PER_WORKER);
+        if (chunkCount <= 1) {
+            applyRange(interp, interp.compile(source), items, results, 0, size);
+            return results;
+        }
+
+        int workerCount = Math.min(chunkCount, pool.getParallelism());
+        AtomicInteger nextChunk = new AtomicInteger();
+        Exception[] errors = new Exception[chunkCount];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(workerCount);
+        for (int w = 0; w < workerCount; w++) {
+            BareInterpreter fork = interp.fork();
+            tasks.add(ForkJoinTask.adapt(() -> fork.callAsRunning(() -> {
+                ForthicWord code = null;
+                int c;
+                while ((c = nextChunk.getAndIncrement()) < chunkCount) {
+                    int from = (int) ((long) c * size / chunkCount);
+                    int to = (int) ((long) (c + 1) * size / chunkCount);
+                    try {
+                        if (code == null) {
+                            code = fork.compile(source);
+                        }
+                        applyRange(fork, code, items, results, from, to);
+                    } catch (Exception e) {
+                        errors[c] = e;
+                        break;
+                    }
+                }
+                return null;
+            })));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+        for (Exception error : errors) {
+            if (error != null) {
+                throw error;
+            }
+        }
+        return results;
+    }
+
+    private static void applyRange(BareInterpreter interp, ForthicWord code, List<?> items,
+                                   Object[] results, int from, int to) throws Exception {
+        for (int i = from; i < to; i++) {
+            interp.stackPush(items.get(i));
+            code.execute(interp);
+            results[i] = interp.stackPop();
+        }
+    }
+
+    /**
+     * Forthic run on each item of a lazy Seq when the Seq is traversed.
+     *
+     * It runs on the interpreter running at that time rather than the one that built the
+     * Seq, which may be a pooled fork that has since been released.
+     */
+    private class LazyStage {
+        private final String forthic;
+        private volatile Binding binding;
+
+        LazyStage(String forthic) {
+            this.forthic = forthic;
+        }
+
+        Object apply(Object item) throws Exception {
+            BareInterpreter interp = getInterp();
+            Binding current = binding;
+            if (current == null || current.interp != interp) {
+                current = new Binding(interp, interp.compile(forthic));
+                binding = current;
+            }
+            interp.stackPush(item);
+            current.code.execute(interp);
+            return interp.stackPop();
+        }
+    }
+
+    // Code compiled for one interpreter
+    private static final class Binding {
+        final BareInterpreter interp;
+        final ForthicWord code;
+
+        Binding(BareInterpreter interp, ForthicWord code) {
+            this.interp = interp;
+            this.code = code;
+        }
+    }
+
     private boolean isTruthy(Object value) {
         if (value == null) return false;
         if (value instanceof Boolean) return (Boolean) value;
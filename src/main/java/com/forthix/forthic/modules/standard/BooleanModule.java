@@ -3,8 +3,12 @@ package com.forthix.forthic.modules.standard;
 import com.forthix.forthic.annotations.Word;
 import com.forthix.forthic.interpreter.BareInterpreter;
 import com.forthix.forthic.module.DecoratedModule;
+import com.forthix.forthic.module.ForthicStack;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * Comparison, logic, and membership operations for boolean values and conditions.
@@ -24,6 +28,10 @@ import java.util.List;
 public class BooleanModule extends DecoratedModule {
     public BooleanModule() {
         super("boolean");
+        addNumericPath("<", stack -> stack.push(compareTop(stack) < 0));
+        addNumericPath("<=", stack -> stack.push(compareTop(stack) <= 0));
+        addNumericPath(">", stack -> stack.push(compareTop(stack) > 0));
+        addNumericPath(">=", stack -> stack.push(compareTop(stack) >= 0));
     }
 
     // ===== Comparison Operations =====
@@ -141,22 +149,32 @@ public class BooleanModule extends DecoratedModule {
 
     // ===== Membership Operations =====
 
-    @Word(stackEffect = "( item:any array:any[] -- in:boolean )", description = "Check if item is in array")
+    @Word(stackEffect = "( item:any array:any[] -- in:boolean )", description = "Check if item is in array or set")
     public Boolean IN(Object item, Object array) {
-        if (!(array instanceof List)) {
+        if (!(array instanceof Collection)) {
             return false;
         }
-        return ((List<?>) array).contains(item);
+        if (array instanceof ValueSet) {
+            return ((ValueSet) array).contains(item);
+        }
+        // A single lookup doesn't pay for hashing the array
+        Object key = ValueSet.key(item);
+        for (Object value : (Collection<?>) array) {
+            if (Objects.equals(key, ValueSet.key(value))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Word(stackEffect = "( items1:any[] items2:any[] -- any:boolean )", description = "Check if any item from items1 is in items2")
     public Boolean ANY(Object items1, Object items2) {
-        if (!(items1 instanceof List) || !(items2 instanceof List)) {
+        if (!(items1 instanceof Collection) || !(items2 instanceof Collection)) {
             return false;
         }
 
-        List<?> list1 = (List<?>) items1;
-        List<?> list2 = (List<?>) items2;
+        Collection<?> list1 = (Collection<?>) items1;
+        Collection<?> list2 = (Collection<?>) items2;
 
         // If items2 is empty, return true (any items from items1 satisfy empty constraint)
         if (list2.isEmpty()) {
@@ -164,8 +182,9 @@ public class BooleanModule extends DecoratedModule {
         }
 
         // Check if any item from items1 is in items2
+        Predicate<Object> inList2 = ValueSet.membership(list2);
         for (Object item : list1) {
-            if (list2.contains(item)) {
+            if (inList2.test(item)) {
                 return true;
             }
         }
@@ -174,12 +193,12 @@ public class BooleanModule extends DecoratedModule {
 
     @Word(stackEffect = "( items1:any[] items2:any[] -- all:boolean )", description = "Check if all items from items2 are in items1")
     public Boolean ALL(Object items1, Object items2) {
-        if (!(items1 instanceof List) || !(items2 instanceof List)) {
+        if (!(items1 instanceof Collection) || !(items2 instanceof Collection)) {
             return false;
         }
 
-        List<?> list1 = (List<?>) items1;
-        List<?> list2 = (List<?>) items2;
+        Collection<?> list1 = (Collection<?>) items1;
+        Collection<?> list2 = (Collection<?>) items2;
 
         // If items2 is empty, return true (all zero items are in items1)
         if (list2.isEmpty()) {
@@ -187,8 +206,9 @@ public class BooleanModule extends DecoratedModule {
         }
 
         // Check if all items from items2 are in items1
+        Predicate<Object> inList1 = ValueSet.membership(list1);
         for (Object item : list2) {
-            if (!list1.contains(item)) {
+            if (!inList1.test(item)) {
                 return false;
             }
         }
@@ -223,6 +243,14 @@ public class BooleanModule extends DecoratedModule {
         return true;
     }
 
+    /**
+     * Pop and compare the top two items, which are numbers, without boxing them
+     */
+    private static int compareTop(ForthicStack stack) {
+        double b = stack.popDouble();
+        return Double.compare(stack.popDouble(), b);
+    }
+
     /**
      * Compare two values (for <, <=, >, >=)
      * Returns: negative if a < b, 0 if a == b, positive if a > b
@@ -0,0 +1,213 @@
+package com.forthix.forthic.modules.standard;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Date formats read by &gt;DATE and &gt;DATES, parsed by hand.
+ *
+ * Each format checks a string's shape and reads its digits directly, returning null for
+ * strings that don't match, so trying a format that misses costs a few character checks
+ * rather than a DateTimeParseException. Results match what the DateTimeFormatter patterns
+ * named below return, following the rules those patterns parse by:
+ * <ul>
+ * <li>Years are 4 digits, or a sign and more digits: "+" and 5 or more digits, or in the
+ * ISO format "-" and 4 or more digits. Unsigned years longer than 4 digits are rejected.</li>
+ * <li>MM and dd are exactly 2 digits; M and d are 1 to 19 digits, leading zeros allowed.</li>
+ * <li>The ISO format rejects invalid days (as LocalDate.parse does); the slash formats
+ * move a day past the end of the month back to its last day (as ofPattern's SMART
+ * resolver does).</li>
+ * </ul>
+ */
+enum DateParser {
+    ISO("yyyy-MM-dd") {
+        @Override
+        LocalDate parse(String str) {
+            int length = str.length();
+            if (length < 10 || str.charAt(length - 6) != '-' || str.charAt(length - 3) != '-') {
+                return null;
+            }
+            long year = year(str, 0, length - 6, 10, true);
+            int month = digits(str, length - 5, length - 3);
+            int day = digits(str, length - 2, length);
+            if (year == NO_YEAR || month < 1 || month > 12 || day < 1
+                    || day > YearMonth.of((int) year, month).lengthOfMonth()) {
+                return null;
+            }
+            return LocalDate.of((int) year, month, day);
+        }
+    },
+    YEAR_FIRST("yyyy/MM/dd") {
+        @Override
+        LocalDate parse(String str) {
+            int[] slashes = slashes(str);
+            if (slashes == null) {
+                return null;
+            }
+            return date(year(str, 0, slashes[0], 19, false),
+                fixed2(str, slashes[0] + 1, slashes[1]), fixed2(str, slashes[1] + 1, str.length()));
+        }
+    },
+    MONTH_FIRST("MM/dd/yyyy") {
+        @Override
+        LocalDate parse(String str) {
+            int[] slashes = slashes(str);
+            if (slashes == null) {
+                return null;
+            }
+            return date(year(str, slashes[1] + 1, str.length(), 19, false),
+                fixed2(str, 0, slashes[0]), fixed2(str, slashes[0] + 1, slashes[1]));
+        }
+    },
+    DAY_FIRST("dd/MM/yyyy") {
+        @Override
+        LocalDate parse(String str) {
+            int[] slashes = slashes(str);
+            if (slashes == null) {
+                return null;
+            }
+            return date(year(str, slashes[1] + 1, str.length(), 19, false),
+                fixed2(str, slashes[0] + 1, slashes[1]), fixed2(str, 0, slashes[0]));
+        }
+    },
+    SHORT_MONTH_FIRST("M/d/yyyy") {
+        @Override
+        LocalDate parse(String str) {
+            int[] slashes = slashes(str);
+            if (slashes == null) {
+                return null;
+            }
+            return date(year(str, slashes[1] + 1, str.length(), 19, false),
+                unpadded(str, 0, slashes[0]), unpadded(str, slashes[0] + 1, slashes[1]));
+        }
+    };
+
+    // Returned by year for strings that aren't a valid year
+    private static final long NO_YEAR = Long.MIN_VALUE;
+    private static final int MAX_YEAR = 999_999_999;
+
+    private static final DateParser[] FORMATS = values();
+
+    private final String pattern;
+
+    DateParser(String pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * The date in a string of this format, or null
+     */
+    abstract LocalDate parse(String str);
+
+    String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * The date in a string of any format, trying formats in order, or null
+     */
+    static LocalDate parseAny(String str) {
+        for (DateParser format : FORMATS) {
+            LocalDate date = format.parse(str);
+            if (date != null) {
+                return date;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Format that reads the most strings in a sample (the earlier format on a tie), or null
+     * if none reads any
+     */
+    static DateParser infer(List<String> sample) {
+        DateParser best = null;
+        int bestCount = 0;
+        for (DateParser format : FORMATS) {
+            int count = 0;
+            for (String str : sample) {
+                if (str != null && format.parse(str) != null) {
+                    count++;
+                }
+            }
+            if (count > bestCount) {
+                best = format;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    // Value of the decimal digits str[start, end), or -1 if any isn't a digit. Values past
+    // MAX_YEAR read as MAX_YEAR + 1, which no field accepts.
+    private static int digits(String str, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = (int) Math.min(value * 10L + (c - '0'), MAX_YEAR + 1);
+        }
+        return value;
+    }
+
+    // MM or dd: exactly 2 digits, or -1
+    private static int fixed2(String str, int start, int end) {
+        return end - start == 2 ? digits(str, start, end) : -1;
+    }
+
+    // M or d: 1 to 19 digits, or -1
+    private static int unpadded(String str, int start, int end) {
+        int length = end - start;
+        return length >= 1 && length <= 19 ? digits(str, start, end) : -1;
+    }
+
+    /**
+     * Year in str[start, end): 4 digits, "+" and 5 to maxDigits digits or, if negative is
+     * allowed, "-" and 4 to maxDigits digits. NO_YEAR if it isn't one or is out of range.
+     */
+    private static long year(String str, int start, int end, int maxDigits, boolean negative) {
+        if (start == end) {
+            return NO_YEAR;
+        }
+        char sign = str.charAt(start);
+        int length = end - start;
+        if (sign == '+' || (negative && sign == '-')) {
+            int count = length - 1;
+            if (count < (sign == '+' ? 5 : 4) || count > maxDigits) {
+                return NO_YEAR;
+            }
+            int value = digits(str, start + 1, end);
+            if (value < 0 || value > MAX_YEAR || (sign == '-' && value == 0)) {
+                return NO_YEAR;
+            }
+            return sign == '-' ? -value : value;
+        }
+        if (length != 4) {
+            return NO_YEAR;
+        }
+        int value = digits(str, start, end);
+        return value < 0 ? NO_YEAR : value;
+    }
+
+    // Positions of the two slashes in a string with exactly two, or null
+    private static int[] slashes(String str) {
+        int first = str.indexOf('/');
+        int second = first < 0 ? -1 : str.indexOf('/', first + 1);
+        if (second < 0 || str.indexOf('/', second + 1) >= 0) {
+            return null;
+        }
+        return new int[] {first, second};
+    }
+
+    // Date of a slash format's fields, resolved as ofPattern's SMART resolver does, or null
+    private static LocalDate date(long year, int month, int day) {
+        if (year < 1 || year > MAX_YEAR || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        YearMonth yearMonth = YearMonth.of((int) year, month);
+        return yearMonth.atDay(Math.min(day, yearMonth.lengthOfMonth()));
+    }
+}
@@ -5,9 +5,11 @@ import com.forthix.forthic.interpreter.BareInterpreter;
 import com.forthix.forthic.module.DecoratedModule;
 
 import java.time.*;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,7 +19,7 @@ import java.util.regex.Pattern;
  * Categories:
  * - Current: TODAY, NOW
  * - Time adjustment: AM, PM
- * - Conversion to: >TIME, >DATE, >DATETIME, AT
+ * - Conversion to: >TIME, >DATE, >DATES, >DATETIME, AT
  * - Conversion from: TIME>STR, DATE>STR, DATE>INT
  * - Timestamps: >TIMESTAMP, TIMESTAMP>DATETIME
  * - Date math: ADD-DAYS, SUBTRACT-DATES
@@ -31,6 +33,11 @@ import java.util.regex.Pattern;
  */
 public class DateTimeModule extends DecoratedModule {
 
+    private static final Pattern AMPM_PATTERN = Pattern.compile("^(\\d{1,2}):(\\d{2})\\s*(AM|PM)$", Pattern.CASE_INSENSITIVE);
+
+    // >DATES infers its format from this many strings
+    static final int DATE_SAMPLE_SIZE = 100;
+
     public DateTimeModule() {
         super("datetime");
     }
@@ -104,8 +111,7 @@ public class DateTimeModule extends DecoratedModule {
         String str = item.toString().trim();
 
         // Handle "HH:MM AM/PM" format
-        Pattern ampmPattern = Pattern.compile("^(\\d{1,2}):(\\d{2})\\s*(AM|PM)$", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = ampmPattern.matcher(str);
+        Matcher matcher = AMPM_PATTERN.matcher(str);
         if (matcher.matches()) {
             int hour = Integer.parseInt(matcher.group(1));
             int minute = Integer.parseInt(matcher.group(2));
@@ -150,28 +156,41 @@ public class DateTimeModule extends DecoratedModule {
         // Otherwise, parse as string
         String str = item.toString().trim();
 
-        // Try standard ISO format (YYYY-MM-DD)
-        try {
-            return LocalDate.parse(str);
-        } catch (DateTimeParseException e) {
-            // Try parsing with various formats
-            String[] formats = {
-                "yyyy/MM/dd",
-                "MM/dd/yyyy",
-                "dd/MM/yyyy",
-                "M/d/yyyy"
-            };
-
-            for (String format : formats) {
-                try {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
-                    return LocalDate.parse(str, formatter);
-                } catch (DateTimeParseException ignored) {
-                }
+        // Try YYYY-MM-DD, then yyyy/MM/dd, MM/dd/yyyy, dd/MM/yyyy and M/d/yyyy
+        return DateParser.parseAny(str);
+    }
+
+    @Word(stackEffect = "( items:any[] -- dates:LocalDate[] )",
+          description = "Convert an array of strings or datetimes to LocalDates, reading strings in the format of the first items",
+          name = ">DATES")
+    public List<Object> to_DATES(Object items) {
+        List<Object> result = new ArrayList<>();
+        if (!(items instanceof Collection)) {
+            return result;
+        }
+        Collection<?> collection = (Collection<?>) items;
+
+        // Infer one format for the column from a sample of its strings; items that format
+        // can't read are converted as >DATE converts them
+        List<String> sample = new ArrayList<>();
+        for (Object item : collection) {
+            if (sample.size() >= DATE_SAMPLE_SIZE) {
+                break;
+            }
+            if (item instanceof String) {
+                sample.add(((String) item).trim());
             }
         }
+        DateParser format = DateParser.infer(sample);
 
-        return null;
+        for (Object item : collection) {
+            LocalDate date = null;
+            if (format != null && item instanceof String) {
+                date = format.parse(((String) item).trim());
+            }
+            result.add(date != null ? date : to_DATE(item));
+        }
+        return result;
     }
 
     @Word(stackEffect = "( str_or_timestamp:any -- datetime:ZonedDateTime )", description = "Convert string or timestamp to ZonedDateTime", isDirect = true, name = ">DATETIME")
@@ -0,0 +1,184 @@
+package com.forthix.forthic.modules.standard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forthix.forthic.annotations.Word;
+import com.forthix.forthic.module.DecoratedModule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Words for reading large local files as lazy sequences.
+ *
+ * Files are memory-mapped and read as the sequence is traversed, so a script can SELECT
+ * over a file much larger than the heap. Each traversal reads the file again; use >ARRAY
+ * to keep the records. Files must be UTF-8 (or ASCII) with newline-separated records.
+ *
+ * This module gives scripts read access to the local file system, so it isn't part of
+ * StandardInterpreter; add it where that's wanted:
+ * <pre>
+ * new StandardInterpreter(List.of(new IoModule()), "UTC")
+ * </pre>
+ *
+ * Categories:
+ * - Read: LINES, NDJSON, CSV-ROWS, CSV-RECORDS
+ *
+ * Examples:
+ * "server.log" LINES "'ERROR' RE-MATCH" SELECT 10 TAKE
+ * "events.ndjson" NDJSON "'type' REC@ 'click' ==" SELECT LENGTH
+ */
+public class IoModule extends DecoratedModule {
+
+    private final ObjectMapper objectMapper;
+    private long windowSize = MappedFileReader.WINDOW_SIZE;
+
+    public IoModule() {
+        super("io");
+        this.objectMapper = new ObjectMapper().registerModule(ShapedRecordDeserializer.module());
+    }
+
+    /**
+     * Size of the file windows mapped at a time (256 MB by default)
+     */
+    public void setWindowSize(long windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    @Word(stackEffect = "( path:string -- lines:any )", description = "Lazy sequence of a file's lines")
+    public Seq LINES(Object path) {
+        return records(path, false, () -> reader -> reader.recordString());
+    }
+
+    @Word(stackEffect = "( path:string -- records:any )", description = "Lazy sequence of the JSON values in a newline-delimited JSON file")
+    public Seq NDJSON(Object path) {
+        return records(path, false, () -> reader -> {
+            if (reader.isBlank()) {
+                return SKIP;
+            }
+            try {
+                return objectMapper.readValue(reader.recordBytes(), 0, reader.recordLength(), Object.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Invalid JSON in record " + reader.getRecordNumber() + " of " + path, e);
+            }
+        });
+    }
+
+    @Word(stackEffect = "( path:string -- rows:any )", description = "Lazy sequence of a CSV file's rows as arrays of strings", name = "CSV-ROWS")
+    public Seq CSV_ROWS(Object path) {
+        return records(path, true, () -> reader -> reader.recordLength() == 0 ? SKIP : reader.csvFields());
+    }
+
+    @Word(stackEffect = "( path:string -- records:any )", description = "Lazy sequence of a CSV file's rows as records keyed by the header row", name = "CSV-RECORDS")
+    public Seq CSV_RECORDS(Object path) {
+        return records(path, true, () -> new RecordParser() {
+            private List<Object> header;
+
+            @Override
+            public Object parse(MappedFileReader reader) {
+                if (reader.recordLength() == 0) {
+                    return SKIP;
+                }
+                List<Object> fields = reader.csvFields();
+                if (header == null) {
+                    header = fields;
+                    return SKIP;
+                }
+                Map<String, Object> record = new ShapedRecord();
+                for (int i = 0; i < header.size(); i++) {
+                    record.put(header.get(i).toString(), i < fields.size() ? fields.get(i) : null);
+                }
+                return record;
+            }
+        });
+    }
+
+    // ===== Helper Methods =====
+
+    // Returned by a parser for records that aren't part of the sequence
+    private static final Object SKIP = new Object();
+
+    private interface RecordParser {
+        Object parse(MappedFileReader reader);
+    }
+
+    private interface ParserFactory {
+        RecordParser create();
+    }
+
+    private Seq records(Object path, boolean quoted, ParserFactory parsers) {
+        Path file = Paths.get(path == null ? "" : path.toString());
+        long window = windowSize;
+        return Seq.fromCursors(() -> {
+            try {
+                return new RecordCursor(new MappedFileReader(file, window), quoted, parsers.create());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static class RecordCursor extends Seq.Cursor {
+        private final MappedFileReader reader;
+        private final boolean quoted;
+        private final RecordParser parser;
+        private Object next;
+        private boolean hasNext;
+        private boolean closed;
+
+        RecordCursor(MappedFileReader reader, boolean quoted, RecordParser parser) {
+            this.reader = reader;
+            this.quoted = quoted;
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (!hasNext && !closed) {
+                    if (!reader.nextRecord(quoted)) {
+                        close();
+                        break;
+                    }
+                    Object value = parser.parse(reader);
+                    if (value != SKIP) {
+                        next = value;
+                        hasNext = true;
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = false;
+            Object result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
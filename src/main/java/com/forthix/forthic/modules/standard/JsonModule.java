@@ -1,16 +1,30 @@
 package com.forthix.forthic.modules.standard;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import com.forthix.forthic.annotations.Word;
 import com.forthix.forthic.module.DecoratedModule;
 
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
 /**
  * JSON serialization, parsing, and formatting operations.
  *
  * Categories:
  * - Conversion: >JSON, JSON>
  * - Formatting: JSON-PRETTIFY
+ * - Streaming: JSON-ITEMS, JSON-PROJECT, JSON-WRITE, NDJSON-WRITE
  *
  * Examples:
  * {name: "Alice", age: 30} >JSON
@@ -21,11 +35,15 @@ public class JsonModule extends DecoratedModule {
 
     private final ObjectMapper objectMapper;
     private final ObjectMapper prettyMapper;
+    private final ObjectWriter streamWriter;
 
     public JsonModule() {
         super("json");
-        this.objectMapper = new ObjectMapper();
+        // Parsed objects are ShapedRecords, so arrays of uniform objects share their keys
+        this.objectMapper = new ObjectMapper().registerModule(ShapedRecordDeserializer.module());
         this.prettyMapper = new ObjectMapper();
+        // Streaming writes flush once at the end, not after every value
+        this.streamWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
@@ -70,8 +88,300 @@ public class JsonModule extends DecoratedModule {
             return "";
         }
 
-        // Parse then prettify
-        Object obj = objectMapper.readValue(jsonStr, Object.class);
-        return prettyMapper.writerWithDefaultPrettyPrinter().writeValueAsString(obj);
+        // Copy tokens straight from parser to generator rather than building the value
+        StringWriter result = new StringWriter();
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonStr);
+             JsonGenerator generator = prettyMapper.getFactory().createGenerator(result)) {
+            generator.useDefaultPrettyPrinter();
+            if (parser.nextToken() == null) {
+                // As ObjectMapper.readValue reports input with no value
+                throw MismatchedInputException.from(parser, Object.class, "No content to map due to end-of-input");
+            }
+            generator.copyCurrentStructure(parser);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    // ===== Streaming =====
+    //
+    // Sources and sinks are JSON strings or values a host pushes: InputStream, Reader,
+    // Path or File. Streams and readers can only be traversed once and are left open, since
+    // the caller owns them, as it does streams and writers pushed as sinks. Files are
+    // opened for each traversal or write and closed at the end.
+
+    /**
+     * Iterate the elements of a top-level JSON array, or the values of newline-delimited
+     * (or concatenated) JSON, without parsing the whole document.
+     *
+     * A source that starts with an array is read as that one array, so NDJSON values must
+     * not be arrays; values after the array are an error rather than being dropped.
+     */
+    @Word(stackEffect = "( source:any -- items:any )", description = "Lazy sequence of top-level array elements or NDJSON values", name = "JSON-ITEMS")
+    public Seq JSON_ITEMS(Object source) {
+        return items(source, parser -> objectMapper.readValue(parser, Object.class));
+    }
+
+    /**
+     * Like JSON-ITEMS, but only the given fields of each object are materialized; everything
+     * else is skipped by the parser. Paths are field names, with dots for nested fields
+     * ("user.id"), and are the keys of the resulting records. A field and paths below it
+     * may both be requested.
+     */
+    @Word(stackEffect = "( source:any paths:string[] -- records:any )", description = "Lazy sequence of records with only the given field paths", name = "JSON-PROJECT")
+    public Seq JSON_PROJECT(Object source, Object paths) {
+        List<String> fieldPaths = new ArrayList<>();
+        if (paths instanceof Collection) {
+            for (Object path : (Collection<?>) paths) {
+                fieldPaths.add(String.valueOf(path));
+            }
+        } else if (paths != null) {
+            fieldPaths.add(paths.toString());
+        }
+        Projection projection = new Projection(fieldPaths);
+        return items(source, projection::read);
+    }
+
+    @Word(stackEffect = "( items:any sink:any -- )", description = "Write items as a JSON array to a stream, writer or file", name = "JSON-WRITE")
+    public void JSON_WRITE(Object items, Object sink) throws IOException {
+        write(sink, generator -> {
+            if (!(items instanceof Iterable)) {
+                streamWriter.writeValue(generator, items);
+                return;
+            }
+            generator.writeStartArray();
+            for (Object item : (Iterable<?>) items) {
+                streamWriter.writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        });
+    }
+
+    @Word(stackEffect = "( items:any sink:any -- )", description = "Write items as newline-delimited JSON to a stream, writer or file", name = "NDJSON-WRITE")
+    public void NDJSON_WRITE(Object items, Object sink) throws IOException {
+        write(sink, generator -> {
+            Iterable<?> values = items instanceof Iterable ? (Iterable<?>) items : Collections.singletonList(items);
+            generator.setRootValueSeparator(null);
+            for (Object item : values) {
+                streamWriter.writeValue(generator, item);
+                generator.writeRaw('\n');
+            }
+        });
+    }
+
+    // ===== Helper Methods =====
+
+    private interface ValueReader {
+        Object read(JsonParser parser) throws IOException;
+    }
+
+    private interface GeneratorAction {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private Seq items(Object source, ValueReader reader) {
+        if (source instanceof InputStream || source instanceof Reader) {
+            try {
+                return Seq.fromIterator(new ItemCursor(createParser(source), reader));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return Seq.fromCursors(() -> {
+            try {
+                return new ItemCursor(createParser(source), reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private JsonParser createParser(Object source) throws IOException {
+        JsonFactory factory = objectMapper.getFactory();
+        if (source instanceof InputStream) {
+            return factory.createParser((InputStream) source).disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        } else if (source instanceof Reader) {
+            return factory.createParser((Reader) source).disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        } else if (source instanceof Path) {
+            return factory.createParser(Files.newInputStream((Path) source));
+        } else if (source instanceof File) {
+            return factory.createParser(Files.newInputStream(((File) source).toPath()));
+        }
+        return factory.createParser(source == null ? "" : source.toString());
+    }
+
+    private void write(Object sink, GeneratorAction action) throws IOException {
+        JsonFactory factory = objectMapper.getFactory();
+        if (sink instanceof Path || sink instanceof File) {
+            Path path = sink instanceof Path ? (Path) sink : ((File) sink).toPath();
+            try (OutputStream out = Files.newOutputStream(path);
+                 JsonGenerator generator = factory.createGenerator(out)) {
+                action.write(generator);
+            }
+            return;
+        }
+
+        JsonGenerator generator;
+        if (sink instanceof OutputStream) {
+            generator = factory.createGenerator((OutputStream) sink);
+        } else if (sink instanceof Writer) {
+            generator = factory.createGenerator((Writer) sink);
+        } else {
+            throw new IllegalArgumentException("JSON sink must be an OutputStream, Writer, Path or File, not " +
+                (sink == null ? "null" : sink.getClass().getName()));
+        }
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (generator) {
+            action.write(generator);
+        }
+    }
+
+    private static class ItemCursor extends Seq.Cursor {
+        private final JsonParser parser;
+        private final ValueReader reader;
+        private boolean inArray;
+        private boolean started;
+        private boolean done;
+        private Object next;
+        private boolean hasNext;
+
+        ItemCursor(JsonParser parser, ValueReader reader) {
+            this.parser = parser;
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNext || done) {
+                return hasNext;
+            }
+            try {
+                JsonToken token = parser.nextToken();
+                if (!started) {
+                    started = true;
+                    if (token == JsonToken.START_ARRAY) {
+                        inArray = true;
+                        token = parser.nextToken();
+                    }
+                }
+                if (inArray && token == JsonToken.END_ARRAY) {
+                    // A source starting with an array is that array, not NDJSON of arrays
+                    if (parser.nextToken() != null) {
+                        throw new JsonParseException(parser,
+                            "Unexpected value after the top-level array; NDJSON values can't be arrays");
+                    }
+                    token = null;
+                }
+                if (token == null) {
+                    close();
+                    return false;
+                }
+                next = reader.read(parser);
+                hasNext = true;
+                return true;
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = false;
+            Object result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void close() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Reads the requested field paths of an object, skipping everything else
+     */
+    private class Projection {
+        // Path segment tree; a node with a path is a requested field
+        private final Node root = new Node();
+        private final List<String> paths;
+
+        Projection(List<String> paths) {
+            this.paths = paths;
+            for (String path : paths) {
+                Node node = root;
+                for (String segment : path.split("\\.")) {
+                    node = node.children.computeIfAbsent(segment, k -> new Node());
+                }
+                node.path = path;
+            }
+        }
+
+        Object read(JsonParser parser) throws IOException {
+            Map<String, Object> result = new ShapedRecord();
+            for (String path : paths) {
+                result.put(path, null);
+            }
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                readObject(parser, root, result);
+            } else {
+                parser.skipChildren();
+            }
+            return result;
+        }
+
+        private void readObject(JsonParser parser, Node node, Map<String, Object> result) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Node child = node.children.get(parser.getCurrentName());
+                JsonToken value = parser.nextToken();
+                if (child == null) {
+                    parser.skipChildren();
+                } else if (child.path != null) {
+                    Object fieldValue = objectMapper.readValue(parser, Object.class);
+                    result.put(child.path, fieldValue);
+                    // Paths below a requested field come from the value just read
+                    fillSubpaths(fieldValue, child, result);
+                } else if (value == JsonToken.START_OBJECT) {
+                    readObject(parser, child, result);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private void fillSubpaths(Object value, Node node, Map<String, Object> result) {
+            if (!(value instanceof Map)) {
+                return;
+            }
+            Map<?, ?> map = (Map<?, ?>) value;
+            for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+                Node child = entry.getValue();
+                Object childValue = map.get(entry.getKey());
+                if (child.path != null) {
+                    result.put(child.path, childValue);
+                }
+                fillSubpaths(childValue, child, result);
+            }
+        }
+    }
+
+    private static class Node {
+        final Map<String, Node> children = new HashMap<>();
+        String path;
     }
 }
@@ -0,0 +1,200 @@
+package com.forthix.forthic.modules.standard;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads newline-separated records from a memory-mapped file, for IoModule.
+ *
+ * The file is mapped in windows, so files of any size can be read without loading them
+ * onto the heap. Records are found by scanning the mapped bytes and decoded from them
+ * directly; only the bytes of the current record are copied, into a reused scratch array.
+ * Text is UTF-8 (or ASCII).
+ */
+class MappedFileReader implements AutoCloseable {
+    static final long WINDOW_SIZE = 256L << 20;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long windowSize;
+    private MappedByteBuffer buffer;
+    private long windowStart;
+    private int pos;
+    private byte[] scratch;
+
+    // Current record is buffer[recordStart, recordEnd), without its line ending
+    private int recordStart;
+    private int recordEnd;
+    private long recordNumber;
+
+    MappedFileReader(Path path, long windowSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        this.scratch = new byte[256];
+        map(0, windowSize);
+    }
+
+    MappedFileReader(Path path) throws IOException {
+        this(path, WINDOW_SIZE);
+    }
+
+    private void map(long start, long size) throws IOException {
+        size = Math.min(Math.min(size, fileSize - start), Integer.MAX_VALUE);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        windowStart = start;
+        pos = 0;
+    }
+
+    /**
+     * Move to the next record.
+     *
+     * @param quoted Treat newlines inside double quotes as part of the record (CSV)
+     * @return false at end of file
+     */
+    boolean nextRecord(boolean quoted) throws IOException {
+        while (true) {
+            int limit = buffer.limit();
+            boolean atLastWindow = windowStart + limit >= fileSize;
+            if (pos >= limit && atLastWindow) {
+                return false;
+            }
+
+            boolean inQuotes = false;
+            for (int i = pos; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b == '"' && quoted) {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    setRecord(i, i + 1);
+                    return true;
+                }
+            }
+
+            if (atLastWindow) {
+                // Last record has no newline
+                setRecord(limit, limit);
+                return true;
+            }
+
+            // The record runs past this window, so map a new one starting at the record
+            long size = Math.max(windowSize, 2L * (limit - pos));
+            if (Math.min(size, Integer.MAX_VALUE) <= limit - pos) {
+                throw new IOException("Record " + (recordNumber + 1) + " is too long");
+            }
+            map(windowStart + pos, size);
+        }
+    }
+
+    private void setRecord(int end, int next) {
+        recordStart = pos;
+        recordEnd = end;
+        if (recordEnd > recordStart && buffer.get(recordEnd - 1) == '\r') {
+            recordEnd--;
+        }
+        pos = next;
+        recordNumber++;
+    }
+
+    boolean isBlank() {
+        for (int i = recordStart; i < recordEnd; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of the current record (starting at 1)
+     */
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    String recordString() {
+        return string(recordStart, recordEnd);
+    }
+
+    /**
+     * Copy the current record's bytes into the scratch array, which is returned.
+     * Valid until the next call; the record is bytes [0, recordLength()).
+     */
+    byte[] recordBytes() {
+        int length = recordLength();
+        byte[] bytes = scratch(length);
+        buffer.get(recordStart, bytes, 0, length);
+        return bytes;
+    }
+
+    int recordLength() {
+        return recordEnd - recordStart;
+    }
+
+    /**
+     * Split the current record into CSV fields (RFC 4180 quoting)
+     */
+    List<Object> csvFields() {
+        List<Object> fields = new ArrayList<>();
+        int end = recordEnd;
+        int i = recordStart;
+        while (true) {
+            if (i < end && buffer.get(i) == '"') {
+                byte[] bytes = scratch(end - i);
+                int length = 0;
+                i++;
+                while (i < end) {
+                    byte b = buffer.get(i++);
+                    if (b == '"') {
+                        if (i < end && buffer.get(i) == '"') {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    bytes[length++] = b;
+                }
+                fields.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+                while (i < end && buffer.get(i) != ',') {
+                    i++;
+                }
+            } else {
+                int start = i;
+                while (i < end && buffer.get(i) != ',') {
+                    i++;
+                }
+                fields.add(string(start, i));
+            }
+            if (i >= end) {
+                return fields;
+            }
+            i++; // Skip comma
+        }
+    }
+
+    private String string(int start, int end) {
+        int length = end - start;
+        byte[] bytes = scratch(length);
+        buffer.get(start, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
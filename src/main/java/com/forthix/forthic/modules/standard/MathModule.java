@@ -3,6 +3,7 @@ package com.forthix.forthic.modules.standard;
 import com.forthix.forthic.annotations.Word;
 import com.forthix.forthic.interpreter.BareInterpreter;
 import com.forthix.forthic.module.DecoratedModule;
+import com.forthix.forthic.module.ForthicStack;
 
 import java.util.*;
 
@@ -29,6 +30,14 @@ public class MathModule extends DecoratedModule {
 
     public MathModule() {
         super("math");
+        addNumericPath("-", MathModule::minusNumbers);
+        addNumericPath("SUBTRACT", MathModule::minusNumbers);
+        addNumericPath("/", MathModule::divideNumbers);
+        addNumericPath("DIVIDE", MathModule::divideNumbers);
+        addNumericPath("MOD", stack -> {
+            double n = stack.popDouble();
+            stack.pushDouble(stack.popDouble() % n);
+        });
     }
 
     // ===== Arithmetic Operations =====
@@ -42,9 +51,20 @@ public class MathModule extends DecoratedModule {
           name = "+",
           isDirect = true)
     public void plus(BareInterpreter interp) {
+        ForthicStack stack = interp.getStack();
+        if (stack.hasNumbers(2)) {
+            double b = stack.popDouble();
+            stack.pushDouble(stack.popDouble() + b);
+            return;
+        }
+
         Object b = interp.stackPop();
 
         // Case 1: Array on top of stack
+        if (isNumericColumn(b)) {
+            interp.stackPush(((Table.Column) b).sum());
+            return;
+        }
         if (b instanceof List) {
             double result = 0;
             for (Object num : (List<?>) b) {
@@ -99,6 +119,13 @@ public class MathModule extends DecoratedModule {
           name = "*",
           isDirect = true)
     public void times(BareInterpreter interp) {
+        ForthicStack stack = interp.getStack();
+        if (stack.hasNumbers(2)) {
+            double b = stack.popDouble();
+            stack.pushDouble(stack.popDouble() * b);
+            return;
+        }
+
         Object b = interp.stackPop();
 
         // Case 1: Array on top of stack
@@ -163,6 +190,23 @@ public class MathModule extends DecoratedModule {
         return toDouble(m) % toDouble(n);
     }
 
+    // Numeric paths for - and /, used when both inputs are numbers
+
+    private static void minusNumbers(ForthicStack stack) {
+        double b = stack.popDouble();
+        stack.pushDouble(stack.popDouble() - b);
+    }
+
+    private static void divideNumbers(ForthicStack stack) {
+        double divisor = stack.popDouble();
+        double dividend = stack.popDouble();
+        if (divisor == 0) {
+            stack.push(null);
+        } else {
+            stack.pushDouble(dividend / divisor);
+        }
+    }
+
     // ===== Aggregate Operations =====
 
     @Word(stackEffect = "( items:any[] -- mean:any )", description = "Calculate mean of array")
@@ -185,6 +229,12 @@ public class MathModule extends DecoratedModule {
             return list.get(0);
         }
 
+        if (isNumericColumn(list)) {
+            Table.Column column = (Table.Column) list;
+            int count = column.count();
+            return count == 0 ? (Object) 0 : (Object) (column.sum() / count);
+        }
+
         // Filter out null values
         List<Object> filtered = new ArrayList<>();
         for (Object item : list) {
@@ -245,6 +295,10 @@ public class MathModule extends DecoratedModule {
                 interp.stackPush(null);
                 return;
             }
+            if (isNumericColumn(list)) {
+                interp.stackPush(((Table.Column) list).max());
+                return;
+            }
 
             double max = Double.NEGATIVE_INFINITY;
             for (Object item : list) {
@@ -279,6 +333,10 @@ public class MathModule extends DecoratedModule {
                 interp.stackPush(null);
                 return;
             }
+            if (isNumericColumn(list)) {
+                interp.stackPush(((Table.Column) list).min());
+                return;
+            }
 
             double min = Double.POSITIVE_INFINITY;
             for (Object item : list) {
@@ -300,6 +358,9 @@ public class MathModule extends DecoratedModule {
         if (numbers == null || !(numbers instanceof List)) {
             return 0.0;
         }
+        if (isNumericColumn(numbers)) {
+            return ((Table.Column) numbers).sum();
+        }
 
         double result = 0;
         for (Object num : (List<?>) numbers) {
@@ -439,6 +500,13 @@ public class MathModule extends DecoratedModule {
 
     // ===== Helper Methods =====
 
+    /**
+     * Table column whose values can be aggregated without boxing
+     */
+    private static boolean isNumericColumn(Object value) {
+        return value instanceof Table.Column && ((Table.Column) value).isNumeric();
+    }
+
     /**
      * Convert object to double, handling various types
      */
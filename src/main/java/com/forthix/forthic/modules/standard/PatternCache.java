@@ -0,0 +1,49 @@
+package com.forthix.forthic.modules.standard;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled regex patterns, shared by all interpreters.
+ *
+ * Words like RE-MATCH run once per item inside MAP and SELECT, usually with the same
+ * pattern, so patterns are compiled once and reused. The cache holds at most MAX_SIZE
+ * patterns; when it's full an arbitrary entry is dropped to make room.
+ */
+final class PatternCache {
+    static final int MAX_SIZE = 512;
+
+    private static final Map<String, Pattern> patterns = new ConcurrentHashMap<>();
+
+    private PatternCache() {
+    }
+
+    /**
+     * Compiled pattern for a regex
+     *
+     * @throws PatternSyntaxException If the regex is invalid (invalid regexes aren't cached)
+     */
+    static Pattern get(String regex) {
+        Pattern pattern = patterns.get(regex);
+        if (pattern != null) {
+            return pattern;
+        }
+        pattern = Pattern.compile(regex);
+        if (patterns.size() >= MAX_SIZE) {
+            Iterator<String> keys = patterns.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        patterns.put(regex, pattern);
+        return pattern;
+    }
+
+    static int size() {
+        return patterns.size();
+    }
+}
@@ -0,0 +1,392 @@
+package com.forthix.forthic.modules.standard;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable record that update words change by returning a new version.
+ *
+ * Entries are kept in a hash array mapped trie: each node holds up to 32 entries or
+ * subnodes, picked by 5 bits of the key's hash and packed by a bitmap. A new version
+ * copies only the nodes on the path to the key it changes and shares the rest with the
+ * old version, so setting or deleting a field costs O(log32 n) rather than a copy of
+ * the record.
+ *
+ * Keys iterate in insertion order, as in other records: a PersistentVector holds the keys
+ * in the order they were added, and each trie entry records its key's position there.
+ * Deleting a key leaves a hole in the vector, and the vector is rebuilt once holes
+ * outnumber keys.
+ *
+ * Read it like any Map (keys are strings, null values are allowed); Map's mutators throw
+ * UnsupportedOperationException. Versions are never changed once made, so they can be
+ * shared across threads.
+ */
+public final class PersistentMap extends AbstractMap<String, Object> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object NOT_FOUND = new Object();
+
+    public static final PersistentMap EMPTY = new PersistentMap(BitmapNode.EMPTY, 0, PersistentVector.EMPTY);
+
+    private final Node root;
+    private final int size;
+    // Keys in insertion order, with null where a key was deleted
+    private final PersistentVector keys;
+    private Set<Map.Entry<String, Object>> entrySet;
+
+    private PersistentMap(Node root, int size, PersistentVector keys) {
+        this.root = root;
+        this.size = size;
+        this.keys = keys;
+    }
+
+    // Trie value: a key's value and its position in keys
+    private static final class Slot {
+        final int order;
+        final Object value;
+
+        Slot(int order, Object value) {
+            this.order = order;
+            this.value = value;
+        }
+    }
+
+    public static PersistentMap from(Map<?, ?> map) {
+        if (map instanceof PersistentMap) {
+            return (PersistentMap) map;
+        }
+        PersistentMap result = EMPTY;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            result = result.with(entry.getKey() == null ? "" : entry.getKey().toString(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        Object slot = root.find(0, hash((String) key), (String) key);
+        return slot == NOT_FOUND ? null : ((Slot) slot).value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && root.find(0, hash((String) key), (String) key) != NOT_FOUND;
+    }
+
+    /**
+     * A version with key set to value
+     */
+    public PersistentMap with(String key, Object value) {
+        int hash = hash(key);
+        Object found = root.find(0, hash, key);
+        boolean[] added = new boolean[1];
+        if (found != NOT_FOUND) {
+            Slot slot = (Slot) found;
+            if (slot.value == value) {
+                return this;
+            }
+            return new PersistentMap(root.with(0, hash, key, new Slot(slot.order, value), added), size, keys);
+        }
+        Node newRoot = root.with(0, hash, key, new Slot(keys.size(), value), added);
+        return new PersistentMap(newRoot, size + 1, keys.append(key));
+    }
+
+    /**
+     * A version without key
+     */
+    public PersistentMap without(String key) {
+        int hash = hash(key);
+        Object found = root.find(0, hash, key);
+        if (found == NOT_FOUND) {
+            return this;
+        }
+        Node newRoot = root.without(0, hash, key);
+        PersistentMap result = new PersistentMap(newRoot == null ? BitmapNode.EMPTY : newRoot, size - 1,
+            removeKey(((Slot) found).order));
+        return result.keys.size() > 2 * result.size + 32 ? result.compacted() : result;
+    }
+
+    private PersistentVector removeKey(int order) {
+        if (order < keys.size() - 1) {
+            return keys.with(order, null);
+        }
+        PersistentVector result = keys.withoutLast();
+        while (result.size() > 0 && result.get(result.size() - 1) == null) {
+            result = result.withoutLast();
+        }
+        return result;
+    }
+
+    // Same entries, re-added so keys has no holes
+    private PersistentMap compacted() {
+        PersistentMap result = EMPTY;
+        for (Map.Entry<String, Object> entry : entrySet()) {
+            result = result.with(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private static int hash(String key) {
+        // Spread high bits down, as HashMap does
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // ===== Trie Nodes =====
+
+    private abstract static class Node {
+        /**
+         * Value for key, or NOT_FOUND
+         */
+        abstract Object find(int shift, int hash, String key);
+
+        /**
+         * Node with key set (this node if nothing changes); added[0] is set if key is new
+         */
+        abstract Node with(int shift, int hash, String key, Object value, boolean[] added);
+
+        /**
+         * Node without key (this node if key is absent), or null if it would be empty
+         */
+        abstract Node without(int shift, int hash, String key);
+    }
+
+    // Entries and subnodes packed by a bitmap of the 32 hash-bit positions in use;
+    // array holds key/value pairs, with a null key and a Node value for a subnode
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, String key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node with(int shift, int hash, String key, Object value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int i = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                newArray[i] = key;
+                newArray[i + 1] = value;
+                System.arraycopy(array, i, newArray, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).with(shift + BITS, hash, key, value, added);
+                return child == v ? this : withSlot(i, null, child);
+            }
+            if (key.equals(k)) {
+                return v == value ? this : withSlot(i, k, value);
+            }
+            // Another key in this slot: move both down a level
+            added[0] = true;
+            Node child = pair(shift + BITS, hash((String) k), (String) k, v, hash, key, value);
+            return withSlot(i, null, child);
+        }
+
+        @Override
+        Node without(int shift, int hash, String key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                Node child = (Node) array[i + 1];
+                Node newChild = child.without(shift + BITS, hash, key);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild != null) {
+                    return withSlot(i, null, newChild);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new BitmapNode(bitmap & ~bit, newArray);
+        }
+
+        private BitmapNode withSlot(int i, Object key, Object value) {
+            Object[] newArray = array.clone();
+            newArray[i] = key;
+            newArray[i + 1] = value;
+            return new BitmapNode(bitmap, newArray);
+        }
+    }
+
+    // Keys whose hashes are equal
+    private static final class CollisionNode extends Node {
+        final int hash;
+        final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, String key) {
+            int i = indexOf(key);
+            return i < 0 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        Node with(int shift, int hash, String key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // Nest this node under a bitmap node that tells the hashes apart
+                BitmapNode parent = new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[] {null, this});
+                return parent.with(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                Object[] newArray = array.clone();
+                newArray[i + 1] = value;
+                return new CollisionNode(hash, newArray);
+            }
+            Object[] newArray = Arrays.copyOf(array, array.length + 2);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node without(int shift, int hash, String key) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new CollisionNode(hash, newArray);
+        }
+    }
+
+    // Node holding two entries whose keys differ
+    private static Node pair(int shift, int hash1, String key1, Object value1, int hash2, String key2, Object value2) {
+        if (hash1 == hash2) {
+            return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+        }
+        boolean[] added = new boolean[1];
+        return BitmapNode.EMPTY
+            .with(shift, hash1, key1, value1, added)
+            .with(shift, hash2, key2, value2, added);
+    }
+
+    // Walk over keys in insertion order, skipping deleted keys
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        private final Iterator<Object> keyIterator = keys.iterator();
+        private Map.Entry<String, Object> next;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (keyIterator.hasNext()) {
+                String key = (String) keyIterator.next();
+                if (key != null) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(key, get(key));
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Object> result = next;
+            advance();
+            return result;
+        }
+    }
+}
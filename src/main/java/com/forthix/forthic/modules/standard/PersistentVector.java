@@ -0,0 +1,248 @@
+package com.forthix.forthic.modules.standard;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable array that update words change by returning a new version.
+ *
+ * Items are kept in a tree of 32-item nodes with the last (up to 32) items in a separate
+ * tail. A new version copies only the path to the item it changes and shares the rest of
+ * the tree with the old version, so APPEND and setting an item cost O(log32 n) rather than
+ * a copy of the array. Removing any item but the last copies the array.
+ *
+ * Read it like any List; List's mutators throw UnsupportedOperationException. Versions are
+ * never changed once made, so they can be shared across threads.
+ */
+public final class PersistentVector extends AbstractList<Object> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+
+    public static final PersistentVector EMPTY = new PersistentVector(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    public static PersistentVector from(Collection<?> items) {
+        if (items instanceof PersistentVector) {
+            return (PersistentVector) items;
+        }
+        PersistentVector result = EMPTY;
+        for (Object item : items) {
+            result = result.append(item);
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return leafFor(index)[index & MASK];
+    }
+
+    /**
+     * A version with an item added at the end
+     */
+    public PersistentVector append(Object item) {
+        int tailLength = size - tailOffset();
+        if (tailLength < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tailLength + 1);
+            newTail[tailLength] = item;
+            return new PersistentVector(size + 1, shift, root, newTail);
+        }
+
+        // Tail is full: push it into the tree, growing the tree a level if it's full too
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector(size + 1, newShift, newRoot, new Object[] {item});
+    }
+
+    /**
+     * A version with the item at index replaced
+     */
+    public PersistentVector with(int index, Object item) {
+        if (index == size) {
+            return append(item);
+        }
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = item;
+            return new PersistentVector(size, shift, root, newTail);
+        }
+        return new PersistentVector(size, shift, assoc(shift, root, index, item), tail);
+    }
+
+    /**
+     * A version without the item at index
+     */
+    public PersistentVector without(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        if (index == size - 1) {
+            return withoutLast();
+        }
+        PersistentVector result = EMPTY;
+        for (int i = 0; i < size; i++) {
+            if (i != index) {
+                result = result.append(get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A version without the last item
+     */
+    public PersistentVector withoutLast() {
+        if (size == 0) {
+            throw new IllegalStateException("Can't remove from an empty vector");
+        }
+        if (size == 1) {
+            return EMPTY;
+        }
+        if (size - tailOffset() > 1) {
+            return new PersistentVector(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+
+        // Tail becomes empty: the last leaf of the tree becomes the tail
+        Object[] newTail = leafFor(size - 2);
+        Object[] newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null) {
+            newRoot = EMPTY_NODE;
+        }
+        if (shift > BITS && newRoot[1] == null) {
+            newRoot = (Object[]) newRoot[0];
+            newShift -= BITS;
+        }
+        return new PersistentVector(size - 1, newShift, newRoot, newTail);
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<>() {
+            private int index;
+            private Object[] leaf;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Object next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if ((index & MASK) == 0 || leaf == null) {
+                    leaf = leafFor(index);
+                }
+                return leaf[index++ & MASK];
+            }
+        };
+    }
+
+    // ===== Helper Methods =====
+
+    // Index of the first item in the tail
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] result = parent.clone();
+        if (level == BITS) {
+            result[subIndex] = tailNode;
+        } else {
+            Object[] child = (Object[]) parent[subIndex];
+            result[subIndex] = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+        return result;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] result = new Object[WIDTH];
+        result[0] = newPath(level - BITS, node);
+        return result;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object item) {
+        Object[] result = node.clone();
+        if (level == 0) {
+            result[index & MASK] = item;
+        } else {
+            int subIndex = (index >>> level) & MASK;
+            result[subIndex] = assoc(level - BITS, (Object[]) node[subIndex], index, item);
+        }
+        return result;
+    }
+
+    // Parent without its last leaf, or null if that leaves it empty
+    private Object[] popTail(int level, Object[] node) {
+        int subIndex = ((size - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Object[] newChild = popTail(level - BITS, (Object[]) node[subIndex]);
+            if (newChild == null && subIndex == 0) {
+                return null;
+            }
+            Object[] result = node.clone();
+            result[subIndex] = newChild;
+            return result;
+        }
+        if (subIndex == 0) {
+            return null;
+        }
+        Object[] result = node.clone();
+        result[subIndex] = null;
+        return result;
+    }
+}
@@ -10,8 +10,12 @@ import java.util.*;
  *
  * Categories:
  * - Core: REC, REC@, |REC@, <REC!
- * - Transform: RELABEL, INVERT-KEYS, REC-DEFAULTS, <DEL
+ * - Transform: RELABEL, INVERT-KEYS, REC-DEFAULTS, <DEL, >PERSISTENT
  * - Access: KEYS, VALUES
+ *
+ * Records made here are ShapedRecords: records with the same keys share one key layout.
+ * &lt;REC!, REC-DEFAULTS and &lt;DEL change records in place, except persistent records
+ * and arrays (see >PERSISTENT), which they return new versions of.
  */
 public class RecordModule extends DecoratedModule {
 
@@ -25,7 +29,8 @@ public class RecordModule extends DecoratedModule {
     public Map<String, Object> REC(Object key_vals) {
         List<?> pairs = key_vals == null ? new ArrayList<>() : (List<?>) key_vals;
 
-        Map<String, Object> result = new LinkedHashMap<>();
+        // Records made by the same REC share their key layout
+        Map<String, Object> result = new ShapedRecord();
         for (Object pair : pairs) {
             if (pair instanceof List) {
                 List<?> pairList = (List<?>) pair;
@@ -46,65 +51,54 @@ public class RecordModule extends DecoratedModule {
             return null;
         }
 
-        List<String> fields;
-        if (field instanceof List) {
-            // Array of fields - drill down
-            fields = new ArrayList<>();
-            for (Object f : (List<?>) field) {
-                fields.add(f == null ? "" : f.toString());
-            }
-        } else {
-            // Single field
-            fields = List.of(field == null ? "" : field.toString());
+        // Single field of a shaped record: the shape caches the field's slot
+        if (rec instanceof ShapedRecord && field instanceof String) {
+            return ((ShapedRecord) rec).get(field);
         }
 
-        return drillForValue(rec, fields);
+        return drillForValue(rec, toFields(field));
     }
 
     @Word(stackEffect = "( records:any field:any -- values:any )", description = "Map REC@ over array of records", name = "|REC@")
-    public void pipe_REC_at(Object records, Object field) throws Exception {
-        // This word uses the interpreter to execute MAP
-        // Push records and execute: 'field REC@' MAP
-        getInterp().stackPush(records);
-
-        // Build the Forthic code to execute
-        // We need to properly quote the field if it's an array or string
-        String fieldCode;
-        if (field instanceof List) {
-            // Convert list to Forthic array literal
-            StringBuilder sb = new StringBuilder("[");
-            List<?> fieldList = (List<?>) field;
-            for (int i = 0; i < fieldList.size(); i++) {
-                if (i > 0) sb.append(" ");
-                Object f = fieldList.get(i);
-                sb.append("\"").append(f == null ? "" : f.toString()).append("\"");
-            }
-            sb.append("]");
-            fieldCode = sb.toString();
-        } else {
-            // Single field
-            fieldCode = "\"" + (field == null ? "" : field.toString()) + "\"";
+    public Object pipe_REC_at(Object records, Object field) {
+        // A table field is a column
+        if (records instanceof Table && field instanceof String) {
+            Table.Column column = ((Table) records).column((String) field);
+            return column != null ? column : new ArrayList<>(Collections.nCopies(((Table) records).size(), null));
         }
 
-        getInterp().run("'" + fieldCode + " REC@' MAP");
-        // Result is left on stack by MAP
+        FieldPath path = new FieldPath(toFields(field));
+        if (records instanceof Seq) {
+            return ((Seq) records).map(path::get);
+        } else if (records instanceof List) {
+            List<?> list = (List<?>) records;
+            List<Object> result = new ArrayList<>(list.size());
+            for (Object rec : list) {
+                result.add(path.get(rec));
+            }
+            return result;
+        } else if (records instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) records;
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                result.put(entry.getKey(), path.get(entry.getValue()));
+            }
+            return result;
+        }
+        return new ArrayList<>();
     }
 
     @Word(stackEffect = "( rec:any value:any field:any -- rec:any )", description = "Set value in record at field path", name = "<REC!")
     public Map<String, Object> l_REC_bang(Object rec, Object value, Object field) {
-        @SuppressWarnings("unchecked")
-        Map<String, Object> record = rec == null ? new LinkedHashMap<>() : (Map<String, Object>) rec;
-
-        List<String> fields;
-        if (field instanceof List) {
-            fields = new ArrayList<>();
-            for (Object f : (List<?>) field) {
-                fields.add(f == null ? "" : f.toString());
-            }
-        } else {
-            fields = List.of(field == null ? "" : field.toString());
+        List<String> fields = toFields(field);
+        if (rec instanceof PersistentMap) {
+            return setPersistent((PersistentMap) rec, fields, 0, value);
         }
 
+        @SuppressWarnings("unchecked")
+        Map<String, Object> record = rec == null ? new ShapedRecord() : (Map<String, Object>) rec;
+
         // Drill down, creating nested maps as needed
         @SuppressWarnings("unchecked")
         Map<String, Object> curRec = record;
@@ -112,7 +106,7 @@ public class RecordModule extends DecoratedModule {
             String fieldName = fields.get(i);
             Object existing = curRec.get(fieldName);
             if (!(existing instanceof Map)) {
-                existing = new LinkedHashMap<String, Object>();
+                existing = new ShapedRecord();
                 curRec.put(fieldName, existing);
             }
             @SuppressWarnings("unchecked")
@@ -174,7 +168,7 @@ public class RecordModule extends DecoratedModule {
             // For records, create new record with renamed keys
             @SuppressWarnings("unchecked")
             Map<String, Object> containerMap = (Map<String, Object>) container;
-            Map<String, Object> result = new LinkedHashMap<>();
+            Map<String, Object> result = new ShapedRecord();
 
             for (Map.Entry<String, String> entry : newToOld.entrySet()) {
                 String newKey = entry.getKey();
@@ -217,6 +211,7 @@ public class RecordModule extends DecoratedModule {
         @SuppressWarnings("unchecked")
         Map<String, Object> recordMap = (Map<String, Object>) record;
         List<?> keyValsList = (List<?>) key_vals;
+        PersistentMap persistent = record instanceof PersistentMap ? (PersistentMap) record : null;
 
         for (Object keyVal : keyValsList) {
             if (keyVal instanceof List) {
@@ -227,7 +222,12 @@ public class RecordModule extends DecoratedModule {
 
                     // Set default if value is undefined, null, or empty string
                     if (value == null || (value instanceof String && ((String) value).isEmpty())) {
-                        recordMap.put(key, pair.get(1));
+                        if (persistent != null) {
+                            persistent = persistent.with(key, pair.get(1));
+                            recordMap = persistent;
+                        } else {
+                            recordMap.put(key, pair.get(1));
+                        }
                     }
                 }
             }
@@ -242,7 +242,13 @@ public class RecordModule extends DecoratedModule {
             return null;
         }
 
-        if (container instanceof List) {
+        if (container instanceof PersistentVector) {
+            PersistentVector vector = (PersistentVector) container;
+            int index = ((Number) key).intValue();
+            return index >= 0 && index < vector.size() ? vector.without(index) : vector;
+        } else if (container instanceof PersistentMap) {
+            return ((PersistentMap) container).without(key == null ? "" : key.toString());
+        } else if (container instanceof List) {
             List<?> list = (List<?>) container;
             int index = ((Number) key).intValue();
             if (index >= 0 && index < list.size()) {
@@ -260,6 +266,19 @@ public class RecordModule extends DecoratedModule {
         }
     }
 
+    @Word(stackEffect = "( container:any -- container:any )",
+          description = "Persistent copy of an array or record: update words return new versions of it instead of changing it",
+          name = ">PERSISTENT")
+    public Object to_PERSISTENT(Object container) {
+        if (container instanceof Map) {
+            return PersistentMap.from((Map<?, ?>) container);
+        }
+        if (container instanceof Collection) {
+            return PersistentVector.from((Collection<?>) container);
+        }
+        return container;
+    }
+
     // ===== Access Operations =====
 
     @Word(stackEffect = "( container:any -- keys:any[] )", description = "Get keys from record or indices from array")
@@ -303,6 +322,96 @@ public class RecordModule extends DecoratedModule {
 
     // ===== Helper Methods =====
 
+    // New version of rec with the value at fields[index..] set; missing or non-record
+    // levels become persistent records
+    private static PersistentMap setPersistent(PersistentMap rec, List<String> fields, int index, Object value) {
+        String fieldName = fields.get(index);
+        if (index == fields.size() - 1) {
+            return rec.with(fieldName, value);
+        }
+        Object existing = rec.get(fieldName);
+        PersistentMap child = existing instanceof Map ? PersistentMap.from((Map<?, ?>) existing) : PersistentMap.EMPTY;
+        return rec.with(fieldName, setPersistent(child, fields, index + 1, value));
+    }
+
+    /**
+     * Field path from a field or array of fields
+     */
+    private static List<String> toFields(Object field) {
+        if (field instanceof List) {
+            List<String> fields = new ArrayList<>();
+            for (Object f : (List<?>) field) {
+                fields.add(f == null ? "" : f.toString());
+            }
+            return fields;
+        }
+        return List.of(field == null ? "" : field.toString());
+    }
+
+    /**
+     * Field path resolved once for reading it from many records, as drillForValue does.
+     *
+     * Each level remembers the slot of its field in the last ShapedRecord shape it saw, so
+     * records sharing a layout are read without looking the field up.
+     */
+    private static final class FieldPath {
+        private final String[] fields;
+        // List index for each field; -1 when it isn't one
+        private final int[] indexes;
+        private final CachedSlot[] slots;
+
+        private static final class CachedSlot {
+            final RecordShape shape;
+            final int slot;
+
+            CachedSlot(RecordShape shape, int slot) {
+                this.shape = shape;
+                this.slot = slot;
+            }
+        }
+
+        FieldPath(List<String> fields) {
+            this.fields = fields.toArray(new String[0]);
+            this.indexes = new int[this.fields.length];
+            this.slots = new CachedSlot[this.fields.length];
+            for (int i = 0; i < this.fields.length; i++) {
+                try {
+                    indexes[i] = Integer.parseInt(this.fields[i]);
+                } catch (NumberFormatException e) {
+                    indexes[i] = -1;
+                }
+            }
+        }
+
+        Object get(Object record) {
+            Object result = record;
+            for (int i = 0; i < fields.length; i++) {
+                if (result instanceof ShapedRecord && ((ShapedRecord) result).getShape() != null) {
+                    ShapedRecord rec = (ShapedRecord) result;
+                    RecordShape shape = rec.getShape();
+                    CachedSlot cached = slots[i];
+                    if (cached == null || cached.shape != shape) {
+                        cached = new CachedSlot(shape, shape.indexOf(fields[i]));
+                        slots[i] = cached;
+                    }
+                    result = cached.slot < 0 ? null : rec.valueAt(cached.slot);
+                } else if (result instanceof Map) {
+                    result = ((Map<?, ?>) result).get(fields[i]);
+                } else if (result instanceof List) {
+                    List<?> list = (List<?>) result;
+                    int index = indexes[i];
+                    if (index < 0 || index >= list.size()) {
+                        return null;
+                    }
+                    result = list.get(index);
+                } else {
+                    return null;
+                }
+            }
+            return result;
+        }
+    }
+
     /**
      * Drill down into nested record/array structure
      * @param record The record/array to drill into
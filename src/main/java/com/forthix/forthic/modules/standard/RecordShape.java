@@ -0,0 +1,159 @@
+package com.forthix.forthic.modules.standard;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Key layout shared by ShapedRecords with the same keys in the same order.
+ *
+ * Shapes form a tree of transitions from {@link #EMPTY}: adding key k to shape S always
+ * gives the same shape, so records built the same way (rows of a JSON array, records
+ * made by the same REC) share one shape and store only their values.
+ *
+ * A shape holds its parent strongly and its cached children weakly, so a branch of the
+ * tree lives only as long as some record uses it.
+ */
+public final class RecordShape {
+    public static final RecordShape EMPTY = new RecordShape(null, new String[0], true);
+
+    // Shapes with more keys than this look keys up through a hash table
+    private static final int INDEX_THRESHOLD = 8;
+
+    // Limit on cached transitions per shape, so records with data-dependent keys can't
+    // fan the tree out without bound; past it, new shapes still work but aren't shared
+    private static final int MAX_TRANSITIONS = 64;
+
+    // Keeps the path from EMPTY alive while this shape is in use, so its records still share it
+    @SuppressWarnings("unused")
+    private final RecordShape parent;
+    private final String[] keys;
+    private final Map<String, Integer> index;
+    // Null for shapes whose children aren't cached: large shapes and one-off shapes
+    private final Map<String, WeakReference<RecordShape>> transitions;
+    private volatile Lookup lastLookup;
+
+    private static class Lookup {
+        final Object key;
+        final int slot;
+
+        Lookup(Object key, int slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+    }
+
+    private RecordShape(RecordShape parent, String[] keys, boolean shared) {
+        this.parent = parent;
+        this.keys = keys;
+        this.transitions = shared && keys.length < ShapedRecord.MAX_SHAPED_KEYS ? new ConcurrentHashMap<>() : null;
+        if (keys.length > INDEX_THRESHOLD) {
+            index = new HashMap<>(keys.length * 2);
+            for (int i = 0; i < keys.length; i++) {
+                index.put(keys[i], i);
+            }
+        } else {
+            index = null;
+        }
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String key(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Slot of a key, or -1.
+     *
+     * The last key looked up is remembered, so reading the same field from many records
+     * of this shape (as REC@ in a MAP does) skips the search.
+     */
+    public int indexOf(Object key) {
+        Lookup last = lastLookup;
+        if (last != null && last.key == key) {
+            return last.slot;
+        }
+        int slot = find(key);
+        if (slot >= 0) {
+            lastLookup = new Lookup(key, slot);
+        }
+        return slot;
+    }
+
+    private int find(Object key) {
+        if (index != null) {
+            Integer slot = index.get(key);
+            return slot == null ? -1 : slot;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Shape with a key added at the end. The key must not already be in this shape.
+     */
+    public RecordShape with(String key) {
+        if (transitions == null) {
+            return newChild(key, false);
+        }
+        WeakReference<RecordShape> ref = transitions.get(key);
+        RecordShape result = ref == null ? null : ref.get();
+        if (result != null) {
+            return result;
+        }
+        if (transitions.size() >= MAX_TRANSITIONS) {
+            transitions.values().removeIf(r -> r.get() == null);
+            if (transitions.size() >= MAX_TRANSITIONS) {
+                return newChild(key, false);
+            }
+        }
+        result = newChild(key, true);
+        WeakReference<RecordShape> newRef = new WeakReference<>(result);
+        while (true) {
+            WeakReference<RecordShape> existingRef = transitions.putIfAbsent(key, newRef);
+            if (existingRef == null) {
+                return result;
+            }
+            RecordShape existing = existingRef.get();
+            if (existing != null) {
+                return existing;
+            }
+            if (transitions.replace(key, existingRef, newRef)) {
+                return result;
+            }
+        }
+    }
+
+    private RecordShape newChild(String key, boolean shared) {
+        String[] newKeys = new String[keys.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, keys.length);
+        newKeys[keys.length] = key;
+        return new RecordShape(this, newKeys, shared);
+    }
+
+    /**
+     * Shape with the key at a slot removed; later keys move down one slot
+     */
+    public RecordShape without(int slot) {
+        RecordShape result = EMPTY;
+        for (int i = 0; i < keys.length; i++) {
+            if (i != slot) {
+                result = result.with(keys[i]);
+            }
+        }
+        return result;
+    }
+}
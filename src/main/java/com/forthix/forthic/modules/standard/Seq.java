@@ -0,0 +1,422 @@
+package com.forthix.forthic.modules.standard;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Lazy sequence of values, created with >SEQ.
+ *
+ * MAP, SELECT, TAKE, DROP, FLATTEN and UNIQUE on a Seq return a new Seq instead of a list.
+ * Stages are fused: traversing the result pulls each item through all of them in one pass,
+ * and TAKE stops pulling (and closes file sources) once it has enough items.
+ *
+ * A Seq is a List, so words that need a list still work: the first get(), size() or change
+ * materializes the sequence once, and later access uses the materialized items. Until then,
+ * each traversal runs the pipeline again, repeating any side effects of MAP and SELECT code.
+ * Sources from a single-use Iterator can only be traversed once; use >ARRAY to keep their
+ * items.
+ */
+public class Seq extends AbstractList<Object> {
+
+    /**
+     * One stage of a pipeline, applied to each item
+     */
+    public interface Step {
+        Object apply(Object item) throws Exception;
+    }
+
+    /**
+     * Condition for keeping an item
+     */
+    public interface Condition {
+        boolean test(Object item) throws Exception;
+    }
+
+    /**
+     * Iterator over a pipeline stage. close() releases upstream resources early.
+     */
+    abstract static class Cursor implements Iterator<Object>, AutoCloseable {
+        @Override
+        public void close() {
+        }
+    }
+
+    private final Supplier<Cursor> pipeline;
+    private List<Object> items;
+
+    private Seq(Supplier<Cursor> pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    // ===== Sources =====
+
+    /**
+     * Seq over an Iterable; each traversal iterates it again
+     */
+    public static Seq of(Iterable<?> source) {
+        if (source instanceof Seq) {
+            return (Seq) source;
+        }
+        return new Seq(() -> wrap(source.iterator()));
+    }
+
+    /**
+     * Seq over a single-use Iterator, which can only be traversed once
+     */
+    public static Seq fromIterator(Iterator<?> source) {
+        boolean[] used = {false};
+        return new Seq(() -> {
+            if (used[0]) {
+                throw new IllegalStateException("Seq over an iterator can only be traversed once");
+            }
+            used[0] = true;
+            return wrap(source);
+        });
+    }
+
+    /**
+     * Seq whose traversals each start a new cursor, for sources that hold resources
+     */
+    static Seq fromCursors(Supplier<Cursor> source) {
+        return new Seq(source);
+    }
+
+    /**
+     * Seq over the lines of a text file. The file is read as the Seq is traversed and is
+     * closed at the end, or as soon as a stage such as TAKE stops pulling lines.
+     */
+    public static Seq lines(Path path, Charset charset) {
+        return new Seq(() -> {
+            BufferedReader reader;
+            try {
+                reader = Files.newBufferedReader(path, charset);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Cursor() {
+                private String next = readLine();
+
+                private String readLine() {
+                    try {
+                        String line = reader.readLine();
+                        if (line == null) {
+                            reader.close();
+                        }
+                        return line;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Object next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    String result = next;
+                    next = readLine();
+                    return result;
+                }
+
+                @Override
+                public void close() {
+                    try {
+                        next = null;
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        });
+    }
+
+    // ===== Stages =====
+
+    public Seq map(Step step) {
+        return new Seq(() -> {
+            Cursor source = cursor();
+            return new Cursor() {
+                @Override
+                public boolean hasNext() {
+                    return source.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    return apply(step, source.next());
+                }
+
+                @Override
+                public void close() {
+                    source.close();
+                }
+            };
+        });
+    }
+
+    public Seq select(Condition condition) {
+        return new Seq(() -> new FilterCursor(cursor()) {
+            @Override
+            boolean keep(Object item) {
+                return (Boolean) apply(condition::test, item);
+            }
+        });
+    }
+
+    public Seq take(int count) {
+        return new Seq(() -> {
+            Cursor source = cursor();
+            return new Cursor() {
+                private int taken = 0;
+
+                @Override
+                public boolean hasNext() {
+                    if (taken >= count) {
+                        source.close();
+                        return false;
+                    }
+                    return source.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    if (taken >= count) {
+                        throw new NoSuchElementException();
+                    }
+                    taken++;
+                    return source.next();
+                }
+
+                @Override
+                public void close() {
+                    source.close();
+                }
+            };
+        });
+    }
+
+    public Seq drop(int count) {
+        return new Seq(() -> {
+            Cursor source = cursor();
+            for (int i = 0; i < count && source.hasNext(); i++) {
+                source.next();
+            }
+            return source;
+        });
+    }
+
+    /**
+     * Flatten nested lists (including nested Seqs) into one sequence
+     */
+    public Seq flatten() {
+        return new Seq(() -> {
+            Cursor source = cursor();
+            return new Cursor() {
+                private final Deque<Iterator<?>> stack = new ArrayDeque<>();
+                private Object next;
+                private boolean hasNext;
+
+                {
+                    stack.push(source);
+                }
+
+                @Override
+                public boolean hasNext() {
+                    while (!hasNext && !stack.isEmpty()) {
+                        Iterator<?> top = stack.peek();
+                        if (!top.hasNext()) {
+                            stack.pop();
+                            continue;
+                        }
+                        Object item = top.next();
+                        if (item instanceof List) {
+                            stack.push(((List<?>) item).iterator());
+                        } else {
+                            next = item;
+                            hasNext = true;
+                        }
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public Object next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    hasNext = false;
+                    Object result = next;
+                    next = null;
+                    return result;
+                }
+
+                @Override
+                public void close() {
+                    source.close();
+                }
+            };
+        });
+    }
+
+    /**
+     * Drop repeated items, keeping the first of each (same equality as UNIQUE)
+     */
+    public Seq unique() {
+        return new Seq(() -> new FilterCursor(cursor()) {
+            private final Set<Object> seen = new HashSet<>();
+
+            @Override
+            boolean keep(Object item) {
+                return seen.add(item);
+            }
+        });
+    }
+
+    // ===== List access =====
+
+    /**
+     * Whether the items have been computed and kept (see {@link #materialize()})
+     */
+    public boolean isMaterialized() {
+        return items != null;
+    }
+
+    /**
+     * Run the pipeline once and keep its items; later access uses them
+     */
+    public synchronized List<Object> materialize() {
+        if (items == null) {
+            List<Object> result = new ArrayList<>();
+            try (Cursor cursor = pipeline.get()) {
+                while (cursor.hasNext()) {
+                    result.add(cursor.next());
+                }
+            }
+            items = result;
+        }
+        return items;
+    }
+
+    @Override
+    public Object get(int index) {
+        return materialize().get(index);
+    }
+
+    @Override
+    public int size() {
+        return materialize().size();
+    }
+
+    // Words that modify lists in place (like APPEND) work on the materialized items
+
+    @Override
+    public Object set(int index, Object element) {
+        return materialize().set(index, element);
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        materialize().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public Object remove(int index) {
+        modCount++;
+        return materialize().remove(index);
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return cursor();
+    }
+
+    private Cursor cursor() {
+        List<Object> materialized = items;
+        if (materialized != null) {
+            return wrap(materialized.iterator());
+        }
+        return pipeline.get();
+    }
+
+    // ===== Helpers =====
+
+    private abstract static class FilterCursor extends Cursor {
+        private final Cursor source;
+        private Object next;
+        private boolean hasNext;
+
+        FilterCursor(Cursor source) {
+            this.source = source;
+        }
+
+        abstract boolean keep(Object item);
+
+        @Override
+        public boolean hasNext() {
+            while (!hasNext && source.hasNext()) {
+                Object item = source.next();
+                if (keep(item)) {
+                    next = item;
+                    hasNext = true;
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = false;
+            Object result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void close() {
+            source.close();
+        }
+    }
+
+    private static Cursor wrap(Iterator<?> iterator) {
+        if (iterator instanceof Cursor) {
+            return (Cursor) iterator;
+        }
+        return new Cursor() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    private static Object apply(Step step, Object item) {
+        try {
+            return step.apply(item);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
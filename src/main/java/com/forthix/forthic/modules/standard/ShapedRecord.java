@@ -0,0 +1,271 @@
+package com.forthix.forthic.modules.standard;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Record stored as a shared RecordShape plus an array of values.
+ *
+ * Records with the same keys in the same order share their shape, so each record holds
+ * only its values rather than a hash table of entries. Behaves as a LinkedHashMap would:
+ * keys keep insertion order, null values are allowed, and equals/hashCode follow Map.
+ * Keys must be strings.
+ *
+ * Records are mutable, since words like &lt;REC! and &lt;DEL change records in place;
+ * adding or removing a key moves the record to another shape. A record grown past
+ * MAX_SHAPED_KEYS keys switches to dictionary mode and keeps its entries in a
+ * LinkedHashMap from then on, so building a large record key by key stays linear.
+ */
+public class ShapedRecord extends AbstractMap<String, Object> {
+    /**
+     * Records with more keys than this are usually keyed by data (ids, dates) rather than
+     * by field name, so they aren't given shapes
+     */
+    public static final int MAX_SHAPED_KEYS = 64;
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private RecordShape shape;
+    private Object[] values;
+    private int modCount;
+    // Entries once the record is in dictionary mode; shape and values are unused then
+    private LinkedHashMap<String, Object> dictionary;
+
+    public ShapedRecord() {
+        this.shape = RecordShape.EMPTY;
+        this.values = NO_VALUES;
+    }
+
+    /**
+     * Record of a shape with its values; the array is used directly, not copied
+     */
+    ShapedRecord(RecordShape shape, Object[] values) {
+        this.shape = shape;
+        this.values = values;
+    }
+
+    public ShapedRecord(Map<String, ?> map) {
+        this();
+        putAll(map);
+    }
+
+    /**
+     * Shape of this record, or null once it is in dictionary mode
+     */
+    public RecordShape getShape() {
+        return dictionary == null ? shape : null;
+    }
+
+    @Override
+    public int size() {
+        return dictionary == null ? shape.size() : dictionary.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (dictionary != null) {
+            return dictionary.containsKey(key);
+        }
+        return shape.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (dictionary != null) {
+            return dictionary.get(key);
+        }
+        int slot = shape.indexOf(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    /**
+     * Value in a slot of this record's shape
+     */
+    Object valueAt(int slot) {
+        return values[slot];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (dictionary != null) {
+            return dictionary.put(key, value);
+        }
+        int slot = shape.indexOf(key);
+        if (slot >= 0) {
+            Object old = values[slot];
+            values[slot] = value;
+            return old;
+        }
+        if (key == null) {
+            throw new NullPointerException("Record keys can't be null");
+        }
+        int size = shape.size();
+        if (size >= MAX_SHAPED_KEYS) {
+            toDictionary();
+            return dictionary.put(key, value);
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size * 2));
+        }
+        shape = shape.with(key);
+        values[size] = value;
+        modCount++;
+        return null;
+    }
+
+    private void toDictionary() {
+        LinkedHashMap<String, Object> entries = new LinkedHashMap<>(shape.size() * 2);
+        for (int i = 0; i < shape.size(); i++) {
+            entries.put(shape.key(i), values[i]);
+        }
+        dictionary = entries;
+        shape = RecordShape.EMPTY;
+        values = NO_VALUES;
+        modCount++;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (dictionary != null) {
+            return dictionary.remove(key);
+        }
+        int slot = shape.indexOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        return removeSlot(slot);
+    }
+
+    private Object removeSlot(int slot) {
+        Object old = values[slot];
+        int size = shape.size();
+        System.arraycopy(values, slot + 1, values, slot, size - slot - 1);
+        values[size - 1] = null;
+        shape = shape.without(slot);
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        dictionary = null;
+        shape = RecordShape.EMPTY;
+        values = NO_VALUES;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public int size() {
+                return ShapedRecord.this.size();
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                if (dictionary != null) {
+                    return dictionary.entrySet().iterator();
+                }
+                return new EntryIterator();
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < shape.size();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= shape.size()) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return new Entry(shape, last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeSlot(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private class Entry implements Map.Entry<String, Object> {
+        private final String key;
+        private final RecordShape entryShape;
+        private final int slot;
+
+        Entry(RecordShape entryShape, int slot) {
+            this.key = entryShape.key(slot);
+            this.entryShape = entryShape;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return shape == entryShape ? values[slot] : get(key);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            if (shape == entryShape) {
+                Object old = values[slot];
+                values[slot] = value;
+                return old;
+            }
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Object value = getValue();
+            return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
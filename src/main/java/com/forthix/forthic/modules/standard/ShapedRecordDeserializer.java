@@ -0,0 +1,90 @@
+package com.forthix.forthic.modules.standard;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonTokenId;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads untyped JSON with objects as ShapedRecords, so arrays of uniform objects share
+ * one key layout. Arrays and scalars are read as Jackson's default untyped reader does.
+ * Objects with more than ShapedRecord.MAX_SHAPED_KEYS keys are read in dictionary mode.
+ */
+class ShapedRecordDeserializer extends StdDeserializer<Object> {
+
+    private static final long serialVersionUID = 1L;
+
+    ShapedRecordDeserializer() {
+        super(Object.class);
+    }
+
+    /**
+     * Jackson module reading Object values with this deserializer
+     */
+    static SimpleModule module() {
+        SimpleModule module = new SimpleModule("ShapedRecords");
+        module.addDeserializer(Object.class, new ShapedRecordDeserializer());
+        return module;
+    }
+
+    @Override
+    public Object deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        switch (parser.currentTokenId()) {
+            case JsonTokenId.ID_START_OBJECT:
+            case JsonTokenId.ID_FIELD_NAME:
+                return readObject(parser, context);
+            case JsonTokenId.ID_START_ARRAY:
+                return readArray(parser, context);
+            case JsonTokenId.ID_STRING:
+                return parser.getText();
+            case JsonTokenId.ID_NUMBER_INT:
+                return parser.getNumberValue();
+            case JsonTokenId.ID_NUMBER_FLOAT:
+                if (context.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)) {
+                    return parser.getDecimalValue();
+                }
+                return parser.getDoubleValue();
+            case JsonTokenId.ID_TRUE:
+                return Boolean.TRUE;
+            case JsonTokenId.ID_FALSE:
+                return Boolean.FALSE;
+            case JsonTokenId.ID_NULL:
+                return null;
+            case JsonTokenId.ID_EMBEDDED_OBJECT:
+                return parser.getEmbeddedObject();
+            default:
+                return context.handleUnexpectedToken(Object.class, parser);
+        }
+    }
+
+    private Object readObject(JsonParser parser, DeserializationContext context) throws IOException {
+        Map<String, Object> record = new ShapedRecord();
+        String key = parser.currentTokenId() == JsonTokenId.ID_START_OBJECT ? parser.nextFieldName() : parser.currentName();
+        for (; key != null; key = parser.nextFieldName()) {
+            parser.nextToken();
+            Object value = deserialize(parser, context);
+            record.put(key, value);
+        }
+        return record;
+    }
+
+    private Object readArray(JsonParser parser, DeserializationContext context) throws IOException {
+        List<Object> result = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                return context.handleUnexpectedToken(Object.class, parser);
+            }
+            result.add(deserialize(parser, context));
+        }
+        return result;
+    }
+}
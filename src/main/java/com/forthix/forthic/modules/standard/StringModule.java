@@ -9,7 +9,9 @@ import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,9 +22,12 @@ import java.util.regex.Pattern;
  * - Conversion: >STR, URL-ENCODE, URL-DECODE
  * - Transform: LOWERCASE, UPPERCASE, STRIP, ASCII
  * - Split/Join: SPLIT, JOIN, CONCAT
- * - Pattern: REPLACE, RE-MATCH, RE-MATCH-ALL, RE-MATCH-GROUP
+ * - Pattern: REPLACE, RE-MATCH, RE-MATCH-ALL, RE-MATCH-SEQ, RE-MATCH-GROUP
  * - Constants: /N, /R, /T
  *
+ * Compiled regexes are cached across calls and interpreters. SPLIT and REPLACE take
+ * literal text and don't use regexes.
+ *
  * Examples:
  * "hello" "world" CONCAT
  * ["a" "b" "c"] CONCAT
@@ -155,7 +160,16 @@ public class StringModule extends DecoratedModule {
             return result;
         }
 
-        return List.of(str.split(Pattern.quote(separator), -1));
+        // Separators are literal, so split without a regex
+        List<String> result = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = str.indexOf(separator, start)) >= 0) {
+            result.add(str.substring(start, end));
+            start = end + separator.length();
+        }
+        result.add(str.substring(start));
+        return result;
     }
 
     @Word(stackEffect = "( strings:string[] sep:string -- result:string )", description = "Join strings with separator")
@@ -205,8 +219,8 @@ public class StringModule extends DecoratedModule {
         String pattern = text == null ? "" : text.toString();
         String replacement = replace == null ? "" : replace.toString();
 
-        // Use Pattern.quote to treat the text as literal, then replace with replaceAll
-        return str.replaceAll(Pattern.quote(pattern), Matcher.quoteReplacement(replacement));
+        // Text is literal, so replace without a regex
+        return str.replace(pattern, replacement);
     }
 
     @Word(stackEffect = "( string:string pattern:string -- match:any )",
@@ -221,7 +235,7 @@ public class StringModule extends DecoratedModule {
         String patternStr = pattern == null ? "" : pattern.toString();
 
         try {
-            Pattern regex = Pattern.compile(patternStr);
+            Pattern regex = PatternCache.get(patternStr);
             Matcher matcher = regex.matcher(str);
 
             if (matcher.find()) {
@@ -250,16 +264,9 @@ public class StringModule extends DecoratedModule {
         String patternStr = pattern == null ? "" : pattern.toString();
 
         try {
-            Pattern regex = Pattern.compile(patternStr);
-            Matcher matcher = regex.matcher(str);
-
+            Matcher matcher = PatternCache.get(patternStr).matcher(str);
             while (matcher.find()) {
-                // Get first capture group if it exists, otherwise full match
-                if (matcher.groupCount() >= 1) {
-                    result.add(matcher.group(1));
-                } else {
-                    result.add(matcher.group(0));
-                }
+                result.add(matchValue(matcher));
             }
         } catch (Exception e) {
             // Invalid regex pattern, return empty list
@@ -268,6 +275,47 @@ public class StringModule extends DecoratedModule {
         return result;
     }
 
+    @Word(stackEffect = "( string:string pattern:string -- matches:any )",
+          description = "Lazy sequence of the regex matches in string, as RE-MATCH-ALL returns them",
+          name = "RE-MATCH-SEQ")
+    public Seq RE_MATCH_SEQ(Object string, Object pattern) {
+        if (string == null) {
+            return Seq.of(new ArrayList<>());
+        }
+
+        String str = string.toString();
+        Pattern regex;
+        try {
+            regex = PatternCache.get(pattern == null ? "" : pattern.toString());
+        } catch (Exception e) {
+            // Invalid regex pattern, no matches
+            return Seq.of(new ArrayList<>());
+        }
+
+        // Each traversal matches from the start, finding matches only as they're needed
+        return Seq.of(() -> new Iterator<Object>() {
+            private final Matcher matcher = regex.matcher(str);
+            private Boolean found;
+
+            @Override
+            public boolean hasNext() {
+                if (found == null) {
+                    found = matcher.find();
+                }
+                return found;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                found = null;
+                return matchValue(matcher);
+            }
+        });
+    }
+
     @Word(stackEffect = "( match:any num:number -- result:any )",
           description = "Get capture group from regex match",
           name = "RE-MATCH-GROUP")
@@ -290,6 +338,15 @@ public class StringModule extends DecoratedModule {
         }
     }
 
+    // ===== Helper Methods =====
+
+    /**
+     * First capture group of a match if the pattern has one, otherwise the full match
+     */
+    private static String matchValue(Matcher matcher) {
+        return matcher.groupCount() >= 1 ? matcher.group(1) : matcher.group(0);
+    }
+
     // ===== Helper Classes =====
 
     /**
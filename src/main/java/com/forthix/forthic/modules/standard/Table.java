@@ -0,0 +1,878 @@
+package com.forthix.forthic.modules.standard;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Array of uniform records stored by column.
+ *
+ * Integer columns are long[], other numeric columns double[], string columns are
+ * dictionary-encoded int[], and anything else is kept as Object[]; nulls are marked in a
+ * bitmap. Filtering, grouping and aggregating loop over these arrays without boxing.
+ *
+ * A Table is a read-only List of its rows, so every array word works on it: get(i)
+ * builds row i as a ShapedRecord (a copy; changing it doesn't change the table). A Column
+ * is a read-only List of one column's values; SUM, MEAN, MIN and MAX read numeric columns
+ * directly.
+ *
+ * Numeric columns mixing integers and floats are stored as double[], so their integer
+ * values come back as doubles.
+ */
+public class Table extends AbstractList<Object> {
+
+    private final RecordShape shape;
+    private final Column[] columns;
+    private final int rowCount;
+
+    private Table(RecordShape shape, Column[] columns, int rowCount) {
+        this.shape = shape;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Table of an array of records. Columns are the fields of all the records, in the order
+     * they first appear; records missing a field have null there.
+     */
+    public static Table fromRecords(Collection<?> records) {
+        List<Map<?, ?>> rows = new ArrayList<>(records.size());
+        Set<String> names = new LinkedHashSet<>();
+        RecordShape lastShape = null;
+        for (Object item : records) {
+            if (!(item instanceof Map)) {
+                throw new IllegalArgumentException("Table rows must be records: " + item);
+            }
+            Map<?, ?> row = (Map<?, ?>) item;
+            rows.add(row);
+            // Rows of one shape have the same keys, so only check keys when the shape changes
+            if (lastShape != null && row instanceof ShapedRecord && ((ShapedRecord) row).getShape() == lastShape) {
+                continue;
+            }
+            lastShape = row instanceof ShapedRecord ? ((ShapedRecord) row).getShape() : null;
+            for (Object key : row.keySet()) {
+                names.add(String.valueOf(key));
+            }
+        }
+
+        RecordShape shape = RecordShape.EMPTY;
+        Column[] columns = new Column[names.size()];
+        int c = 0;
+        for (String name : names) {
+            shape = shape.with(name);
+            columns[c++] = buildColumn(rows, name);
+        }
+        return new Table(shape, columns, rows.size());
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public List<String> columnNames() {
+        List<String> result = new ArrayList<>(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            result.add(shape.key(i));
+        }
+        return result;
+    }
+
+    /**
+     * Column with a name, or null
+     */
+    public Column column(String name) {
+        int slot = shape.indexOf(name);
+        return slot < 0 ? null : columns[slot];
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    @Override
+    public Object get(int row) {
+        Objects.checkIndex(row, rowCount);
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i].get(row);
+        }
+        return new ShapedRecord(shape, values);
+    }
+
+    /**
+     * Table of the rows where a field compares to a value.
+     *
+     * @param op One of ==, !=, &lt;, &lt;=, &gt;, &gt;=. Numbers compare by value, strings
+     *           by String.compareTo. Null fields only match == null; ordering never matches them.
+     */
+    public Table where(String field, String op, Object value) {
+        int comparison = Comparison.of(op);
+        Column column = column(field);
+        int[] rows;
+        if (column == null) {
+            rows = Comparison.matchesNull(comparison, value) ? allRows() : new int[0];
+        } else {
+            rows = column.where(comparison, value);
+        }
+        return select(rows);
+    }
+
+    /**
+     * Rows grouped by a field's value (as a string), in order of first appearance. Rows with
+     * a null field aren't in any group. Each group is a Table.
+     */
+    public Map<String, List<Object>> groupBy(String field) {
+        Map<String, List<Object>> result = new LinkedHashMap<>();
+        Column column = column(field);
+        if (column == null) {
+            return result;
+        }
+        Grouping grouping = column.group();
+        int[] counts = new int[grouping.keys.size()];
+        for (int code : grouping.codes) {
+            if (code >= 0) {
+                counts[code]++;
+            }
+        }
+        int[][] groupRows = new int[counts.length][];
+        for (int g = 0; g < counts.length; g++) {
+            groupRows[g] = new int[counts[g]];
+        }
+        int[] filled = new int[counts.length];
+        int[] codes = grouping.codes;
+        for (int row = 0; row < codes.length; row++) {
+            int code = codes[row];
+            if (code >= 0) {
+                groupRows[code][filled[code]++] = row;
+            }
+        }
+        for (int g = 0; g < counts.length; g++) {
+            result.put(grouping.keys.get(g), select(groupRows[g]));
+        }
+        return result;
+    }
+
+    /**
+     * Aggregate a field over all rows
+     *
+     * @param op One of SUM, MEAN, MIN, MAX, COUNT
+     */
+    public Object aggregate(String valueField, String op) {
+        Aggregate aggregate = Aggregate.of(op, column(valueField), rowCount);
+        int[] codes = new int[rowCount];
+        return aggregate.run(codes, 1)[0];
+    }
+
+    /**
+     * Aggregate a field per value of a grouping field, keyed as in groupBy.
+     *
+     * SUM of no values is 0.0; MEAN, MIN and MAX of no values are null; COUNT counts
+     * non-null values.
+     */
+    public Map<String, Object> aggregate(String groupField, String valueField, String op) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Column groupColumn = column(groupField);
+        Aggregate aggregate = Aggregate.of(op, column(valueField), rowCount);
+        if (groupColumn == null) {
+            return result;
+        }
+        Grouping grouping = groupColumn.group();
+        Object[] values = aggregate.run(grouping.codes, grouping.keys.size());
+        for (int g = 0; g < values.length; g++) {
+            result.put(grouping.keys.get(g), values[g]);
+        }
+        return result;
+    }
+
+    private Table select(int[] rows) {
+        Column[] selected = new Column[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            selected[i] = columns[i].gather(rows);
+        }
+        return new Table(shape, selected, rows.length);
+    }
+
+    private int[] allRows() {
+        int[] rows = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    // ===== Columns =====
+
+    /**
+     * Values of one column, as a read-only List
+     */
+    public abstract static class Column extends AbstractList<Object> {
+        final int size;
+        // Set bits are null values; null when the column has none
+        final BitSet nulls;
+
+        Column(int size, BitSet nulls) {
+            this.size = size;
+            this.nulls = nulls == null || nulls.isEmpty() ? null : nulls;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object get(int row) {
+            Objects.checkIndex(row, size);
+            return isNull(row) ? null : value(row);
+        }
+
+        public boolean isNull(int row) {
+            return nulls != null && nulls.get(row);
+        }
+
+        /**
+         * True when getDouble can read the column's values
+         */
+        public boolean isNumeric() {
+            return false;
+        }
+
+        public double getDouble(int row) {
+            throw new UnsupportedOperationException("Column isn't numeric");
+        }
+
+        /**
+         * Number of non-null values
+         */
+        public int count() {
+            return nulls == null ? size : size - nulls.cardinality();
+        }
+
+        /**
+         * Sum of the non-null values of a numeric column
+         */
+        public double sum() {
+            double sum = 0;
+            for (int row = 0; row < size; row++) {
+                if (!isNull(row)) {
+                    sum += getDouble(row);
+                }
+            }
+            return sum;
+        }
+
+        /**
+         * Largest non-null value of a numeric column; -Infinity if there are none
+         */
+        public double max() {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int row = 0; row < size; row++) {
+                if (!isNull(row)) {
+                    max = Math.max(max, getDouble(row));
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Smallest non-null value of a numeric column; Infinity if there are none
+         */
+        public double min() {
+            double min = Double.POSITIVE_INFINITY;
+            for (int row = 0; row < size; row++) {
+                if (!isNull(row)) {
+                    min = Math.min(min, getDouble(row));
+                }
+            }
+            return min;
+        }
+
+        abstract Object value(int row);
+
+        abstract Column gather(int[] rows);
+
+        /**
+         * Rows whose non-null value compares to a value
+         */
+        abstract int[] whereValues(int comparison, Object value);
+
+        int[] where(int comparison, Object value) {
+            int[] rows = whereValues(comparison, value);
+            if (nulls == null || !Comparison.matchesNull(comparison, value)) {
+                return rows;
+            }
+            // Merge in the null rows, keeping row order
+            int[] merged = new int[rows.length + nulls.cardinality()];
+            int n = 0;
+            int i = 0;
+            for (int row = nulls.nextSetBit(0); row >= 0; row = nulls.nextSetBit(row + 1)) {
+                while (i < rows.length && rows[i] < row) {
+                    merged[n++] = rows[i++];
+                }
+                merged[n++] = row;
+            }
+            while (i < rows.length) {
+                merged[n++] = rows[i++];
+            }
+            return merged;
+        }
+
+        Grouping group() {
+            Map<String, Integer> index = new HashMap<>();
+            List<String> keys = new ArrayList<>();
+            int[] codes = new int[size];
+            for (int row = 0; row < size; row++) {
+                if (isNull(row)) {
+                    codes[row] = -1;
+                    continue;
+                }
+                String key = value(row).toString();
+                Integer code = index.get(key);
+                if (code == null) {
+                    code = keys.size();
+                    index.put(key, code);
+                    keys.add(key);
+                }
+                codes[row] = code;
+            }
+            return new Grouping(codes, keys);
+        }
+
+        BitSet gatherNulls(int[] rows) {
+            if (nulls == null) {
+                return null;
+            }
+            BitSet result = new BitSet(rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                if (nulls.get(rows[i])) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+
+        int[] matching(boolean[] matches) {
+            int n = 0;
+            for (boolean match : matches) {
+                if (match) {
+                    n++;
+                }
+            }
+            int[] rows = new int[n];
+            n = 0;
+            for (int row = 0; row < matches.length; row++) {
+                if (matches[row]) {
+                    rows[n++] = row;
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static final class LongColumn extends Column {
+        private final long[] values;
+        // Values were Integers, so they're returned as Integers
+        private final boolean ints;
+
+        LongColumn(long[] values, BitSet nulls, boolean ints) {
+            super(values.length, nulls);
+            this.values = values;
+            this.ints = ints;
+        }
+
+        @Override
+        Object value(int row) {
+            return ints ? (Object) (int) values[row] : (Object) values[row];
+        }
+
+        @Override
+        public boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public double sum() {
+            double sum = 0;
+            if (nulls == null) {
+                for (long value : values) {
+                    sum += value;
+                }
+                return sum;
+            }
+            return super.sum();
+        }
+
+        @Override
+        Column gather(int[] rows) {
+            long[] result = new long[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                result[i] = values[rows[i]];
+            }
+            return new LongColumn(result, gatherNulls(rows), ints);
+        }
+
+        @Override
+        int[] whereValues(int comparison, Object value) {
+            boolean[] matches = new boolean[size];
+            if (isIntegral(value)) {
+                long target = ((Number) value).longValue();
+                for (int row = 0; row < size; row++) {
+                    matches[row] = Comparison.test(comparison, Long.compare(values[row], target));
+                }
+            } else if (value instanceof Number) {
+                double target = ((Number) value).doubleValue();
+                for (int row = 0; row < size; row++) {
+                    matches[row] = Comparison.test(comparison, Double.compare(values[row], target));
+                }
+            } else {
+                for (int row = 0; row < size; row++) {
+                    matches[row] = comparison == Comparison.NE;
+                }
+            }
+            clearNulls(matches);
+            return matching(matches);
+        }
+
+        @Override
+        Grouping group() {
+            Map<Long, Integer> index = new HashMap<>();
+            List<String> keys = new ArrayList<>();
+            int[] codes = new int[size];
+            for (int row = 0; row < size; row++) {
+                if (isNull(row)) {
+                    codes[row] = -1;
+                    continue;
+                }
+                long value = values[row];
+                Integer code = index.get(value);
+                if (code == null) {
+                    code = keys.size();
+                    index.put(value, code);
+                    keys.add(Long.toString(value));
+                }
+                codes[row] = code;
+            }
+            return new Grouping(codes, keys);
+        }
+
+        private void clearNulls(boolean[] matches) {
+            if (nulls != null) {
+                for (int row = nulls.nextSetBit(0); row >= 0; row = nulls.nextSetBit(row + 1)) {
+                    matches[row] = false;
+                }
+            }
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        private final double[] values;
+
+        DoubleColumn(double[] values, BitSet nulls) {
+            super(values.length, nulls);
+            this.values = values;
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+
+        @Override
+        public boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public double sum() {
+            double sum = 0;
+            if (nulls == null) {
+                for (double value : values) {
+                    sum += value;
+                }
+                return sum;
+            }
+            return super.sum();
+        }
+
+        @Override
+        Column gather(int[] rows) {
+            double[] result = new double[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                result[i] = values[rows[i]];
+            }
+            return new DoubleColumn(result, gatherNulls(rows));
+        }
+
+        @Override
+        int[] whereValues(int comparison, Object value) {
+            boolean[] matches = new boolean[size];
+            if (value instanceof Number) {
+                double target = ((Number) value).doubleValue();
+                for (int row = 0; row < size; row++) {
+                    matches[row] = Comparison.test(comparison, Double.compare(values[row], target));
+                }
+            } else {
+                for (int row = 0; row < size; row++) {
+                    matches[row] = comparison == Comparison.NE;
+                }
+            }
+            if (nulls != null) {
+                for (int row = nulls.nextSetBit(0); row >= 0; row = nulls.nextSetBit(row + 1)) {
+                    matches[row] = false;
+                }
+            }
+            return matching(matches);
+        }
+    }
+
+    private static final class StringColumn extends Column {
+        private final int[] codes;
+        private final List<String> dictionary;
+
+        StringColumn(int[] codes, List<String> dictionary, BitSet nulls) {
+            super(codes.length, nulls);
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        Object value(int row) {
+            return dictionary.get(codes[row]);
+        }
+
+        @Override
+        Column gather(int[] rows) {
+            int[] result = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                result[i] = codes[rows[i]];
+            }
+            return new StringColumn(result, dictionary, gatherNulls(rows));
+        }
+
+        @Override
+        int[] whereValues(int comparison, Object value) {
+            // Compare each distinct string once, then look rows up by code
+            boolean[] codeMatches = new boolean[dictionary.size()];
+            for (int code = 0; code < codeMatches.length; code++) {
+                String string = dictionary.get(code);
+                if (value instanceof String) {
+                    codeMatches[code] = Comparison.test(comparison, string.compareTo((String) value));
+                } else {
+                    codeMatches[code] = comparison == Comparison.NE;
+                }
+            }
+            boolean[] matches = new boolean[size];
+            for (int row = 0; row < size; row++) {
+                matches[row] = codes[row] >= 0 && codeMatches[codes[row]];
+            }
+            return matching(matches);
+        }
+
+        @Override
+        Grouping group() {
+            // Renumber dictionary codes in order of first appearance; the dictionary may
+            // have strings no row of this column uses
+            int[] renumbered = new int[dictionary.size()];
+            Arrays.fill(renumbered, -1);
+            List<String> keys = new ArrayList<>();
+            int[] groupCodes = new int[size];
+            for (int row = 0; row < size; row++) {
+                int code = codes[row];
+                if (code < 0) {
+                    groupCodes[row] = -1;
+                    continue;
+                }
+                if (renumbered[code] < 0) {
+                    renumbered[code] = keys.size();
+                    keys.add(dictionary.get(code));
+                }
+                groupCodes[row] = renumbered[code];
+            }
+            return new Grouping(groupCodes, keys);
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        private final Object[] values;
+
+        ObjectColumn(Object[] values) {
+            super(values.length, nullsOf(values));
+            this.values = values;
+        }
+
+        private static BitSet nullsOf(Object[] values) {
+            BitSet nulls = new BitSet(values.length);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    nulls.set(i);
+                }
+            }
+            return nulls;
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+
+        @Override
+        Column gather(int[] rows) {
+            Object[] result = new Object[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                result[i] = values[rows[i]];
+            }
+            return new ObjectColumn(result);
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        int[] whereValues(int comparison, Object value) {
+            boolean[] matches = new boolean[size];
+            for (int row = 0; row < size; row++) {
+                Object item = values[row];
+                if (item == null) {
+                    continue;
+                }
+                if (comparison == Comparison.EQ || comparison == Comparison.NE) {
+                    matches[row] = item.equals(value) == (comparison == Comparison.EQ);
+                } else if (value != null && item.getClass() == value.getClass() && item instanceof Comparable) {
+                    matches[row] = Comparison.test(comparison, ((Comparable) item).compareTo(value));
+                }
+            }
+            return matching(matches);
+        }
+    }
+
+    private static Column buildColumn(List<Map<?, ?>> rows, String name) {
+        int size = rows.size();
+        Object[] values = new Object[size];
+        boolean allInts = true;
+        boolean allIntegral = true;
+        boolean allNumbers = true;
+        boolean allStrings = true;
+        boolean any = false;
+        for (int row = 0; row < size; row++) {
+            Object value = rows.get(row).get(name);
+            values[row] = value;
+            if (value == null) {
+                continue;
+            }
+            any = true;
+            boolean isInt = value instanceof Integer || value instanceof Short || value instanceof Byte;
+            boolean integral = isInt || value instanceof Long;
+            allInts &= isInt;
+            allIntegral &= integral;
+            allNumbers &= integral || value instanceof Double || value instanceof Float;
+            allStrings &= value instanceof String;
+        }
+        if (!any) {
+            return new ObjectColumn(values);
+        }
+
+        BitSet nulls = new BitSet(size);
+        if (allIntegral) {
+            long[] longs = new long[size];
+            for (int row = 0; row < size; row++) {
+                if (values[row] == null) {
+                    nulls.set(row);
+                } else {
+                    longs[row] = ((Number) values[row]).longValue();
+                }
+            }
+            return new LongColumn(longs, nulls, allInts);
+        }
+        if (allNumbers) {
+            double[] doubles = new double[size];
+            for (int row = 0; row < size; row++) {
+                if (values[row] == null) {
+                    nulls.set(row);
+                } else {
+                    doubles[row] = ((Number) values[row]).doubleValue();
+                }
+            }
+            return new DoubleColumn(doubles, nulls);
+        }
+        if (allStrings) {
+            Map<String, Integer> index = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            int[] codes = new int[size];
+            for (int row = 0; row < size; row++) {
+                String value = (String) values[row];
+                if (value == null) {
+                    nulls.set(row);
+                    codes[row] = -1;
+                    continue;
+                }
+                Integer code = index.get(value);
+                if (code == null) {
+                    code = dictionary.size();
+                    index.put(value, code);
+                    dictionary.add(value);
+                }
+                codes[row] = code;
+            }
+            return new StringColumn(codes, dictionary, nulls);
+        }
+        return new ObjectColumn(values);
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    // ===== Grouping and Aggregation =====
+
+    // Group number of each row (-1 for none) and each group's key
+    private static final class Grouping {
+        final int[] codes;
+        final List<String> keys;
+
+        Grouping(int[] codes, List<String> keys) {
+            this.codes = codes;
+            this.keys = keys;
+        }
+    }
+
+    private static final class Comparison {
+        static final int EQ = 0;
+        static final int NE = 1;
+        static final int LT = 2;
+        static final int LE = 3;
+        static final int GT = 4;
+        static final int GE = 5;
+
+        static int of(String op) {
+            switch (op == null ? "" : op) {
+                case "==": return EQ;
+                case "!=": return NE;
+                case "<": return LT;
+                case "<=": return LE;
+                case ">": return GT;
+                case ">=": return GE;
+                default: throw new IllegalArgumentException("Unknown comparison: " + op);
+            }
+        }
+
+        static boolean test(int comparison, int cmp) {
+            switch (comparison) {
+                case EQ: return cmp == 0;
+                case NE: return cmp != 0;
+                case LT: return cmp < 0;
+                case LE: return cmp <= 0;
+                case GT: return cmp > 0;
+                default: return cmp >= 0;
+            }
+        }
+
+        // Whether a null field matches
+        static boolean matchesNull(int comparison, Object value) {
+            return (comparison == EQ && value == null) || (comparison == NE && value != null);
+        }
+    }
+
+    private static final class Aggregate {
+        private final String op;
+        private final Column column;
+        private final int rowCount;
+
+        private Aggregate(String op, Column column, int rowCount) {
+            this.op = op;
+            this.column = column;
+            this.rowCount = rowCount;
+        }
+
+        static Aggregate of(String op, Column column, int rowCount) {
+            String name = op == null ? "" : op.toUpperCase();
+            switch (name) {
+                case "COUNT":
+                    break;
+                case "SUM":
+                case "MEAN":
+                case "MIN":
+                case "MAX":
+                    if (column != null && !column.isNumeric() && column.count() > 0) {
+                        throw new IllegalArgumentException(name + " needs a numeric column");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown aggregate: " + op);
+            }
+            return new Aggregate(name, column, rowCount);
+        }
+
+        Object[] run(int[] codes, int groupCount) {
+            long[] counts = new long[groupCount];
+            double[] totals = new double[groupCount];
+            Object[] result = new Object[groupCount];
+            if (column == null || column.count() == 0) {
+                for (int g = 0; g < groupCount; g++) {
+                    result[g] = op.equals("SUM") ? (Object) 0.0 : op.equals("COUNT") ? (Object) 0 : null;
+                }
+                return result;
+            }
+
+            boolean isMin = op.equals("MIN");
+            boolean isMax = op.equals("MAX");
+            if (isMin || isMax) {
+                Arrays.fill(totals, isMin ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+            }
+            boolean numeric = column.isNumeric();
+            for (int row = 0; row < rowCount; row++) {
+                int g = codes[row];
+                if (g < 0 || column.isNull(row)) {
+                    continue;
+                }
+                counts[g]++;
+                if (!numeric) {
+                    continue;
+                }
+                double value = column.getDouble(row);
+                if (isMin) {
+                    totals[g] = Math.min(totals[g], value);
+                } else if (isMax) {
+                    totals[g] = Math.max(totals[g], value);
+                } else {
+                    totals[g] += value;
+                }
+            }
+
+            for (int g = 0; g < groupCount; g++) {
+                switch (op) {
+                    case "COUNT":
+                        result[g] = (int) counts[g];
+                        break;
+                    case "SUM":
+                        result[g] = totals[g];
+                        break;
+                    case "MEAN":
+                        result[g] = counts[g] == 0 ? null : (Object) (totals[g] / counts[g]);
+                        break;
+                    default:
+                        result[g] = counts[g] == 0 ? null : (Object) totals[g];
+                        break;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.forthix.forthic.modules.standard;
+
+import com.forthix.forthic.annotations.Word;
+import com.forthix.forthic.module.DecoratedModule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Columnar tables for filtering, grouping and aggregating arrays of uniform records.
+ *
+ * A table is also an array of its rows, so array words work on it. GROUP-BY-FIELD groups
+ * a table into tables, |REC@ of a table gives a column, and SUM, MEAN, MIN and MAX of a
+ * numeric column read its values directly. >ARRAY turns a table back into an array of records.
+ *
+ * Categories:
+ * - Conversion: >TABLE, TABLE-COLUMNS
+ * - Query: TABLE-WHERE, TABLE-AGGREGATE
+ *
+ * Examples:
+ * orders >TABLE 'status' '==' 'open' TABLE-WHERE 'amount' |REC@ SUM
+ * orders >TABLE 'region' 'amount' 'MEAN' TABLE-AGGREGATE
+ */
+public class TableModule extends DecoratedModule {
+
+    public TableModule() {
+        super("table");
+    }
+
+    @Word(stackEffect = "( records:any[] -- table:any )", description = "Convert an array of records to a columnar table", name = ">TABLE")
+    public Table to_TABLE(Object records) {
+        return table(records);
+    }
+
+    @Word(stackEffect = "( table:any -- names:string[] )", description = "Column names of a table", name = "TABLE-COLUMNS")
+    public List<String> TABLE_COLUMNS(Object table) {
+        return table(table).columnNames();
+    }
+
+    @Word(stackEffect = "( table:any field:string op:string value:any -- table:any )",
+          description = "Rows where field compares to value (op is ==, !=, <, <=, > or >=)",
+          name = "TABLE-WHERE")
+    public Table TABLE_WHERE(Object table, Object field, Object op, Object value) {
+        return table(table).where(string(field), string(op), value);
+    }
+
+    @Word(stackEffect = "( table:any group_field:string value_field:string op:string -- result:any )",
+          description = "Aggregate value_field per group_field value (op is SUM, MEAN, MIN, MAX or COUNT); NULL group_field aggregates all rows",
+          name = "TABLE-AGGREGATE")
+    public Object TABLE_AGGREGATE(Object table, Object group_field, Object value_field, Object op) {
+        Table t = table(table);
+        if (group_field == null) {
+            return t.aggregate(string(value_field), string(op));
+        }
+        return t.aggregate(string(group_field), string(value_field), string(op));
+    }
+
+    // ===== Helper Methods =====
+
+    private static Table table(Object value) {
+        if (value instanceof Table) {
+            return (Table) value;
+        }
+        if (value == null) {
+            return Table.fromRecords(new ArrayList<>());
+        }
+        if (value instanceof Collection) {
+            return Table.fromRecords((Collection<?>) value);
+        }
+        throw new IllegalArgumentException("Expected an array of records: " + value);
+    }
+
+    private static String string(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
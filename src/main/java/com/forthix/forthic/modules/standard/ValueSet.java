@@ -0,0 +1,122 @@
+package com.forthix.forthic.modules.standard;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Set of Forthic values for membership tests, created with >SET.
+ *
+ * Numbers are compared by value, so 1, 1L and 1.0 are the same member; other values use
+ * equals(). Iteration is in insertion order and keeps the first of several equal values.
+ */
+public class ValueSet extends AbstractSet<Object> {
+    // Collections up to this size are scanned rather than hashed for one-off lookups
+    static final int HASH_THRESHOLD = 16;
+
+    private static final double LONG_RANGE = 0x1p63;
+
+    private final Map<Object, Object> members;
+
+    public ValueSet() {
+        this.members = new LinkedHashMap<>();
+    }
+
+    public ValueSet(Collection<?> values) {
+        this.members = new LinkedHashMap<>(Math.max(16, (int) (values.size() / 0.75f) + 1));
+        addAll(values);
+    }
+
+    @Override
+    public boolean add(Object value) {
+        Object key = key(value);
+        if (members.containsKey(key)) {
+            return false;
+        }
+        members.put(key, value);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return members.containsKey(key(value));
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        Object key = key(value);
+        if (!members.containsKey(key)) {
+            return false;
+        }
+        members.remove(key);
+        return true;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return members.values().iterator();
+    }
+
+    @Override
+    public int size() {
+        return members.size();
+    }
+
+    /**
+     * Membership test for the values of a collection, using the same equality as ValueSet.
+     *
+     * A ValueSet is used as is and small collections are scanned; anything larger is
+     * hashed once, so callers probing many items pay O(n + m) rather than O(n * m).
+     */
+    static Predicate<Object> membership(Collection<?> values) {
+        if (values instanceof ValueSet) {
+            return values::contains;
+        }
+        if (values.size() <= HASH_THRESHOLD) {
+            return item -> {
+                Object key = key(item);
+                for (Object value : values) {
+                    if (Objects.equals(key, key(value))) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        return new ValueSet(values)::contains;
+    }
+
+    /**
+     * Key a value is hashed by: whole numbers become Longs and other numbers Doubles or
+     * normalized BigDecimals, so numerically equal values have equal keys.
+     */
+    static Object key(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && d >= -LONG_RANGE && d < LONG_RANGE) {
+                return (long) d;
+            }
+            return d;
+        }
+        if (value instanceof BigInteger) {
+            BigInteger big = (BigInteger) value;
+            return big.bitLength() < 64 ? (Object) big.longValue() : big;
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal big = ((BigDecimal) value).stripTrailingZeros();
+            if (big.scale() <= 0 && big.precision() - big.scale() < 19) {
+                return big.longValueExact();
+            }
+            double d = big.doubleValue();
+            if (!Double.isInfinite(d) && new BigDecimal(d).compareTo(big) == 0) {
+                return d;
+            }
+            return big;
+        }
+        return value;
+    }
+}
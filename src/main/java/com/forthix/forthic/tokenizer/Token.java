@@ -4,16 +4,40 @@ import com.forthix.forthic.errors.CodeLocation;
 
 /**
  * Represents a single token from the Forthic source code
+ *
+ * Tokens produced by a {@link Tokenizer} refer to their slice of the input; the
+ * string and location are built the first time they're asked for, or by {@link #detach()}.
  */
 public class Token {
     private final TokenType type;
-    private final String string;
-    private final CodeLocation location;
+    private String string;
+    private CodeLocation location;
+
+    // Source of a lazy token; null once string and location are both built
+    private Tokenizer source;
+    private final int stringStart;
+    private final int stringEnd;
+    private final int locationStart;
+    private final int locationEnd;
 
     public Token(TokenType type, String string, CodeLocation location) {
         this.type = type;
         this.string = string;
         this.location = location;
+        this.source = null;
+        this.stringStart = 0;
+        this.stringEnd = 0;
+        this.locationStart = 0;
+        this.locationEnd = 0;
+    }
+
+    Token(TokenType type, Tokenizer source, int stringStart, int stringEnd, int locationStart, int locationEnd) {
+        this.type = type;
+        this.source = source;
+        this.stringStart = stringStart;
+        this.stringEnd = stringEnd;
+        this.locationStart = locationStart;
+        this.locationEnd = locationEnd;
     }
 
     public TokenType getType() {
@@ -21,16 +45,44 @@ public class Token {
     }
 
     public String getString() {
+        if (string == null) {
+            string = source.substring(stringStart, stringEnd);
+            releaseSource();
+        }
         return string;
     }
 
     public CodeLocation getLocation() {
+        if (location == null && source != null) {
+            location = source.locationOf(locationStart, locationEnd);
+            releaseSource();
+        }
         return location;
     }
 
+    /**
+     * Build the string and location now and drop the reference to the tokenizer (and
+     * through it the whole input). Call this before keeping a token beyond the run that
+     * produced it, such as an array marker stored in a definition.
+     */
+    public Token detach() {
+        if (source != null) {
+            getString();
+            getLocation();
+            source = null;
+        }
+        return this;
+    }
+
+    private void releaseSource() {
+        if (string != null && location != null) {
+            source = null;
+        }
+    }
+
     @Override
     public String toString() {
-        return String.format("Token(%s, \"%s\", %s)", type, string, location);
+        return String.format("Token(%s, \"%s\", %s)", type, getString(), getLocation());
     }
 
     @Override
@@ -39,15 +91,15 @@ public class Token {
         if (obj == null || getClass() != obj.getClass()) return false;
         Token token = (Token) obj;
         return type == token.type &&
-               string.equals(token.string) &&
-               location.equals(token.location);
+               getString().equals(token.getString()) &&
+               getLocation().equals(token.getLocation());
     }
 
     @Override
     public int hashCode() {
         int result = type.hashCode();
-        result = 31 * result + string.hashCode();
-        result = 31 * result + location.hashCode();
+        result = 31 * result + getString().hashCode();
+        result = 31 * result + getLocation().hashCode();
         return result;
     }
 }
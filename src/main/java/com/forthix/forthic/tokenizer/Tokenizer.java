@@ -3,84 +3,98 @@ package com.forthix.forthic.tokenizer;
 import com.forthix.forthic.errors.CodeLocation;
 import com.forthix.forthic.errors.InvalidWordNameError;
 import com.forthix.forthic.errors.UnterminatedStringError;
-import com.forthix.forthic.errors.InvalidInputPositionError;
-
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Tokenizer for Forthic source code.
  * Converts a string of Forthic code into a stream of tokens.
+ *
+ * The input is read in place as a CharSequence. Every token is a slice of the input,
+ * so tokens only record offsets: their strings are materialized and their locations
+ * (line and column) computed when first asked for.
+ *
+ * A streaming tokenizer returns null instead of failing when the input ends inside a
+ * string or before a definition name, so the caller can retry once more input arrives.
  */
 public class Tokenizer {
+    // Character classes for ASCII; anything else is an ordinary word character
+    private static final byte WHITESPACE = 1;
+    private static final byte QUOTE = 2;
+    private static final byte WORD_END = 4;     // Ends a word: ; ] { } #
+    private static final byte SYMBOL_END = 8;   // Ends a dot symbol: ; [ ] { } #
+    private static final byte INVALID_NAME = 16; // Not allowed in definition names: [ ] { } ;
+    private static final byte[] charClasses = new byte[128];
+
+    static {
+        for (char c : " \t\n\r(),".toCharArray()) charClasses[c] |= WHITESPACE;
+        for (char c : "\"'^".toCharArray()) charClasses[c] |= QUOTE;
+        for (char c : ";]{}#".toCharArray()) charClasses[c] |= WORD_END;
+        for (char c : ";[]{}#".toCharArray()) charClasses[c] |= SYMBOL_END;
+        for (char c : "[]{};".toCharArray()) charClasses[c] |= INVALID_NAME;
+    }
+
     private final CodeLocation referenceLocation;
-    private int line;
-    private int column;
-    private final String inputString;
+    private final CharSequence input;
+    private final int inputLength;
+    private String inputString;
     private int inputPos;
-    private final Set<Character> whitespace;
-    private final Set<Character> quoteChars;
-
-    // Token tracking
-    private int tokenStartPos;
-    private int tokenEndPos;
-    private int tokenLine;
-    private int tokenColumn;
-    private StringBuilder tokenString;
-    private StringDelta stringDelta;
     private final boolean streaming;
 
-    /**
-     * Represents a range in the input string
-     */
-    private static class StringDelta {
-        int start;
-        int end;
+    // Current token is input[tokenStart, tokenEnd)
+    private int tokenStart;
+    private int tokenEnd;
+    private int stringDeltaStart;
+    private int stringDeltaEnd;
 
-        StringDelta(int start, int end) {
-            this.start = start;
-            this.end = end;
-        }
-    }
+    // Line scan state for computing locations (see locationOf)
+    private int scanPos;
+    private int scanLine;
+    private int scanLastNewline;
 
-    public Tokenizer(String string, CodeLocation referenceLocation, boolean streaming) {
+    public Tokenizer(CharSequence input, CodeLocation referenceLocation, boolean streaming) {
         if (referenceLocation == null) {
             referenceLocation = CodeLocation.builder().screenName("<string>").build();
         }
         this.referenceLocation = referenceLocation;
-        this.line = referenceLocation.getLine();
-        this.column = referenceLocation.getColumn();
-        this.inputString = unescapeString(string);
+        this.input = unescapeString(input);
+        this.inputLength = this.input.length();
+        this.inputString = this.input instanceof String ? (String) this.input : null;
         this.inputPos = 0;
-
-        // Initialize whitespace and quote characters
-        this.whitespace = new HashSet<>(Arrays.asList(' ', '\t', '\n', '\r', '(', ')', ','));
-        this.quoteChars = new HashSet<>(Arrays.asList('"', '\'', '^'));
-
-        // Token tracking
-        this.tokenStartPos = 0;
-        this.tokenEndPos = 0;
-        this.tokenLine = 0;
-        this.tokenColumn = 0;
-        this.tokenString = new StringBuilder();
-        this.stringDelta = null;
         this.streaming = streaming;
+
+        this.tokenStart = 0;
+        this.tokenEnd = 0;
+        this.stringDeltaStart = -1;
+        this.stringDeltaEnd = -1;
+
+        this.scanPos = 0;
+        this.scanLine = referenceLocation.getLine();
+        this.scanLastNewline = -1;
+    }
+
+    public Tokenizer(CharSequence input, CodeLocation referenceLocation) {
+        this(input, referenceLocation, false);
+    }
+
+    public Tokenizer(CharSequence input) {
+        this(input, null, false);
+    }
+
+    public Tokenizer(String string, CodeLocation referenceLocation, boolean streaming) {
+        this((CharSequence) string, referenceLocation, streaming);
     }
 
     public Tokenizer(String string, CodeLocation referenceLocation) {
-        this(string, referenceLocation, false);
+        this((CharSequence) string, referenceLocation, false);
     }
 
     public Tokenizer(String string) {
-        this(string, null, false);
+        this((CharSequence) string, null, false);
     }
 
     /**
      * Get the next token from the input
      */
     public Token nextToken() {
-        clearTokenString();
         return transitionFromSTART();
     }
 
@@ -88,90 +102,119 @@ public class Tokenizer {
     // Helper functions
     // ===================
 
-    private String unescapeString(String string) {
-        String result = string.replace("&lt;", "<");
+    private static CharSequence unescapeString(CharSequence input) {
+        // Only copy the input if there is something to unescape
+        boolean hasAmpersand = false;
+        for (int i = 0; i < input.length(); i++) {
+            if (input.charAt(i) == '&') {
+                hasAmpersand = true;
+                break;
+            }
+        }
+        if (!hasAmpersand) {
+            return input;
+        }
+        String result = input.toString().replace("&lt;", "<");
         result = result.replace("&gt;", ">");
         return result;
     }
 
-    private void clearTokenString() {
-        tokenString = new StringBuilder();
+    private static boolean hasClass(char c, byte charClass) {
+        return c < 128 && (charClasses[c] & charClass) != 0;
     }
 
-    private void noteStartToken() {
-        tokenStartPos = inputPos + referenceLocation.getStartPos();
-        tokenLine = line;
-        tokenColumn = column;
+    private boolean isTripleQuote(int index, char c) {
+        if (!hasClass(c, QUOTE)) return false;
+        if (index + 2 >= inputLength) return false;
+        return input.charAt(index + 1) == c &&
+               input.charAt(index + 2) == c;
     }
 
-    private boolean isWhitespace(char c) {
-        return whitespace.contains(c);
+    private boolean isStartMemo(int index) {
+        if (index + 1 >= inputLength) return false;
+        return input.charAt(index) == '@' &&
+               input.charAt(index + 1) == ':';
     }
 
-    private boolean isQuote(char c) {
-        return quoteChars.contains(c);
+    private void startToken(int pos) {
+        tokenStart = pos;
+        tokenEnd = pos;
     }
 
-    private boolean isTripleQuote(int index, char c) {
-        if (!isQuote(c)) return false;
-        if (index + 2 >= inputString.length()) return false;
-        return inputString.charAt(index + 1) == c &&
-               inputString.charAt(index + 2) == c;
+    private Token token(TokenType type) {
+        return new Token(type, this, tokenStart, tokenEnd, tokenStart, tokenEnd);
     }
 
-    private boolean isStartMemo(int index) {
-        if (index + 1 >= inputString.length()) return false;
-        return inputString.charAt(index) == '@' &&
-               inputString.charAt(index + 1) == ':';
-    }
-
-    private int advancePosition(int numChars) {
-        int i;
-        if (numChars >= 0) {
-            for (i = 0; i < numChars; i++) {
-                if (inputString.charAt(inputPos) == '\n') {
-                    line += 1;
-                    column = 1;
-                } else {
-                    column += 1;
-                }
-                inputPos += 1;
-            }
-        } else {
-            for (i = 0; i < -numChars; i++) {
-                inputPos -= 1;
-                if (inputPos < 0 || column < 0) {
-                    throw new InvalidInputPositionError("Invalid input position");
-                }
-                if (inputString.charAt(inputPos) == '\n') {
-                    line -= 1;
-                    column = 1;
-                } else {
-                    column -= 1;
-                }
+    /**
+     * Location of input[start, end), relative to the reference location.
+     *
+     * Lines are found by scanning forward from the last position asked for, so
+     * asking in input order costs a single pass over the input overall.
+     */
+    CodeLocation locationOf(int start, int end) {
+        if (start < scanPos) {
+            scanPos = 0;
+            scanLine = referenceLocation.getLine();
+            scanLastNewline = -1;
+        }
+        for (; scanPos < start; scanPos++) {
+            if (input.charAt(scanPos) == '\n') {
+                scanLine++;
+                scanLastNewline = scanPos;
             }
-            i = -i;
         }
-        return i;
+        int column = scanLastNewline < 0 ? referenceLocation.getColumn() + start : start - scanLastNewline;
+        int startPos = start + referenceLocation.getStartPos();
+        return new CodeLocation(referenceLocation.getScreenName(), scanLine, column, startPos, startPos + end - start);
+    }
+
+    String substring(int start, int end) {
+        return input.subSequence(start, end).toString();
+    }
+
+    /**
+     * Offset in the input just past the last token read
+     */
+    public int getPosition() {
+        return inputPos;
+    }
+
+    /**
+     * Whether the token just read might continue in more input, because it runs up to
+     * the end of the input without whitespace (or for a comment, a newline) after it.
+     * Streaming callers hold such tokens back until more input arrives.
+     */
+    public boolean mayContinue(Token token) {
+        if (inputPos < inputLength) {
+            return false;
+        }
+        if (token.getType() == TokenType.COMMENT || inputPos == 0) {
+            return true;
+        }
+        return !hasClass(input.charAt(inputPos - 1), WHITESPACE);
+    }
+
+    /**
+     * Location of an offset in the input, relative to the reference location
+     */
+    public CodeLocation locationAt(int pos) {
+        return locationOf(pos, pos);
     }
 
     public CodeLocation getTokenLocation() {
-        return CodeLocation.builder()
-            .screenName(referenceLocation.getScreenName())
-            .line(tokenLine)
-            .column(tokenColumn)
-            .startPos(tokenStartPos)
-            .endPos(tokenStartPos + tokenString.length())
-            .build();
+        return locationOf(tokenStart, tokenEnd);
     }
 
     public String getInputString() {
+        if (inputString == null) {
+            inputString = input.toString();
+        }
         return inputString;
     }
 
     public String getStringDelta() {
-        if (stringDelta == null) return "";
-        return inputString.substring(stringDelta.start, stringDelta.end);
+        if (stringDeltaStart < 0) return "";
+        return substring(stringDeltaStart, stringDeltaEnd);
     }
 
     // ===================
@@ -179,193 +222,198 @@ public class Tokenizer {
     // ===================
 
     private Token transitionFromSTART() {
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
-            noteStartToken();
-            advancePosition(1);
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
+            startToken(inputPos);
+            inputPos++;
 
-            if (isWhitespace(c)) {
+            if (hasClass(c, WHITESPACE)) {
                 continue;
             } else if (c == '#') {
                 return transitionFromCOMMENT();
             } else if (c == ':') {
                 return transitionFromSTART_DEFINITION();
             } else if (isStartMemo(inputPos - 1)) {
-                advancePosition(1); // Skip over ":" in "@:"
+                inputPos++; // Skip over ":" in "@:"
                 return transitionFromSTART_MEMO();
             } else if (c == ';') {
-                tokenString.append(c);
-                return new Token(TokenType.END_DEF, tokenString.toString(), getTokenLocation());
+                tokenEnd = inputPos;
+                return token(TokenType.END_DEF);
             } else if (c == '[') {
-                tokenString.append(c);
-                return new Token(TokenType.START_ARRAY, tokenString.toString(), getTokenLocation());
+                tokenEnd = inputPos;
+                return token(TokenType.START_ARRAY);
             } else if (c == ']') {
-                tokenString.append(c);
-                return new Token(TokenType.END_ARRAY, tokenString.toString(), getTokenLocation());
+                tokenEnd = inputPos;
+                return token(TokenType.END_ARRAY);
             } else if (c == '{') {
                 return transitionFromGATHER_MODULE();
             } else if (c == '}') {
-                tokenString.append(c);
-                return new Token(TokenType.END_MODULE, tokenString.toString(), getTokenLocation());
+                tokenEnd = inputPos;
+                return token(TokenType.END_MODULE);
             } else if (isTripleQuote(inputPos - 1, c)) {
-                advancePosition(2); // Skip over 2nd and 3rd quote chars
+                inputPos += 2; // Skip over 2nd and 3rd quote chars
                 return transitionFromGATHER_TRIPLE_QUOTE_STRING(c);
-            } else if (isQuote(c)) {
+            } else if (hasClass(c, QUOTE)) {
                 return transitionFromGATHER_STRING(c);
             } else if (c == '.') {
-                advancePosition(-1); // Back up to beginning of dot symbol
+                inputPos--; // Back up to beginning of dot symbol
                 return transitionFromGATHER_DOT_SYMBOL();
             } else {
-                advancePosition(-1); // Back up to beginning of word
+                inputPos--; // Back up to beginning of word
                 return transitionFromGATHER_WORD();
             }
         }
-        return new Token(TokenType.EOS, "", getTokenLocation());
+        tokenEnd = tokenStart;
+        return token(TokenType.EOS);
     }
 
     private Token transitionFromCOMMENT() {
-        noteStartToken();
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
-            tokenString.append(c);
-            advancePosition(1);
+        startToken(inputPos);
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
+            // The comment includes its newline, but the newline is left in the input
+            tokenEnd = inputPos + 1;
             if (c == '\n') {
-                advancePosition(-1);
                 break;
             }
+            inputPos++;
         }
-        return new Token(TokenType.COMMENT, tokenString.toString(), getTokenLocation());
+        return token(TokenType.COMMENT);
     }
 
     private Token transitionFromSTART_DEFINITION() {
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
-            advancePosition(1);
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
+            inputPos++;
 
-            if (isWhitespace(c)) {
+            if (hasClass(c, WHITESPACE)) {
                 continue;
-            } else if (isQuote(c)) {
+            } else if (hasClass(c, QUOTE)) {
                 throw new InvalidWordNameError(
-                    inputString,
+                    getInputString(),
                     getTokenLocation(),
                     "Definition names can't have quotes in them"
                 );
             } else {
-                advancePosition(-1);
+                inputPos--;
                 return transitionFromGATHER_DEFINITION_NAME();
             }
         }
 
+        if (streaming) {
+            return null;
+        }
         throw new InvalidWordNameError(
-            inputString,
+            getInputString(),
             getTokenLocation(),
             "Got EOS in START_DEFINITION"
         );
     }
 
     private Token transitionFromSTART_MEMO() {
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
-            advancePosition(1);
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
+            inputPos++;
 
-            if (isWhitespace(c)) {
+            if (hasClass(c, WHITESPACE)) {
                 continue;
-            } else if (isQuote(c)) {
+            } else if (hasClass(c, QUOTE)) {
                 throw new InvalidWordNameError(
-                    inputString,
+                    getInputString(),
                     getTokenLocation(),
                     "Memo names can't have quotes in them"
                 );
             } else {
-                advancePosition(-1);
+                inputPos--;
                 return transitionFromGATHER_MEMO_NAME();
             }
         }
 
+        if (streaming) {
+            return null;
+        }
         throw new InvalidWordNameError(
-            inputString,
+            getInputString(),
             getTokenLocation(),
             "Got EOS in START_MEMO"
         );
     }
 
     private void gatherDefinitionName() {
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
-            advancePosition(1);
-            if (isWhitespace(c)) break;
-            if (isQuote(c)) {
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
+            inputPos++;
+            if (hasClass(c, WHITESPACE)) break;
+            if (hasClass(c, QUOTE)) {
                 throw new InvalidWordNameError(
-                    inputString,
+                    getInputString(),
                     getTokenLocation(),
                     "Definition names can't have quotes in them"
                 );
             }
-            if ("[]{};".indexOf(c) >= 0) {
+            if (hasClass(c, INVALID_NAME)) {
                 throw new InvalidWordNameError(
-                    inputString,
+                    getInputString(),
                     getTokenLocation(),
                     "Definition names can't have '" + c + "' in them"
                 );
             }
-            tokenString.append(c);
+            tokenEnd = inputPos;
         }
     }
 
     private Token transitionFromGATHER_DEFINITION_NAME() {
-        noteStartToken();
+        startToken(inputPos);
         gatherDefinitionName();
-        return new Token(TokenType.START_DEF, tokenString.toString(), getTokenLocation());
+        return token(TokenType.START_DEF);
     }
 
     private Token transitionFromGATHER_MEMO_NAME() {
-        noteStartToken();
+        startToken(inputPos);
         gatherDefinitionName();
-        return new Token(TokenType.START_MEMO, tokenString.toString(), getTokenLocation());
+        return token(TokenType.START_MEMO);
     }
 
     private Token transitionFromGATHER_MODULE() {
-        noteStartToken();
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
-            advancePosition(1);
-            if (isWhitespace(c)) break;
-            else if (c == '}') {
-                advancePosition(-1);
+        startToken(inputPos);
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
+            if (c == '}') {
                 break;
-            } else {
-                tokenString.append(c);
             }
+            inputPos++;
+            if (hasClass(c, WHITESPACE)) break;
+            tokenEnd = inputPos;
         }
-        return new Token(TokenType.START_MODULE, tokenString.toString(), getTokenLocation());
+        return token(TokenType.START_MODULE);
     }
 
     private Token transitionFromGATHER_TRIPLE_QUOTE_STRING(char delim) {
-        noteStartToken();
-        stringDelta = new StringDelta(inputPos, inputPos);
+        startToken(inputPos);
+        stringDeltaStart = inputPos;
+        stringDeltaEnd = inputPos;
 
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
             if (c == delim && isTripleQuote(inputPos, c)) {
                 // Check if this triple quote is followed by at least one more quote (greedy mode trigger)
-                if (inputPos + 3 < inputString.length() &&
-                    inputString.charAt(inputPos + 3) == delim) {
+                if (inputPos + 3 < inputLength &&
+                    input.charAt(inputPos + 3) == delim) {
                     // Greedy mode: include this quote as content and continue looking for the end
-                    advancePosition(1); // Advance by 1 to catch overlapping sequences
-                    tokenString.append(delim);
-                    stringDelta.end = inputPos;
+                    inputPos++; // Advance by 1 to catch overlapping sequences
+                    tokenEnd = inputPos;
+                    stringDeltaEnd = inputPos;
                     continue;
                 }
 
                 // Normal behavior: close at first triple quote
-                advancePosition(3);
-                Token token = new Token(TokenType.STRING, tokenString.toString(), getTokenLocation());
-                stringDelta = null;
-                return token;
+                inputPos += 3;
+                stringDeltaStart = -1;
+                return token(TokenType.STRING);
             } else {
-                advancePosition(1);
-                tokenString.append(c);
-                stringDelta.end = inputPos;
+                inputPos++;
+                tokenEnd = inputPos;
+                stringDeltaEnd = inputPos;
             }
         }
 
@@ -376,19 +424,19 @@ public class Tokenizer {
     }
 
     private Token transitionFromGATHER_STRING(char delim) {
-        noteStartToken();
-        stringDelta = new StringDelta(inputPos, inputPos);
+        startToken(inputPos);
+        stringDeltaStart = inputPos;
+        stringDeltaEnd = inputPos;
 
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
-            advancePosition(1);
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
+            inputPos++;
             if (c == delim) {
-                Token token = new Token(TokenType.STRING, tokenString.toString(), getTokenLocation());
-                stringDelta = null;
-                return token;
+                stringDeltaStart = -1;
+                return token(TokenType.STRING);
             } else {
-                tokenString.append(c);
-                stringDelta.end = inputPos;
+                tokenEnd = inputPos;
+                stringDeltaEnd = inputPos;
             }
         }
 
@@ -399,64 +447,64 @@ public class Tokenizer {
     }
 
     private Token transitionFromGATHER_WORD() {
-        noteStartToken();
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
-            advancePosition(1);
-            if (isWhitespace(c)) break;
+        startToken(inputPos);
+        boolean hasT = false;
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
+            if (hasClass(c, WHITESPACE)) {
+                inputPos++;
+                break;
+            }
 
             if (c == '[') {
                 // Special case: if token contains 'T', this is likely a zoned datetime
                 // Include the bracketed timezone as part of the token
-                if (tokenString.toString().contains("T")) {
-                    tokenString.append(c);
-                    // Continue gathering until closing bracket
-                    while (inputPos < inputString.length()) {
-                        char c2 = inputString.charAt(inputPos);
-                        advancePosition(1);
-                        tokenString.append(c2);
-                        if (c2 == ']') {
-                            break;
-                        }
-                    }
-                } else {
+                if (!hasT) {
                     // Otherwise, '[' is a delimiter (for arrays)
-                    advancePosition(-1);
                     break;
                 }
-            } else if (";]{}#".indexOf(c) >= 0) {
-                advancePosition(-1);
+                inputPos++;
+                // Continue gathering until closing bracket
+                while (inputPos < inputLength) {
+                    char c2 = input.charAt(inputPos);
+                    inputPos++;
+                    hasT |= c2 == 'T';
+                    if (c2 == ']') {
+                        break;
+                    }
+                }
+            } else if (hasClass(c, WORD_END)) {
                 break;
             } else {
-                tokenString.append(c);
+                hasT |= c == 'T';
+                inputPos++;
             }
+            tokenEnd = inputPos;
         }
-        return new Token(TokenType.WORD, tokenString.toString(), getTokenLocation());
+        return token(TokenType.WORD);
     }
 
     private Token transitionFromGATHER_DOT_SYMBOL() {
-        noteStartToken();
-        StringBuilder fullTokenString = new StringBuilder();
-        while (inputPos < inputString.length()) {
-            char c = inputString.charAt(inputPos);
-            advancePosition(1);
-            if (isWhitespace(c)) break;
-            if (";[]{}#".indexOf(c) >= 0) {
-                advancePosition(-1);
+        startToken(inputPos);
+        while (inputPos < inputLength) {
+            char c = input.charAt(inputPos);
+            if (hasClass(c, WHITESPACE)) {
+                inputPos++;
+                break;
+            }
+            if (hasClass(c, SYMBOL_END)) {
                 break;
-            } else {
-                fullTokenString.append(c);
-                tokenString.append(c);
             }
+            inputPos++;
+            tokenEnd = inputPos;
         }
 
         // If dot symbol has less than 2 characters after the dot, treat it as a word
-        if (fullTokenString.length() < 3) { // "." + at least 2 chars = 3 minimum
-            return new Token(TokenType.WORD, fullTokenString.toString(), getTokenLocation());
+        if (tokenEnd - tokenStart < 3) { // "." + at least 2 chars = 3 minimum
+            return token(TokenType.WORD);
         }
 
-        // For DOT_SYMBOL, return the string without the dot prefix
-        String symbolWithoutDot = fullTokenString.substring(1);
-        return new Token(TokenType.DOT_SYMBOL, symbolWithoutDot, getTokenLocation());
+        // For DOT_SYMBOL, the string leaves out the dot prefix
+        return new Token(TokenType.DOT_SYMBOL, this, tokenStart + 1, tokenEnd, tokenStart, tokenEnd);
     }
 }
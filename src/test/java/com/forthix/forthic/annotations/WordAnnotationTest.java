@@ -68,6 +68,32 @@ public class WordAnnotationTest {
         assertEquals("Adds two numbers", addDoc.description);
     }
 
+    @Test
+    public void testWordArities() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        ArityModule module = new ArityModule();
+        module.setInterp(interp);
+
+        interp.getAppModule().importModule("", module, interp);
+
+        interp.run("1 2 3 SUM3");
+        assertEquals(6, interp.stackPop());
+
+        // More than three inputs and primitive parameters use the general path
+        interp.run("1 2 3 4 SUM4");
+        assertEquals(10, interp.stackPop());
+        interp.run("20 22 INT-ADD");
+        assertEquals(42, interp.stackPop());
+
+        interp.run("'x' 'y' DISCARD2");
+        assertEquals(0, interp.getStack().length());
+    }
+
+    @Test
+    public void testStackEffectMustMatchParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new MismatchedModule().setInterp(new BareInterpreter()));
+    }
+
     // Test module with annotated words
     static class TestModule extends DecoratedModule {
         public TestModule() {
@@ -89,4 +115,40 @@ public class WordAnnotationTest {
             return ((Number)a).intValue() * ((Number)b).intValue();
         }
     }
+
+    static class ArityModule extends DecoratedModule {
+        public ArityModule() {
+            super("arity");
+        }
+
+        @Word(stackEffect = "( a:number b:number c:number -- sum:number )")
+        public Object SUM3(Object a, Object b, Object c) {
+            return ((Number) a).intValue() + ((Number) b).intValue() + ((Number) c).intValue();
+        }
+
+        @Word(stackEffect = "( a:number b:number c:number d:number -- sum:number )")
+        public Object SUM4(Object a, Object b, Object c, Object d) {
+            return ((Number) a).intValue() + ((Number) b).intValue() + ((Number) c).intValue() + ((Number) d).intValue();
+        }
+
+        @Word(stackEffect = "( a:number b:number -- sum:number )", name = "INT-ADD")
+        public int intAdd(int a, int b) {
+            return a + b;
+        }
+
+        @Word(stackEffect = "( a:any b:any -- )")
+        public void DISCARD2(Object a, Object b) {
+        }
+    }
+
+    static class MismatchedModule extends DecoratedModule {
+        public MismatchedModule() {
+            super("mismatched");
+        }
+
+        @Word(stackEffect = "( a:any b:any -- c:any )")
+        public Object ONE_PARAM(Object a) {
+            return a;
+        }
+    }
 }
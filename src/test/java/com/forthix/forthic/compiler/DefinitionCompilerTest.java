@@ -0,0 +1,148 @@
+package com.forthix.forthic.compiler;
+
+import com.forthix.forthic.errors.WordExecutionError;
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import com.forthix.forthic.module.DefinitionWord;
+import com.forthix.forthic.module.PushValueWord;
+import com.forthix.forthic.module.WordInvokers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefinitionCompilerTest {
+
+    private static final String DEFINITIONS = String.join("\n",
+        "['x' 'items'] VARIABLES",
+        ": SUB-ONE   1 - ;",
+        ": ARITH   10 SUB-ONE 3 - 2 * 4 / ;",
+        ": LEAVE-BELOW   1 2 3 - ;",
+        ": VARS   5 x !  x @ 2 -  x !  x @ ;",
+        ": ARRAYS   [1 2 3] 'SUB-ONE' MAP  [\"a\" \"b\"] ;",
+        ": STRINGS   'abc' 'def' CONCAT  \"x\" DUP ;",
+        ": NESTED   ARITH SUB-ONE LEAVE-BELOW ;");
+
+    private StandardInterpreter interpreted;
+    private StandardInterpreter compiled;
+    private DefinitionCompiler compiler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        interpreted = new StandardInterpreter();
+        interpreted.run(DEFINITIONS);
+
+        compiled = new StandardInterpreter();
+        compiler = new DefinitionCompiler(1);
+        compiled.setDefinitionCompiler(compiler);
+        compiled.run(DEFINITIONS);
+    }
+
+    private List<Object> runBoth(String code) throws Exception {
+        interpreted.run(code);
+        compiled.run(code);
+        List<Object> expected = drain(interpreted);
+        List<Object> actual = drain(compiled);
+        assertEquals(expected, actual, code);
+        return actual;
+    }
+
+    private List<Object> drain(StandardInterpreter interp) {
+        List<Object> result = new ArrayList<>();
+        while (interp.getStack().length() > 0) {
+            result.add(0, interp.stackPop());
+        }
+        return result;
+    }
+
+    private DefinitionWord definition(String name) {
+        return (DefinitionWord) compiled.getAppModule().findWord(name);
+    }
+
+    @Test
+    void testCompiledMatchesInterpreted() throws Exception {
+        for (String name : List.of("ARITH", "LEAVE-BELOW", "VARS", "ARRAYS", "STRINGS", "NESTED")) {
+            // First run compiles, second runs compiled code
+            runBoth(name);
+            assertTrue(definition(name).isCompiled(), name);
+            runBoth(name);
+        }
+        assertEquals(0, compiler.getFailedCount());
+    }
+
+    @Test
+    void testNumericWordsAreCalledDirectly() throws Exception {
+        for (String name : List.of("-", "/", "MOD")) {
+            assertNotNull(WordInvokers.getTarget(compiled.findModule("math").findWord(name)), name);
+        }
+        for (String name : List.of("<", "<=", ">", ">=")) {
+            assertNotNull(WordInvokers.getTarget(compiled.findModule("boolean").findWord(name)), name);
+        }
+        assertEquals(Arrays.asList(true, false, 1.0, null), runBoth("1 2 <  3 2 <=  7 3 MOD  1 0 /"));
+    }
+
+    @Test
+    void testValuesNotConsumedStayOnStack() throws Exception {
+        assertEquals(List.of(1L, -1L), toLongs(runBoth("LEAVE-BELOW LEAVE-BELOW POP POP")));
+        assertEquals(List.of(4L, 1L, -1L), toLongs(runBoth("5 SUB-ONE LEAVE-BELOW")));
+    }
+
+    @Test
+    void testThreshold() throws Exception {
+        StandardInterpreter interp = new StandardInterpreter();
+        interp.setDefinitionCompiler(new DefinitionCompiler(3));
+        interp.run(": F   1 - ;");
+        DefinitionWord word = (DefinitionWord) interp.getAppModule().findWord("F");
+
+        interp.run("10 F F");
+        assertFalse(word.isCompiled());
+        interp.run("F F");
+        assertTrue(word.isCompiled());
+        assertEquals(6L, ((Number) interp.stackPop()).longValue());
+    }
+
+    @Test
+    void testErrorsAreWrappedLikeInterpreted() throws Exception {
+        String code = ": BAD   1 2 'NO-SUCH-WORD' INTERPRET ;";
+        interpreted.run(code);
+        compiled.run(code);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(WordExecutionError.class, () -> interpreted.run("BAD"));
+            assertThrows(WordExecutionError.class, () -> compiled.run("BAD"));
+            assertEquals(drain(interpreted), drain(compiled));
+        }
+        assertTrue(definition("BAD").isCompiled());
+    }
+
+    @Test
+    void testChangingDefinitionDeoptimizes() throws Exception {
+        runBoth("ARITH");
+        DefinitionWord word = definition("ARITH");
+        assertTrue(word.isCompiled());
+
+        word.addWord(new PushValueWord("100", 100L));
+        assertFalse(word.isCompiled());
+        compiled.run("ARITH");
+        assertEquals(100L, compiled.stackPop());
+        assertTrue(word.isCompiled());
+    }
+
+    @Test
+    void testForksShareCompiler() throws Exception {
+        StandardInterpreter fork = compiled.fork();
+        assertSame(compiler, fork.getDefinitionCompiler());
+        fork.run("VARS");
+        assertEquals(3L, ((Number) fork.stackPop()).longValue());
+    }
+
+    private List<Long> toLongs(List<Object> values) {
+        List<Long> result = new ArrayList<>();
+        for (Object value : values) {
+            result.add(((Number) value).longValue());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+package com.forthix.forthic.compiler;
+
+import com.forthix.forthic.errors.ForthicError;
+import com.forthix.forthic.errors.UnknownWordError;
+import com.forthix.forthic.interpreter.BareInterpreter;
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModuleImageTest {
+
+    private static final String LIBRARY = String.join("\n",
+        "# A small library",
+        "['total'] VARIABLES",
+        "0 total !",
+        ": SUB-ONE   1 - ;",
+        ": SCALED   [1 2 3] 'SUB-ONE' MAP  2.5 12345678901 19.99M TRUE ;",
+        "@: ANSWER   42 ;",
+        "{util",
+        "  : GREET   'Hello, ' SWAP CONCAT ;",
+        "}",
+        ": SYMBOL   .name ;",
+        ": ADD-TOTAL   total @ + total ! ;");
+
+    private static final String SCRIPT =
+        "SCALED ANSWER {util 'World' GREET} SYMBOL 5 ADD-TOTAL 7 ADD-TOTAL total @";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testImageRunsLikeSource() throws Exception {
+        StandardInterpreter fromSource = new StandardInterpreter();
+        fromSource.run(LIBRARY);
+        fromSource.run(SCRIPT);
+
+        Path path = tempDir.resolve("library.fimg");
+        ModuleImage.compile(LIBRARY, new StandardInterpreter()).write(path);
+
+        StandardInterpreter fromImage = new StandardInterpreter();
+        fromImage.run(ModuleImage.read(path));
+        fromImage.run(SCRIPT);
+
+        assertEquals(fromSource.getStack().getItems(), fromImage.getStack().getItems());
+        assertEquals(12.0, fromImage.stackPop());
+    }
+
+    @Test
+    void testImageIsAboutSourceSize() throws Exception {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            source.append(": WORD-").append(i).append("   [1 2 3] 'SUB-ONE' MAP  'label' ")
+                .append(i).append(" + .field ;\n");
+        }
+        String library = LIBRARY + "\n" + source;
+        Path path = tempDir.resolve("large.fimg");
+        ModuleImage.compile(library, new StandardInterpreter()).write(path);
+        long imageSize = Files.size(path);
+        int sourceSize = library.getBytes(StandardCharsets.UTF_8).length;
+        // Short tokens and a new literal on every line: the worst case for the image
+        assertTrue(imageSize < 1.25 * sourceSize, "image " + imageSize + " bytes for " + sourceSize + " bytes of source");
+
+        StandardInterpreter fromSource = new StandardInterpreter();
+        fromSource.run(library);
+        fromSource.run("WORD-1999");
+        StandardInterpreter fromImage = new StandardInterpreter();
+        fromImage.run(ModuleImage.read(path));
+        fromImage.run("WORD-1999");
+        assertEquals(fromSource.getStack().getItems(), fromImage.getStack().getItems());
+        assertEquals("field", fromImage.stackPop());
+    }
+
+    @Test
+    void testWordsShadowLiterals() throws Exception {
+        ModuleImage image = ModuleImage.compile(": 2   'two' ;  2", new StandardInterpreter());
+        StandardInterpreter interp = new StandardInterpreter();
+        interp.run(image);
+        assertEquals("two", interp.stackPop());
+    }
+
+    @Test
+    void testErrorsReportSourceLocations() {
+        ModuleImage image = ModuleImage.compile("1 2\n  NOT-A-WORD", new StandardInterpreter());
+        StandardInterpreter interp = new StandardInterpreter();
+        UnknownWordError e = assertThrows(UnknownWordError.class, () -> interp.run(image));
+        assertEquals(2, e.getLocation().getLine());
+        assertEquals(3, e.getLocation().getColumn());
+        assertEquals(List.of(1, 2), interp.getStack().getItems());
+    }
+
+    @Test
+    void testFingerprintMismatch() {
+        ModuleImage image = ModuleImage.compile(": DOUBLE   2 * ;", new StandardInterpreter());
+        assertThrows(ForthicError.class, () -> new BareInterpreter().run(image));
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws Exception {
+        Path path = tempDir.resolve("other.fimg");
+        Files.writeString(path, "not an image");
+        assertThrows(IOException.class, () -> ModuleImage.read(path));
+
+        Path truncated = tempDir.resolve("truncated.fimg");
+        ModuleImage.compile(LIBRARY, new StandardInterpreter()).write(truncated);
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> ModuleImage.read(truncated));
+    }
+}
@@ -1,7 +1,11 @@
 package com.forthix.forthic.interpreter;
 
+import com.forthix.forthic.errors.MissingSemicolonError;
+import com.forthix.forthic.module.CompiledCode;
 import com.forthix.forthic.module.ForthicModule;
+import com.forthix.forthic.module.ForthicWord;
 import org.junit.jupiter.api.Test;
+import java.io.StringReader;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -131,4 +135,181 @@ public class BareInterpreterTest {
         assertEquals(0, interp.getStack().length());
         assertEquals("", interp.curModule().getName());
     }
+
+    @Test
+    public void testCompileIsCached() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        ForthicWord compiled = interp.compile("1 'two' [3]");
+        assertTrue(compiled instanceof CompiledCode);
+        assertSame(compiled, interp.compile("1 'two' [3]"));
+
+        compiled.execute(interp);
+        assertEquals(List.of(3), interp.stackPop());
+        assertEquals("two", interp.stackPop());
+        assertEquals(1, interp.stackPop());
+    }
+
+    @Test
+    public void testCompileSeesRedefinitions() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        interp.run(": VALUE   1 ;");
+        interp.compile("VALUE").execute(interp);
+        assertEquals(1, interp.stackPop());
+
+        interp.run(": VALUE   2 ;");
+        interp.compile("VALUE").execute(interp);
+        assertEquals(2, interp.stackPop());
+    }
+
+    @Test
+    public void testCompileIgnoresOtherInterpreters() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        ForthicWord compiled = interp.compile("1 2");
+
+        BareInterpreter other = new BareInterpreter();
+        other.run(": VALUE   1 ;");
+        assertSame(compiled, interp.compile("1 2"));
+    }
+
+    @Test
+    public void testCompileSeesRegisteredModuleChanges() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        ForthicModule module = new ForthicModule("lib");
+        interp.registerModule(module);
+        interp.run("{lib : VALUE   1 ; }");
+        interp.compile("VALUE").execute(interp);
+        assertEquals(1, interp.stackPop());
+
+        interp.run("{lib : VALUE   2 ; }");
+        interp.compile("VALUE").execute(interp);
+        assertEquals(2, interp.stackPop());
+    }
+
+    @Test
+    public void testCompileFallsBackToRun() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        ForthicWord compiled = interp.compile(": LATER   42 ;  LATER");
+        assertFalse(compiled instanceof CompiledCode);
+
+        compiled.execute(interp);
+        assertEquals(42, interp.stackPop());
+    }
+
+    @Test
+    public void testRedefinitionShadowsEarlierWord() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        interp.run(": A   1 ;  A");
+        interp.run(": A   2 ;  A");
+        assertEquals(2, interp.stackPop());
+        assertEquals(1, interp.stackPop());
+    }
+
+    @Test
+    public void testRegisteredModuleWordsAreResolved() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        interp.run("{module-A   : HELLO   'hi' ; }");
+        interp.run("HELLO");
+        assertEquals("hi", interp.stackPop());
+
+        // A word added to the app module later takes precedence
+        interp.run(": HELLO   'app' ;  HELLO");
+        assertEquals("app", interp.stackPop());
+    }
+
+    @Test
+    public void testNumberLiterals() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        interp.run("42 -10 0 2147483647 2147483648 -9223372036854775808 123456789012345678901234");
+        assertEquals(new java.math.BigInteger("123456789012345678901234"), interp.stackPop());
+        assertEquals(Long.MIN_VALUE, interp.stackPop());
+        assertEquals(2147483648L, interp.stackPop());
+        assertEquals(2147483647, interp.stackPop());
+        assertEquals(0, interp.stackPop());
+        assertEquals(-10, interp.stackPop());
+        assertEquals(42, interp.stackPop());
+
+        interp.run("3.14 -2.5 .5 1. 1.5e3 19.99M 100M TRUE FALSE");
+        assertEquals(false, interp.stackPop());
+        assertEquals(true, interp.stackPop());
+        assertEquals(new java.math.BigDecimal("100"), interp.stackPop());
+        assertEquals(new java.math.BigDecimal("19.99"), interp.stackPop());
+        assertEquals(1500.0, interp.stackPop());
+        assertEquals(1.0, interp.stackPop());
+        assertEquals(0.5, interp.stackPop());
+        assertEquals(-2.5, interp.stackPop());
+        assertEquals(3.14, interp.stackPop());
+
+        // Not literals
+        for (String token : List.of("007", "-0", "+5", "1e5", "1.5e", "-", ".", "1-2", "TRUEISH", "12abc")) {
+            assertThrows(Exception.class, () -> interp.run(token), token);
+        }
+    }
+
+    @Test
+    public void testLiteralWordsAreShared() throws Exception {
+        BareInterpreter interp = new BareInterpreter();
+        interp.run("12345678901 12345678901");
+        assertSame(interp.stackPop(), interp.stackPop());
+    }
+
+    @Test
+    public void testRunChunksMatchesRun() throws Exception {
+        String script = ": DOUBLE   2 * ;  [1 2 3] \"DOUBLE\" MAP  '''it's'''  'a b' \"c\" CONCAT  # comment\n"
+            + "@: TEN 10 ;  TEN 2.5 +  .symbol  [[\"k\" 1]] REC \"k\" REC@  ''";
+        StandardInterpreter whole = new StandardInterpreter();
+        whole.run(script);
+        List<Object> expected = whole.getStack().getItems();
+
+        for (int size = 1; size <= 7; size++) {
+            StandardInterpreter interp = new StandardInterpreter();
+            for (int i = 0; i < script.length(); i += size) {
+                interp.runChunk(script.substring(i, Math.min(script.length(), i + size)));
+            }
+            interp.endChunks();
+            assertEquals(expected, interp.getStack().getItems(), "chunk size " + size);
+        }
+    }
+
+    @Test
+    public void testRunChunkExecutesCompleteTokens() throws Exception {
+        StandardInterpreter interp = new StandardInterpreter();
+        interp.runChunk("1 2 + 'par");
+        assertEquals(1, interp.getStack().length());
+        assertEquals(3.0, interp.stackPop());
+        interp.runChunk("tial' 10");
+        assertEquals("partial", interp.stackPop());
+        interp.endChunks();
+        assertEquals(10, interp.stackPop());
+    }
+
+    @Test
+    public void testRunChunksMissingSemicolon() throws Exception {
+        StandardInterpreter interp = new StandardInterpreter();
+        interp.runChunk(": NEVER-ENDS 1 ");
+        assertThrows(MissingSemicolonError.class, () -> interp.endChunks());
+    }
+
+    @Test
+    public void testRunReader() throws Exception {
+        StandardInterpreter interp = new StandardInterpreter();
+        interp.run(new StringReader(": SQUARE   DUP * ;  [1 2 3] \"SQUARE\" MAP"));
+        assertEquals(List.of(1.0, 4.0, 9.0), interp.stackPop());
+    }
+
+    @Test
+    public void testRunReaderAfterError() throws Exception {
+        StandardInterpreter interp = new StandardInterpreter();
+        assertThrows(Exception.class, () -> interp.run(new StringReader("1 2 NOT-A-WORD 3")));
+        interp.run(new StringReader("100"));
+        assertEquals(List.of(1, 2, 100), interp.getStack().getItems());
+    }
+
+    @Test
+    public void testRunChunkAfterError() throws Exception {
+        StandardInterpreter interp = new StandardInterpreter();
+        assertThrows(Exception.class, () -> interp.runChunk("NOT-A-WORD 'held"));
+        interp.runChunk("5");
+        interp.endChunks();
+        assertEquals(List.of(5), interp.getStack().getItems());
+    }
 }
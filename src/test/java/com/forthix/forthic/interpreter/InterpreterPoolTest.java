@@ -0,0 +1,133 @@
+package com.forthix.forthic.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterpreterPoolTest {
+
+    private StandardInterpreter prototype() throws Exception {
+        StandardInterpreter interp = new StandardInterpreter();
+        interp.run("['total'] VARIABLES  0 total !");
+        interp.run(": ADD-TO-TOTAL   total @ + total ! ;");
+        interp.run(": DOUBLE   2 * ;");
+        return interp;
+    }
+
+    @Test
+    void testForkUsesPrototypeDefinitions() throws Exception {
+        StandardInterpreter fork = prototype().fork();
+        fork.run("21 DOUBLE");
+        assertEquals(42L, ((Number) fork.stackPop()).longValue());
+        assertTrue(fork.isFork());
+        assertEquals("UTC", fork.getTimezone());
+    }
+
+    @Test
+    void testForkHasPrivateStackAndVariables() throws Exception {
+        StandardInterpreter prototype = prototype();
+        StandardInterpreter fork1 = prototype.fork();
+        StandardInterpreter fork2 = prototype.fork();
+
+        fork1.run("5 ADD-TO-TOTAL  5 ADD-TO-TOTAL  total @");
+        fork2.run("1 ADD-TO-TOTAL  total @");
+
+        assertEquals(10L, ((Number) fork1.stackPop()).longValue());
+        assertEquals(1L, ((Number) fork2.stackPop()).longValue());
+        assertEquals(0, fork1.getStack().length());
+
+        prototype.run("total @");
+        assertEquals(0L, ((Number) prototype.stackPop()).longValue());
+    }
+
+    @Test
+    void testSharedModulesActOnRunningFork() throws Exception {
+        StandardInterpreter fork = prototype().fork();
+        // MAP and VARIABLES are decorated words shared with the prototype
+        fork.run("[1 2 3] 'DOUBLE' MAP");
+        assertEquals(List.of(2L, 4L, 6L), toLongs(fork.stackPop()));
+
+        fork.run("['local'] VARIABLES  7 local !  local @");
+        assertEquals(7L, ((Number) fork.stackPop()).longValue());
+        assertNotNull(fork.getAppModule().getVariables().get("local"));
+    }
+
+    @Test
+    void testDefinitionsInForkDontLeak() throws Exception {
+        StandardInterpreter prototype = prototype();
+        StandardInterpreter fork = prototype.fork();
+        fork.run(": TRIPLE   3 * ;  2 TRIPLE");
+        assertEquals(6L, ((Number) fork.stackPop()).longValue());
+
+        assertThrows(Exception.class, () -> prototype.fork().run("2 TRIPLE"));
+    }
+
+    @Test
+    void testPoolReusesRestoredForks() throws Exception {
+        InterpreterPool<StandardInterpreter> pool = new InterpreterPool<>(prototype(), 2);
+
+        StandardInterpreter interp = pool.acquire();
+        interp.run("3 ADD-TO-TOTAL  99");
+        pool.release(interp);
+        assertEquals(1, pool.getIdleCount());
+
+        StandardInterpreter again = pool.acquire();
+        assertSame(interp, again);
+        assertEquals(0, again.getStack().length());
+        again.run("total @");
+        assertEquals(0L, ((Number) again.stackPop()).longValue());
+    }
+
+    @Test
+    void testPoolDropsChangedForks() throws Exception {
+        InterpreterPool<StandardInterpreter> pool = new InterpreterPool<>(prototype(), 2);
+
+        StandardInterpreter interp = pool.acquire();
+        interp.run(": NEW-WORD   1 ;");
+        pool.release(interp);
+        assertEquals(0, pool.getIdleCount());
+        assertNotSame(interp, pool.acquire());
+    }
+
+    @Test
+    void testPoolRejectsForeignInterpreter() throws Exception {
+        InterpreterPool<StandardInterpreter> pool = new InterpreterPool<>(prototype());
+        assertThrows(IllegalArgumentException.class, () -> pool.release(new StandardInterpreter().fork()));
+    }
+
+    @Test
+    void testConcurrentForks() throws Exception {
+        InterpreterPool<StandardInterpreter> pool = new InterpreterPool<>(prototype());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final int n = i;
+                futures.add(executor.submit(() -> pool.withInterpreter(interp -> {
+                    interp.stackPush(n);
+                    interp.run("[1 2 3] 'DOUBLE' MAP '+' 0 SWAP REDUCE +  ADD-TO-TOTAL  total @");
+                    return ((Number) interp.stackPop()).longValue();
+                })));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i + 12L, futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<Long> toLongs(Object value) {
+        List<Long> result = new ArrayList<>();
+        for (Object item : (List<?>) value) {
+            result.add(((Number) item).longValue());
+        }
+        return result;
+    }
+}
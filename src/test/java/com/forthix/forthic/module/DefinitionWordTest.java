@@ -0,0 +1,76 @@
+package com.forthix.forthic.module;
+
+import com.forthix.forthic.compiler.DefinitionCompiler;
+import com.forthix.forthic.errors.WordExecutionError;
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefinitionWordTest {
+
+    private StandardInterpreter interp;
+
+    @BeforeEach
+    void setUp() {
+        interp = new StandardInterpreter();
+    }
+
+    @Test
+    void testThreadedBody() throws Exception {
+        interp.run(String.join("\n",
+            "['x'] VARIABLES",
+            "{util  : ADD-ONE   1 + ;  }",
+            ": INNER   [1 [2 3] .sym] ;",
+            ": OUTER   INNER  5 x !  x @  {util 2 ADD-ONE}  'str' ;"));
+        interp.run("OUTER OUTER");
+        assertEquals(List.of(List.of(1, List.of(2, 3), "sym"), 5, 3.0, "str"),
+            interp.getStack().getItems().subList(4, 8));
+        assertEquals("", interp.curModule().getName());
+    }
+
+    @Test
+    void testChangingBodyRelowers() throws Exception {
+        interp.run(": F   1 ;  F");
+        DefinitionWord word = (DefinitionWord) interp.getAppModule().findWord("F");
+        word.addWord(new PushValueWord("2", 2));
+        interp.run("F");
+        assertEquals(List.of(1, 1, 2), interp.getStack().getItems());
+    }
+
+    @Test
+    void testFixedArityWords() throws Exception {
+        interp.run("['k'] VARIABLES  : CMP   1 2 ==  'a' 'a' ==  7 k !  k @ ;  CMP");
+        assertEquals(List.of(false, true, 7), interp.getStack().getItems());
+    }
+
+    @Test
+    void testErrorsReportFailingWordLocation() throws Exception {
+        assertFailsAtSecondPop();
+    }
+
+    @Test
+    void testCompiledErrorsReportFailingWordLocation() throws Exception {
+        DefinitionCompiler compiler = new DefinitionCompiler(1);
+        interp.setDefinitionCompiler(compiler);
+        assertFailsAtSecondPop();
+        assertEquals(1, compiler.getCompiledCount());
+    }
+
+    @Test
+    void testProfiledErrorsReportFailingWordLocation() throws Exception {
+        interp.run("PROFILE-START");
+        assertFailsAtSecondPop();
+    }
+
+    private void assertFailsAtSecondPop() throws Exception {
+        interp.run(": BAD   1\n   POP POP  'ok' ;");
+        WordExecutionError e = assertThrows(WordExecutionError.class, () -> interp.run("BAD  'BAD' INTERPRET"));
+        assertEquals("Error executing BAD", e.getNote());
+        assertEquals(2, e.getLocation().getLine());
+        assertEquals(8, e.getLocation().getColumn());
+    }
+}
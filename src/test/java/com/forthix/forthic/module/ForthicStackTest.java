@@ -0,0 +1,92 @@
+package com.forthix.forthic.module;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForthicStackTest {
+
+    @Test
+    void testPrimitivesPopAsBoxedTypes() {
+        ForthicStack stack = new ForthicStack();
+        stack.push("a");
+        stack.push(1);
+        stack.pushDouble(3.5);
+
+        assertEquals(Arrays.asList("a", 1, 3.5), stack.getItems());
+        assertEquals(3.5, stack.pop());
+        assertEquals(1, stack.pop());
+        assertEquals("a", stack.pop());
+        assertNull(stack.pop());
+    }
+
+    @Test
+    void testHasNumbers() {
+        ForthicStack stack = new ForthicStack();
+        stack.push("a");
+        stack.pushDouble(1.5);
+        stack.push(2);
+        assertTrue(stack.hasNumbers(2));
+        assertFalse(stack.hasNumbers(3));
+
+        assertEquals(2.0, stack.popDouble());
+        assertEquals(1.5, stack.popDouble());
+        assertEquals(1, stack.length());
+    }
+
+    @Test
+    void testGrowsAndKeepsLanes() {
+        ForthicStack stack = new ForthicStack();
+        for (int i = 0; i < 100; i++) {
+            if (i % 2 == 0) {
+                stack.push(i);
+            } else {
+                stack.pushDouble(i);
+            }
+        }
+        ForthicStack copy = stack.dup();
+        stack.drop();
+        assertEquals(99, stack.length());
+        assertEquals(100, copy.length());
+        assertEquals(99.0, copy.pop());
+        assertEquals(98, copy.pop());
+    }
+
+    @Test
+    void testDupAndSwapKeepRepresentation() {
+        ForthicStack stack = new ForthicStack();
+        stack.push("a");
+        stack.pushDouble(2.0);
+        stack.swapTop();
+        assertEquals(Arrays.asList(2.0, "a"), stack.getItems());
+        stack.swapTop();
+        stack.dupTop();
+        assertEquals(Arrays.asList("a", 2.0, 2.0), stack.getItems());
+        assertTrue(stack.hasNumbers(2));
+    }
+
+    @Test
+    void testSetRawItems() {
+        ForthicStack stack = new ForthicStack();
+        stack.pushDouble(5);
+        List<Object> items = new ArrayList<>(Arrays.asList(1, "b", null));
+        stack.setRawItems(items);
+        assertEquals(items, stack.getRawItems());
+    }
+
+    @Test
+    void testNumericWordsStayUnboxed() throws Exception {
+        StandardInterpreter interp = new StandardInterpreter();
+        interp.run("1 2 + 3 * DUP 4 - SWAP 2 / >");
+        assertEquals(Boolean.TRUE, interp.stackPop());
+
+        interp.run("7 2 MOD 'x' 1 SWAP POP");
+        assertEquals(1, interp.stackPop());
+        assertEquals(1.0, interp.stackPop());
+    }
+}
@@ -0,0 +1,119 @@
+package com.forthix.forthic.module;
+
+import com.forthix.forthic.interpreter.BareInterpreter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoWordTest {
+
+    /**
+     * Definition that counts how often it runs and pushes the count
+     */
+    static class CountingWord extends ForthicWord {
+        final AtomicInteger calls = new AtomicInteger();
+        final long delayMillis;
+
+        CountingWord(long delayMillis) {
+            super("COUNTED");
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void execute(BareInterpreter interp) throws Exception {
+            int count = calls.incrementAndGet();
+            Thread.sleep(delayMillis);
+            interp.stackPush(count);
+        }
+    }
+
+    @Test
+    void testConcurrentFirstCallersShareOneComputation() throws Exception {
+        CountingWord definition = new CountingWord(100);
+        MemoWord memo = new MemoWord(definition);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return memo.getValue(new BareInterpreter());
+            }));
+        }
+        start.countDown();
+
+        for (Future<Object> result : results) {
+            assertEquals(1, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, definition.calls.get());
+    }
+
+    @Test
+    void testTtlExpiresValue() throws Exception {
+        CountingWord definition = new CountingWord(0);
+        MemoWord memo = new MemoWord(definition);
+        memo.setTtl(Duration.ofMillis(20));
+        BareInterpreter interp = new BareInterpreter();
+
+        assertEquals(1, memo.getValue(interp));
+        assertEquals(1, memo.getValue(interp));
+        Thread.sleep(40);
+        assertEquals(2, memo.getValue(interp));
+        assertEquals(1, memo.getHitCount());
+        assertEquals(2, memo.getMissCount());
+    }
+
+    @Test
+    void testFailedComputationIsNotCached() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        MemoWord memo = new MemoWord(new ForthicWord("FLAKY") {
+            @Override
+            public void execute(BareInterpreter interp) {
+                if (calls.incrementAndGet() == 1) {
+                    throw new IllegalStateException("first call fails");
+                }
+                interp.stackPush("ok");
+            }
+        });
+        BareInterpreter interp = new BareInterpreter();
+
+        assertThrows(IllegalStateException.class, () -> memo.getValue(interp));
+        assertEquals("ok", memo.getValue(interp));
+    }
+
+    @Test
+    void testInvalidateDuringComputationDiscardsResult() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        MemoWord[] memo = new MemoWord[1];
+        memo[0] = new MemoWord(new ForthicWord("CHANGING") {
+            @Override
+            public void execute(BareInterpreter interp) {
+                int count = calls.incrementAndGet();
+                if (count == 1) {
+                    // The data changes while the first value is being computed
+                    memo[0].invalidate();
+                }
+                interp.stackPush(count);
+            }
+        });
+        BareInterpreter interp = new BareInterpreter();
+
+        assertEquals(1, memo[0].getValue(interp));
+        assertFalse(memo[0].hasValue());
+        assertEquals(2, memo[0].getValue(interp));
+        assertEquals(2, memo[0].getValue(interp));
+    }
+}
@@ -2,13 +2,16 @@ package com.forthix.forthic.modules;
 
 import com.forthix.forthic.errors.InvalidVariableNameError;
 import com.forthix.forthic.interpreter.Interpreter;
+import com.forthix.forthic.interpreter.StandardInterpreter;
 import com.forthix.forthic.module.Variable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -212,4 +215,88 @@ public class CoreModuleTest {
             System.setOut(originalOut);
         }
     }
+
+    // ========================================
+    // Memos
+    // ========================================
+
+    @Test
+    public void testMemoWords() throws Exception {
+        interp.run("@: DATA   [1 2 3] ;");
+        interp.run("DATA DATA");
+        Object second = interp.stackPop();
+        Object first = interp.stackPop();
+        assertEquals(List.of(1, 2, 3), first);
+        assertSame(first, second);
+
+        // DATA! recomputes without pushing; DATA!@ recomputes and pushes
+        interp.run("DATA!");
+        assertEquals(0, interp.getStack().length());
+        interp.run("DATA");
+        assertNotSame(first, interp.stackPop());
+
+        interp.run("DATA!@ DATA");
+        assertSame(interp.stackPop(), interp.stackPop());
+    }
+
+    @Test
+    public void testMemoInvalidateAndStats() throws Exception {
+        interp.run("@: DATA   [1 2 3] ;");
+        interp.run("DATA DATA POP POP");
+        interp.run("'DATA' MEMO-STATS");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) interp.stackPop();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(true, stats.get("cached"));
+
+        interp.run("'DATA' MEMO-INVALIDATE 'DATA' MEMO-STATS");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> after = (Map<String, Object>) interp.stackPop();
+        assertEquals(false, after.get("cached"));
+    }
+
+    @Test
+    public void testProfile() throws Exception {
+        // Standard words, so top-level words like + and MAP are profiled too
+        interp = new StandardInterpreter();
+        interp.run(": INNER   1 2 SWAP POP POP ;");
+        interp.run(": OUTER   INNER INNER ;");
+        interp.run("PROFILE-START OUTER 'mid' PROFILE-TIMESTAMP OUTER  3 4 + POP  [1 2 3] '2 *' MAP POP  PROFILE-END OUTER");
+        interp.run("PROFILE-DATA");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) interp.stackPop();
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> words = (List<Map<String, Object>>) data.get("words");
+        Map<String, Map<String, Object>> byWord = new HashMap<>();
+        for (Map<String, Object> record : words) {
+            byWord.put((String) record.get("word"), record);
+        }
+        assertEquals(2L, byWord.get("OUTER").get("calls"));
+        assertEquals(4L, byWord.get("INNER").get("calls"));
+        assertEquals(4L, byWord.get("SWAP").get("calls"));
+        assertNull(byWord.get("1"));
+        assertEquals(1L, byWord.get("+").get("calls"));
+        assertEquals(1L, byWord.get("MAP").get("calls"));
+        assertEquals(3L, byWord.get("*").get("calls"));
+
+        Map<String, Object> outer = byWord.get("OUTER");
+        assertTrue((Long) outer.get("inclusive_ns") >= (Long) byWord.get("INNER").get("inclusive_ns"));
+        assertTrue((Long) outer.get("exclusive_ns") <= (Long) outer.get("inclusive_ns"));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> timestamps = (List<Map<String, Object>>) data.get("timestamps");
+        assertEquals(1, timestamps.size());
+        assertEquals("mid", timestamps.get(0).get("label"));
+    }
+
+    @Test
+    public void testProfileDataWithoutProfile() throws Exception {
+        interp.run("PROFILE-DATA");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) interp.stackPop();
+        assertEquals(List.of(), data.get("words"));
+        assertEquals(List.of(), data.get("timestamps"));
+    }
 }
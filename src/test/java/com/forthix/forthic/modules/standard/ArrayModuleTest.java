@@ -0,0 +1,217 @@
+package com.forthix.forthic.modules.standard;
+
+import com.forthix.forthic.interpreter.BareInterpreter;
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayModuleTest {
+
+    private StandardInterpreter interp;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        interp = new StandardInterpreter();
+        pool = new ForkJoinPool(4);
+        ((ArrayModule) interp.findModule("array")).setParallelPool(pool);
+        interp.run("['offset'] VARIABLES  10 offset !");
+        interp.run(": ADD-OFFSET   offset @ + ;");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    private String range(int n) {
+        StringBuilder result = new StringBuilder("[");
+        for (int i = 0; i < n; i++) {
+            result.append(' ').append(i);
+        }
+        return result.append(" ]").toString();
+    }
+
+    // ===== Set Operations =====
+
+    @Test
+    void testDifferenceAndIntersectionOnLargeArrays() throws Exception {
+        interp.run(range(1000) + " " + range(500) + " DIFFERENCE");
+        @SuppressWarnings("unchecked")
+        List<Object> difference = (List<Object>) interp.stackPop();
+        assertEquals(500, difference.size());
+        assertEquals(500, difference.get(0));
+
+        interp.run(range(1000) + " " + range(500) + " \"3 *\" MAP INTERSECTION LENGTH");
+        assertEquals(334, interp.stackPop());
+    }
+
+    @Test
+    void testSetOperationsCompareNumbersByValue() throws Exception {
+        interp.run("[1 2 3] [2.0] DIFFERENCE  [1 2 3] [3.0] INTERSECTION");
+        assertEquals(List.of(3), interp.stackPop());
+        assertEquals(List.of(1, 3), interp.stackPop());
+    }
+
+    @Test
+    void testToSET() throws Exception {
+        interp.run("[1 1.0 'a' 'a' 2] >SET");
+        Object set = interp.stackPop();
+        assertTrue(set instanceof ValueSet);
+        assertEquals(List.of(1, "a", 2), new ArrayList<>((ValueSet) set));
+
+        interp.run(range(100) + " [1 2 3] >SET DIFFERENCE LENGTH");
+        assertEquals(97, interp.stackPop());
+    }
+
+    // ===== Lazy Sequences =====
+
+    @Test
+    void testSeqStagesAreFusedAndShortCircuit() throws Exception {
+        interp.run("['calls'] VARIABLES  0 calls !");
+        interp.run(range(100000) + " >SEQ \"calls @ 1 + calls ! 2 *\" MAP \"3 MOD 1 <\" SELECT 1 DROP 3 TAKE");
+        Object seq = interp.stackPop();
+        assertTrue(seq instanceof Seq);
+        interp.run("calls @");
+        assertEquals(0, interp.stackPop());
+
+        assertEquals(List.of(6.0, 12.0, 18.0), new ArrayList<>((Seq) seq));
+        interp.run("calls @");
+        assertEquals(10.0, interp.stackPop());
+    }
+
+    @Test
+    void testSeqStagesRunOnTraversingInterpreter() throws Exception {
+        BareInterpreter builder = interp.fork();
+        BareInterpreter reader = interp.fork();
+        builder.run("5 offset !  [1 2 3] >SEQ \"ADD-OFFSET\" MAP \"7 <\" SELECT");
+        Object seq = builder.stackPop();
+
+        reader.run("0 offset !");
+        reader.stackPush(seq);
+        reader.run(">ARRAY");
+        assertEquals(List.of(1.0, 2.0, 3.0), reader.stackPop());
+    }
+
+    @Test
+    void testSeqMatchesEagerWords() throws Exception {
+        String pipeline = " \"1 +\" MAP [[1 2] 3] APPEND FLATTEN UNIQUE 2 DROP 5 TAKE";
+        interp.run("[1 1 2 3 5 8]" + pipeline);
+        Object expected = interp.stackPop();
+        interp.run("[1 1 2 3 5 8] >SEQ" + pipeline + " >ARRAY");
+        assertEquals(expected, interp.stackPop());
+    }
+
+    @Test
+    void testSeqWorksWithListWords() throws Exception {
+        interp.run("[3 1 2] >SEQ \"10 *\" MAP DUP LENGTH SWAP SORT");
+        assertEquals(List.of(10.0, 20.0, 30.0), interp.stackPop());
+        assertEquals(3, interp.stackPop());
+
+        interp.run("[1 2 3] >SEQ 0 \"+\" REDUCE");
+        assertEquals(6.0, interp.stackPop());
+    }
+
+    @Test
+    void testSeqSources() throws Exception {
+        Path file = Files.createTempFile("seq", ".txt");
+        try {
+            Files.write(file, List.of("alpha", "beta", "gamma", "delta"));
+            interp.stackPush(Seq.lines(file, StandardCharsets.UTF_8));
+            interp.run("\"LOWERCASE\" MAP 2 TAKE >ARRAY");
+            assertEquals(List.of("alpha", "beta"), interp.stackPop());
+        } finally {
+            Files.delete(file);
+        }
+
+        Seq once = Seq.fromIterator(List.of(1, 2, 3).iterator());
+        interp.stackPush(once);
+        interp.run("\"2 *\" MAP >ARRAY");
+        assertEquals(List.of(2.0, 4.0, 6.0), interp.stackPop());
+        assertThrows(IllegalStateException.class, once::size);
+    }
+
+    // ===== Parallel Operations =====
+
+    @Test
+    void testPMAPMatchesMAP() throws Exception {
+        String code = range(1000) + " \"ADD-OFFSET 2 *\"";
+        interp.run(code + " MAP");
+        Object expected = interp.stackPop();
+        interp.run(code + " PMAP");
+        assertEquals(expected, interp.stackPop());
+    }
+
+    @Test
+    void testPMAPRecord() throws Exception {
+        interp.run("[['a' 1] ['b' 2] ['c' 3]] REC \"ADD-OFFSET\" PMAP");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> result = (Map<String, Object>) interp.stackPop();
+        assertEquals(List.of("a", "b", "c"), new ArrayList<>(result.keySet()));
+        assertEquals(13.0, result.get("c"));
+    }
+
+    @Test
+    void testPSELECTKeepsOrder() throws Exception {
+        interp.run(range(500) + " \"3 MOD 1 <\" PSELECT");
+        interp.run(range(500) + " \"3 MOD 1 <\" SELECT");
+        assertEquals(interp.stackPop(), interp.stackPop());
+    }
+
+    @Test
+    void testPGROUPBY() throws Exception {
+        interp.run(range(100) + " \"2 MOD\" PGROUP-BY");
+        @SuppressWarnings("unchecked")
+        Map<String, List<Object>> result = (Map<String, List<Object>>) interp.stackPop();
+        assertEquals(50, result.get("0.0").size());
+        assertEquals(1, result.get("1.0").get(0));
+    }
+
+    @Test
+    void testSeesVariablesAndLeavesThemUnchanged() throws Exception {
+        interp.run("20 offset !  " + range(100) + " \"ADD-OFFSET\" PMAP LAST");
+        assertEquals(119.0, interp.stackPop());
+
+        // Each worker sets its own fork's variable
+        interp.run(range(100) + " \"99 offset ! ADD-OFFSET\" PMAP LAST  offset @");
+        assertEquals(20, interp.stackPop());
+        assertEquals(198.0, interp.stackPop());
+    }
+
+    @Test
+    void testRunsInCurrentModule() throws Exception {
+        interp.run(": TRIPLE   0 * ;  {calc : TRIPLE   3 * ; " + range(100) + " \"TRIPLE\" PMAP LAST}");
+        assertEquals(297.0, interp.stackPop());
+    }
+
+    @Test
+    void testNested() throws Exception {
+        interp.run("[[1 2] [3 4] [5 6]] \"'ADD-OFFSET' PMAP\" PMAP");
+        assertEquals(List.of(List.of(11.0, 12.0), List.of(13.0, 14.0), List.of(15.0, 16.0)), interp.stackPop());
+    }
+
+    @Test
+    void testErrorsAreRethrown() {
+        Exception expected = assertThrows(Exception.class, () -> interp.run(range(100) + " \"NO-SUCH-WORD\" MAP"));
+        Exception actual = assertThrows(Exception.class, () -> interp.run(range(100) + " \"NO-SUCH-WORD\" PMAP"));
+        assertEquals(expected.getClass(), actual.getClass());
+    }
+
+    @Test
+    void testNonContainers() throws Exception {
+        interp.run("NULL 'ADD-OFFSET' PMAP  [] 'ADD-OFFSET' PSELECT");
+        assertEquals(List.of(), interp.stackPop());
+        assertEquals(List.of(), interp.stackPop());
+    }
+}
@@ -240,6 +240,25 @@ class BooleanModuleTest {
         assertEquals(false, interp.stackPop());
     }
 
+    @Test
+    void testMembershipComparesNumbersByValue() throws Exception {
+        interp.run("1 2 + [3 4] IN  1.0 [1 2] IN  [1 2] [2.0] ALL  [1.5] [1 2] ANY");
+        assertEquals(false, interp.stackPop());
+        assertEquals(true, interp.stackPop());
+        assertEquals(true, interp.stackPop());
+        assertEquals(true, interp.stackPop());
+    }
+
+    @Test
+    void testMembershipWithSets() throws Exception {
+        interp.run("['sets'] VARIABLES  ['a' 'b' 1] >SET sets !");
+        interp.run("'b' sets @ IN  2 sets @ IN  ['x' 1.0] sets @ ANY  sets @ ['a' 1] ALL");
+        assertEquals(true, interp.stackPop());
+        assertEquals(true, interp.stackPop());
+        assertEquals(false, interp.stackPop());
+        assertEquals(true, interp.stackPop());
+    }
+
     // ========================================
     // Type Conversion
     // ========================================
@@ -0,0 +1,103 @@
+package com.forthix.forthic.modules.standard;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateTimeModuleTest {
+
+    private StandardInterpreter interp;
+
+    @BeforeEach
+    void setUp() {
+        interp = new StandardInterpreter("America/New_York");
+    }
+
+    @Test
+    void testToDate() throws Exception {
+        interp.run("'2024-03-15' >DATE");
+        assertEquals(LocalDate.of(2024, 3, 15), interp.stackPop());
+
+        interp.run("'2024/03/15' >DATE");
+        assertEquals(LocalDate.of(2024, 3, 15), interp.stackPop());
+
+        interp.run("'03/15/2024' >DATE");
+        assertEquals(LocalDate.of(2024, 3, 15), interp.stackPop());
+
+        interp.run("'15/03/2024' >DATE");
+        assertEquals(LocalDate.of(2024, 3, 15), interp.stackPop());
+
+        interp.run("'3/5/2024' >DATE");
+        assertEquals(LocalDate.of(2024, 3, 5), interp.stackPop());
+
+        interp.run("'2024-02-30' >DATE");
+        assertNull(interp.stackPop());
+
+        interp.run("'not a date' >DATE");
+        assertNull(interp.stackPop());
+    }
+
+    @Test
+    void testDateParserMatchesFormatters() {
+        List<String> inputs = Arrays.asList(
+                "2024-03-15", "2024-02-29", "2023-02-29", "2024-13-01", "2024-3-15", "02024-03-15",
+                "2024/03/15", "2024/02/31", "2024/00/10", "2024/3/15",
+                "03/15/2024", "15/03/2024", "02/30/2023", "31/04/2023", "13/13/2023",
+                "3/5/2024", "12/31/1999", "1/32/2024", "03/15/24", "a3/15/2024", "", "//",
+                // Year, M and d widths and signs
+                "04/29/89003", "6/6/07923", "2/020/7573", "012/6/9580", "0000000000000000003/1/2024",
+                "+11520-03-15", "+11520/03/15", "3/15/+11520", "3/15/+1152", "1/1/+00005", "1/1/+12345678901",
+                "-0001-03-15", "-0000-03-15", "0000-03-15", "0000/03/15", "+00000-01-01", "+1/2/2024", "-1/2/2024");
+        for (String input : inputs) {
+            assertEquals(withFormatters(input), DateParser.parseAny(input), input);
+        }
+        assertNull(DateParser.parseAny("04/29/89003"));
+        assertEquals(LocalDate.of(9580, 12, 6), DateParser.parseAny("012/6/9580"));
+        assertEquals(LocalDate.of(11520, 3, 15), DateParser.parseAny("+11520-03-15"));
+    }
+
+    // How >DATE read dates with DateTimeFormatter
+    private static LocalDate withFormatters(String str) {
+        try {
+            return LocalDate.parse(str);
+        } catch (DateTimeParseException e) {
+            for (String format : new String[]{"yyyy/MM/dd", "MM/dd/yyyy", "dd/MM/yyyy", "M/d/yyyy"}) {
+                try {
+                    return LocalDate.parse(str, DateTimeFormatter.ofPattern(format));
+                } catch (DateTimeParseException ignored) {
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testToDates() throws Exception {
+        // The third date makes the column day-first, so the first is 2 January
+        interp.run("['01/02/2024' '05/06/2024' '13/06/2024' NULL 'bad' '2024-01-09'] >DATES");
+        assertEquals(Arrays.asList(
+                LocalDate.of(2024, 2, 1),
+                LocalDate.of(2024, 6, 5),
+                LocalDate.of(2024, 6, 13),
+                null,
+                null,
+                LocalDate.of(2024, 1, 9)), interp.stackPop());
+
+        interp.run("['2024-01-02' '2024-01-03'] >DATES");
+        assertEquals(List.of(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3)), interp.stackPop());
+    }
+
+    @Test
+    void testZoneIsReused() throws Exception {
+        assertSame(interp.getZoneId(), interp.getZoneId());
+        assertSame(interp.getZoneId(), interp.fork().getZoneId());
+    }
+}
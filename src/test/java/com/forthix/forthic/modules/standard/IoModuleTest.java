@@ -0,0 +1,99 @@
+package com.forthix.forthic.modules.standard;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IoModuleTest {
+
+    @TempDir
+    Path dir;
+
+    private StandardInterpreter interp;
+    private IoModule io;
+
+    @BeforeEach
+    void setUp() {
+        io = new IoModule();
+        // Small windows so records cross window boundaries
+        io.setWindowSize(16);
+        interp = new StandardInterpreter(List.of(io), "UTC");
+    }
+
+    private String write(String name, String content) throws Exception {
+        Path file = dir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return "'" + file.toString().replace('\\', '/') + "'";
+    }
+
+    @Test
+    void testLINES() throws Exception {
+        String file = write("log.txt", "first line\r\nsecond line that is long\n\nlast ünïcode");
+        interp.run(file + " LINES >ARRAY");
+        assertEquals(List.of("first line", "second line that is long", "", "last ünïcode"), interp.stackPop());
+    }
+
+    @Test
+    void testLINESIsLazy() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+        String file = write("big.txt", content.toString());
+        interp.run(file + " LINES \"'7$' RE-MATCH\" SELECT 2 TAKE >ARRAY");
+        assertEquals(List.of("line 7", "line 17"), interp.stackPop());
+
+        interp.run(file + " LINES LENGTH");
+        assertEquals(10000, interp.stackPop());
+    }
+
+    @Test
+    void testNDJSON() throws Exception {
+        String file = write("events.ndjson", "{\"type\": \"click\", \"n\": 1}\n\n{\"type\": \"view\", \"n\": 2}\n[1, 2]\n");
+        interp.run(file + " NDJSON >ARRAY");
+        @SuppressWarnings("unchecked")
+        List<Object> records = (List<Object>) interp.stackPop();
+        assertEquals(3, records.size());
+        assertEquals("view", ((Map<?, ?>) records.get(1)).get("type"));
+        assertEquals(List.of(1, 2), records.get(2));
+    }
+
+    @Test
+    void testNDJSONReportsBadRecord() throws Exception {
+        String file = write("bad.ndjson", "{\"a\": 1}\n{oops\n");
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> interp.run(file + " NDJSON >ARRAY"));
+        assertTrue(e.getMessage().contains("record 2"));
+    }
+
+    @Test
+    void testCSV() throws Exception {
+        String file = write("data.csv", "name,note,count\nalpha,\"has, comma\",1\n\nbeta,\"two\nlines \"\"quoted\"\"\",\n");
+        interp.run(file + " CSV-ROWS >ARRAY");
+        @SuppressWarnings("unchecked")
+        List<Object> rows = (List<Object>) interp.stackPop();
+        assertEquals(3, rows.size());
+        assertEquals(List.of("alpha", "has, comma", "1"), rows.get(1));
+        assertEquals(List.of("beta", "two\nlines \"quoted\"", ""), rows.get(2));
+
+        interp.run(file + " CSV-RECORDS \"'name' REC@\" MAP >ARRAY");
+        assertEquals(List.of("alpha", "beta"), interp.stackPop());
+    }
+
+    @Test
+    void testEmptyFile() throws Exception {
+        String file = write("empty.txt", "");
+        interp.run(file + " LINES >ARRAY");
+        assertEquals(new ArrayList<>(), interp.stackPop());
+    }
+}
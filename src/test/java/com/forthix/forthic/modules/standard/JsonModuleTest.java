@@ -4,6 +4,15 @@ import com.forthix.forthic.interpreter.StandardInterpreter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -162,6 +171,12 @@ class JsonModuleTest {
         assertEquals("", interp.stackPop());
     }
 
+    @Test
+    void testPrettifyRejectsMalformedJson() {
+        assertThrows(Exception.class, () -> interp.run("'{\"a\":' JSON-PRETTIFY"));
+        assertThrows(Exception.class, () -> interp.run("'\u00A0' JSON-PRETTIFY"));
+    }
+
     // ========================================
     // Round-trip tests
     // ========================================
@@ -187,4 +202,117 @@ class JsonModuleTest {
         assertEquals(1, map.get("a"));
         assertEquals(2, map.get("b"));
     }
+
+    // ========================================
+    // Streaming
+    // ========================================
+
+    @Test
+    void testJsonItemsOverArray() throws Exception {
+        interp.run("'[{\"a\": 1}, [2, 3], \"x\"]' JSON-ITEMS");
+        Object items = interp.stackPop();
+        assertTrue(items instanceof Seq);
+        assertEquals(List.of(Map.of("a", 1), List.of(2, 3), "x"), new ArrayList<>((Seq) items));
+    }
+
+    @Test
+    void testJsonItemsRejectsValuesAfterArray() throws Exception {
+        interp.run("'[1, 2] [3]' JSON-ITEMS");
+        Seq items = (Seq) interp.stackPop();
+        assertThrows(UncheckedIOException.class, () -> new ArrayList<>(items));
+
+        interp.run("'[1, 2]\n' JSON-ITEMS >ARRAY");
+        assertEquals(List.of(1, 2), interp.stackPop());
+    }
+
+    @Test
+    void testJsonItemsFromStreamIsLazy() throws Exception {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            json.append("{\"id\": ").append(i).append("}\n");
+        }
+        json.append("{broken");
+        interp.stackPush(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)));
+        // Stops reading long before the malformed last value
+        interp.run("JSON-ITEMS \"'id' REC@\" MAP 3 TAKE >ARRAY");
+        assertEquals(List.of(0, 1, 2), interp.stackPop());
+    }
+
+    @Test
+    void testJsonItemsLeavesStreamOpen() throws Exception {
+        boolean[] closed = {false};
+        interp.stackPush(new StringReader("[1, 2]") {
+            @Override
+            public void close() {
+                closed[0] = true;
+                super.close();
+            }
+        });
+        interp.run("JSON-ITEMS");
+        Seq items = (Seq) interp.stackPop();
+        interp.stackPush(items);
+        interp.run("\"10 *\" MAP >ARRAY");
+        assertEquals(List.of(10.0, 20.0), interp.stackPop());
+        assertFalse(closed[0]);
+        // Stream sources can only be traversed once
+        assertThrows(IllegalStateException.class, items::size);
+    }
+
+    @Test
+    void testJsonProject() throws Exception {
+        interp.stackPush(new StringReader(
+            "[{\"id\": 1, \"user\": {\"name\": \"Ann\", \"tags\": [1, 2]}, \"big\": {\"x\": [1, 2, 3]}},"
+            + " {\"id\": 2}, 7]"));
+        interp.run("['id' 'user.name'] JSON-PROJECT >ARRAY");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> records = (List<Map<String, Object>>) interp.stackPop();
+        assertEquals(3, records.size());
+        assertEquals(Map.of("id", 1, "user.name", "Ann"), records.get(0));
+        assertEquals(2, records.get(1).get("id"));
+        assertNull(records.get(1).get("user.name"));
+        assertTrue(records.get(2).containsKey("id"));
+    }
+
+    @Test
+    void testJsonProjectFieldAndSubpath() throws Exception {
+        interp.run("'{\"a\": {\"b\": 1, \"c\": {\"d\": 2}}} {\"a\": 5}' ['a' 'a.b' 'a.c.d' 'a.x'] JSON-PROJECT >ARRAY");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> records = (List<Map<String, Object>>) interp.stackPop();
+        Map<String, Object> first = records.get(0);
+        assertEquals(Map.of("b", 1, "c", Map.of("d", 2)), first.get("a"));
+        assertEquals(1, first.get("a.b"));
+        assertEquals(2, first.get("a.c.d"));
+        assertNull(first.get("a.x"));
+        assertEquals(5, records.get(1).get("a"));
+        assertNull(records.get(1).get("a.b"));
+    }
+
+    @Test
+    void testJsonWrite() throws Exception {
+        StringWriter out = new StringWriter();
+        interp.stackPush(out);
+        interp.run("[1 2 3] >SEQ \"10 *\" MAP  SWAP JSON-WRITE");
+        assertEquals("[10.0,20.0,30.0]", out.toString());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        interp.run("[[['a' 1]] REC 'b']");
+        interp.stackPush(bytes);
+        interp.run("NDJSON-WRITE");
+        assertEquals("{\"a\":1}\n\"b\"\n", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testJsonWriteAndReadFile() throws Exception {
+        Path file = Files.createTempFile("items", ".ndjson");
+        try {
+            interp.run("[[['n' 1]] REC [['n' 2]] REC]");
+            interp.stackPush(file);
+            interp.run("NDJSON-WRITE");
+            interp.stackPush(file);
+            interp.run("JSON-ITEMS \"'n' REC@\" MAP >ARRAY");
+            assertEquals(List.of(1, 2), interp.stackPop());
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package com.forthix.forthic.modules.standard;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentMapTest {
+
+    private StandardInterpreter interp;
+
+    @BeforeEach
+    void setUp() {
+        interp = new StandardInterpreter();
+    }
+
+    @Test
+    void testBehavesLikeHashMap() {
+        PersistentMap map = PersistentMap.EMPTY;
+        Map<String, Object> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            map = map.with("key" + i, i);
+            expected.put("key" + i, i);
+        }
+        map = map.with("key7", null);
+        expected.put("key7", null);
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertTrue(map.containsKey("key7"));
+        assertNull(map.get("key7"));
+        assertFalse(map.containsKey("missing"));
+
+        for (int i = 0; i < 20_000; i += 2) {
+            map = map.without("key" + i);
+            expected.remove("key" + i);
+        }
+        assertEquals(expected, map);
+        assertSame(map, map.without("missing"));
+    }
+
+    @Test
+    void testKeepsInsertionOrder() throws Exception {
+        PersistentMap map = PersistentMap.EMPTY;
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            map = map.with("key" + i, i);
+            expected.add("key" + i);
+        }
+        for (int i = 0; i < 200; i += 3) {
+            map = map.without("key" + i);
+            expected.remove("key" + i);
+        }
+        map = map.with("key0", 0).with("key1", -1);
+        expected.add("key0");
+        assertEquals(expected, new ArrayList<>(map.keySet()));
+        assertEquals(-1, map.get("key1"));
+
+        interp.run("[['b' 1] ['a' 2] ['c' 3]] REC >PERSISTENT 4 'd' <REC! 'a' <DEL DUP KEYS SWAP >JSON");
+        assertEquals("{\"b\":1,\"c\":3,\"d\":4}", interp.stackPop());
+        assertEquals(List.of("b", "c", "d"), interp.stackPop());
+    }
+
+    @Test
+    void testHashCollisions() {
+        // "Aa" and "BB" have the same hashCode
+        PersistentMap map = PersistentMap.EMPTY.with("Aa", 1).with("BB", 2).with("AaBB", 3).with("BBAa", 4);
+        assertEquals(Map.of("Aa", 1, "BB", 2, "AaBB", 3, "BBAa", 4), map);
+        PersistentMap removed = map.without("Aa").without("BBAa");
+        assertEquals(Map.of("BB", 2, "AaBB", 3), removed);
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    void testVersionsAreIndependent() {
+        PersistentMap m1 = PersistentMap.from(Map.of("a", 1));
+        PersistentMap m2 = m1.with("b", 2);
+        PersistentMap m3 = m2.with("a", 10);
+        assertEquals(Map.of("a", 1), m1);
+        assertEquals(Map.of("a", 1, "b", 2), m2);
+        assertEquals(Map.of("a", 10, "b", 2), m3);
+        assertThrows(UnsupportedOperationException.class, () -> m1.put("c", 3));
+    }
+
+    @Test
+    void testUpdateWordsReturnNewVersions() throws Exception {
+        interp.run("[['a' 1]] REC >PERSISTENT DUP 2 'b' <REC! DUP 3 ['c' 'd'] <REC!");
+        Object nested = interp.stackPop();
+        Object withB = interp.stackPop();
+        Object original = interp.stackPop();
+        assertEquals(Map.of("a", 1), original);
+        assertEquals(Map.of("a", 1, "b", 2), withB);
+        assertEquals(Map.of("a", 1, "b", 2, "c", Map.of("d", 3)), nested);
+        assertTrue(nested instanceof PersistentMap);
+
+        interp.run("[['a' 1]] REC >PERSISTENT DUP 'a' <DEL");
+        assertEquals(Map.of(), interp.stackPop());
+        assertEquals(Map.of("a", 1), interp.stackPop());
+
+        interp.run("[['a' '']] REC >PERSISTENT DUP [['a' 5]] REC-DEFAULTS");
+        assertEquals(Map.of("a", 5), interp.stackPop());
+        assertEquals(Map.of("a", ""), interp.stackPop());
+
+        interp.run("['v'] VARIABLES  [1 2] >PERSISTENT v !  v @ 3 APPEND  v @ 0 <DEL  v @");
+        assertEquals(List.of(1, 2), interp.stackPop());
+        assertEquals(List.of(2), interp.stackPop());
+        assertEquals(List.of(1, 2, 3), interp.stackPop());
+    }
+
+    @Test
+    void testAppendInReduce() throws Exception {
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i <= 10000; i++) {
+            items.add(i);
+        }
+        interp.stackPush(items);
+        interp.run("[] >PERSISTENT \"APPEND\" REDUCE");
+        List<?> result = (List<?>) interp.stackPop();
+        assertTrue(result instanceof PersistentVector);
+        assertEquals(10001, result.size());
+        assertEquals(10000, result.get(10000));
+    }
+}
@@ -0,0 +1,77 @@
+package com.forthix.forthic.modules.standard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentVectorTest {
+
+    @Test
+    void testAppendAndGetAcrossLevels() {
+        PersistentVector vector = PersistentVector.EMPTY;
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            vector = vector.append(i);
+            expected.add(i);
+        }
+        assertEquals(expected.size(), vector.size());
+        assertEquals(expected, vector);
+        assertEquals(vector, expected);
+        assertEquals(expected.hashCode(), vector.hashCode());
+        assertEquals(1234, vector.get(1234));
+        assertThrows(IndexOutOfBoundsException.class, () -> PersistentVector.EMPTY.get(0));
+    }
+
+    @Test
+    void testVersionsAreIndependent() {
+        PersistentVector v1 = PersistentVector.from(List.of(1, 2, 3));
+        PersistentVector v2 = v1.append(4);
+        PersistentVector v3 = v1.with(0, "one");
+        assertEquals(List.of(1, 2, 3), v1);
+        assertEquals(List.of(1, 2, 3, 4), v2);
+        assertEquals(List.of("one", 2, 3), v3);
+        assertThrows(UnsupportedOperationException.class, () -> v1.add(5));
+    }
+
+    @Test
+    void testWithInTree() {
+        PersistentVector vector = PersistentVector.EMPTY;
+        for (int i = 0; i < 2000; i++) {
+            vector = vector.append(i);
+        }
+        PersistentVector changed = vector.with(100, "x").with(1999, "y");
+        assertEquals("x", changed.get(100));
+        assertEquals("y", changed.get(1999));
+        assertEquals(100, vector.get(100));
+        assertEquals(1999, vector.get(1999));
+    }
+
+    @Test
+    void testWithoutLastShrinksBackToEmpty() {
+        List<Object> expected = new ArrayList<>();
+        PersistentVector vector = PersistentVector.EMPTY;
+        for (int i = 0; i < 1100; i++) {
+            vector = vector.append(i);
+            expected.add(i);
+        }
+        while (!expected.isEmpty()) {
+            vector = vector.withoutLast();
+            expected.remove(expected.size() - 1);
+            if (expected.size() % 97 == 0) {
+                assertEquals(expected, vector);
+            }
+        }
+        assertSame(PersistentVector.EMPTY, vector);
+        assertThrows(IllegalStateException.class, () -> PersistentVector.EMPTY.withoutLast());
+    }
+
+    @Test
+    void testWithout() {
+        PersistentVector vector = PersistentVector.from(List.of("a", "b", "c"));
+        assertEquals(List.of("a", "c"), vector.without(1));
+        assertEquals(List.of("a", "b"), vector.without(2));
+    }
+}
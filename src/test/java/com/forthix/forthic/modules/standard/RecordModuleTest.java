@@ -4,6 +4,7 @@ import com.forthix.forthic.interpreter.StandardInterpreter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -176,14 +177,48 @@ class RecordModuleTest {
 
     // ===== Advanced Operations =====
 
-    // TODO: Uncomment when Array module MAP is implemented
-    // @Test
-    // void testPipeRECAt() throws Exception {
-    //     // This test needs MAP to work, which is in Array module
-    //     interp.run("[[[\"key\" 101] [\"value\" \"alpha\"]] REC [[\"key\" 102] [\"value\" \"beta\"]] REC [[\"key\" 103] [\"value\" \"gamma\"]] REC] \"key\" |REC@");
-    //     Object result = interp.stackPop();
-    //     assertEquals(List.of(101, 102, 103), result);
-    // }
+    @Test
+    void testPipeRECAt() throws Exception {
+        interp.run("[[[\"key\" 101] [\"value\" \"alpha\"]] REC [[\"key\" 102] [\"value\" \"beta\"]] REC [[\"key\" 103] [\"value\" \"gamma\"]] REC] \"key\" |REC@");
+        Object result = interp.stackPop();
+        assertEquals(List.of(101, 102, 103), result);
+    }
+
+    @Test
+    void testPipeRECAtPath() throws Exception {
+        // Records of different layouts, a plain map, a list, and a non-record
+        interp.run("['recs'] VARIABLES [" +
+                "[['a' [['b' 1]] REC]] REC " +
+                "[['x' 0] ['a' [['b' 2]] REC]] REC " +
+                "[['a' [10 20]]] REC " +
+                "NULL 5 " +
+                "[['a' [['b' 3]] REC]] REC" +
+                "] recs !");
+        interp.run("recs @ ['a' 'b'] |REC@");
+        assertEquals(Arrays.asList(1, 2, null, null, null, 3), interp.stackPop());
+
+        interp.run("recs @ ['a' '1'] |REC@");
+        assertEquals(Arrays.asList(null, null, 20, null, null, null), interp.stackPop());
+
+        // Same as mapping REC@
+        interp.run("recs @ \"['a' 'b'] REC@\" MAP  recs @ ['a' 'b'] |REC@ ==");
+        assertEquals(true, interp.stackPop());
+    }
+
+    @Test
+    void testPipeRECAtContainers() throws Exception {
+        interp.run("[['first' [['n' 1]] REC] ['second' [['n' 2]] REC]] REC 'n' |REC@");
+        assertEquals(Map.of("first", 1, "second", 2), interp.stackPop());
+
+        interp.run("[[['n' 1]] REC [['n' 2]] REC [['n' 3]] REC] >SEQ 'n' |REC@");
+        Object result = interp.stackPop();
+        assertTrue(result instanceof Seq);
+        assertEquals(List.of(1, 2, 3), result);
+
+        // Fields needn't be valid Forthic string literals
+        interp.run("[[['say \"hi\"' 1]] REC] 'say \"hi\"' |REC@");
+        assertEquals(List.of(1), interp.stackPop());
+    }
 
     // ===== Edge Cases =====
 
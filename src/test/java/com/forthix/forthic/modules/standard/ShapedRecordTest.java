@@ -0,0 +1,156 @@
+package com.forthix.forthic.modules.standard;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShapedRecordTest {
+
+    private StandardInterpreter interp;
+
+    @BeforeEach
+    void setUp() {
+        interp = new StandardInterpreter();
+    }
+
+    @Test
+    void testBehavesLikeLinkedHashMap() {
+        ShapedRecord rec = new ShapedRecord();
+        Map<String, Object> expected = new LinkedHashMap<>();
+        for (Map<String, Object> map : List.of(rec, expected)) {
+            map.put("b", 1);
+            map.put("a", null);
+            map.put("c", 3);
+            map.put("b", 2);
+        }
+        assertEquals(expected, rec);
+        assertEquals(rec, expected);
+        assertEquals(expected.hashCode(), rec.hashCode());
+        assertEquals(List.of("b", "a", "c"), new ArrayList<>(rec.keySet()));
+        assertTrue(rec.containsKey("a"));
+        assertNull(rec.get("missing"));
+        assertEquals(expected.toString(), rec.toString());
+
+        assertEquals(2, rec.remove("b"));
+        assertEquals(List.of("a", "c"), new ArrayList<>(rec.keySet()));
+        assertEquals(3, rec.get("c"));
+
+        rec.put("b", 4);
+        assertEquals(List.of("a", "c", "b"), new ArrayList<>(rec.keySet()));
+    }
+
+    @Test
+    void testEntryIterator() {
+        ShapedRecord rec = new ShapedRecord(Map.of("x", 1));
+        rec.put("y", 2);
+        rec.put("z", 3);
+        for (Map.Entry<String, Object> entry : rec.entrySet()) {
+            entry.setValue(((Integer) entry.getValue()) * 10);
+        }
+        assertEquals(20, rec.get("y"));
+
+        Iterator<Map.Entry<String, Object>> it = rec.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey().equals("y")) {
+                it.remove();
+            }
+        }
+        assertEquals(List.of("x", "z"), new ArrayList<>(rec.keySet()));
+        assertEquals(30, rec.get("z"));
+    }
+
+    @Test
+    void testSameKeysShareShape() {
+        ShapedRecord first = new ShapedRecord();
+        first.put("id", 1);
+        first.put("name", "a");
+        ShapedRecord second = new ShapedRecord();
+        second.put("id", 2);
+        second.put("name", "b");
+        assertSame(first.getShape(), second.getShape());
+
+        second.remove("name");
+        second.put("name", "b");
+        assertSame(first.getShape(), second.getShape());
+    }
+
+    @Test
+    void testManyKeys() {
+        ShapedRecord rec = new ShapedRecord();
+        for (int i = 0; i < 100; i++) {
+            rec.put("key" + i, i);
+        }
+        assertEquals(100, rec.size());
+        assertEquals(57, rec.get("key57"));
+        rec.remove("key0");
+        assertEquals(57, rec.get("key57"));
+        assertEquals("key1", rec.keySet().iterator().next());
+        assertNull(rec.getShape());
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        for (int i = 1; i < 100; i++) {
+            expected.put("key" + i, i);
+        }
+        assertEquals(expected, rec);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(rec.keySet()));
+    }
+
+    @Test
+    void testBuildLargeRecordWithRecBang() throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            keys.add("k" + i);
+        }
+        interp.stackPush(keys);
+        interp.run("[] REC \"DUP <REC!\" REDUCE");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> rec = (Map<String, Object>) interp.stackPop();
+        assertEquals(5000, rec.size());
+        assertEquals("k4321", rec.get("k4321"));
+        assertEquals(keys, new ArrayList<>(rec.keySet()));
+
+        interp.stackPush(rec);
+        interp.run("'k4321' REC@");
+        assertEquals("k4321", interp.stackPop());
+    }
+
+    @Test
+    void testRecordWords() throws Exception {
+        interp.run("[[['id' 1] ['name' 'a']] REC  [['id' 2] ['name' 'b']] REC]");
+        @SuppressWarnings("unchecked")
+        List<Object> records = (List<Object>) interp.stackPop();
+        ShapedRecord first = (ShapedRecord) records.get(0);
+        ShapedRecord second = (ShapedRecord) records.get(1);
+        assertSame(first.getShape(), second.getShape());
+
+        interp.stackPush(records);
+        interp.run("\"'name' REC@\" MAP");
+        assertEquals(List.of("a", "b"), interp.stackPop());
+
+        interp.run("NULL 5 ['a' 'b'] <REC! ['a' 'b'] REC@");
+        assertEquals(5, interp.stackPop());
+    }
+
+    @Test
+    void testJsonObjects() throws Exception {
+        interp.run("'[{\"id\": 1, \"tags\": {\"x\": true}}, {\"id\": 2, \"tags\": {\"x\": false}}]' JSON>");
+        @SuppressWarnings("unchecked")
+        List<Object> rows = (List<Object>) interp.stackPop();
+        ShapedRecord first = (ShapedRecord) rows.get(0);
+        ShapedRecord second = (ShapedRecord) rows.get(1);
+        assertSame(first.getShape(), second.getShape());
+        assertEquals(Map.of("x", false), second.get("tags"));
+
+        interp.stackPush(rows);
+        interp.run(">JSON");
+        assertEquals("[{\"id\":1,\"tags\":{\"x\":true}},{\"id\":2,\"tags\":{\"x\":false}}]", interp.stackPop());
+    }
+}
@@ -4,6 +4,7 @@ import com.forthix.forthic.interpreter.StandardInterpreter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -214,6 +215,43 @@ class StringModuleTest {
         assertNull(interp.stackPop());
     }
 
+    @Test
+    void testReMatchSeq() throws Exception {
+        interp.run("\"test1 test2 test3\" \"test([0-9])\" RE-MATCH-SEQ");
+        Object result = interp.stackPop();
+        assertTrue(result instanceof Seq);
+        // Each traversal matches again from the start
+        assertEquals(List.of("1", "2", "3"), new ArrayList<>((Seq) result));
+        assertEquals(List.of("1", "2", "3"), new ArrayList<>((Seq) result));
+
+        interp.run("\"a1 b2 c3\" \"[a-z][0-9]\" RE-MATCH-SEQ 2 TAKE >ARRAY");
+        assertEquals(List.of("a1", "b2"), interp.stackPop());
+
+        interp.run("\"abc\" \"([\" RE-MATCH-SEQ >ARRAY");
+        assertEquals(List.of(), interp.stackPop());
+    }
+
+    @Test
+    void testSplitAndReplaceAreLiteral() throws Exception {
+        interp.run("\"a.b..c.\" \".\" SPLIT");
+        assertEquals(List.of("a", "b", "", "c", ""), interp.stackPop());
+
+        interp.run("\"one::two::three\" \"::\" SPLIT");
+        assertEquals(List.of("one", "two", "three"), interp.stackPop());
+
+        interp.run("\"cost: 5 (approx)\" \"(approx)\" \"$1\" REPLACE");
+        assertEquals("cost: 5 $1", interp.stackPop());
+    }
+
+    @Test
+    void testPatternsAreCached() throws Exception {
+        interp.run("['a1' 'b2' 'c3'] \"'[a-z](?<digit>[0-9])cached' RE-MATCH\" MAP");
+        int size = PatternCache.size();
+        interp.run("['a1' 'b2' 'c3'] \"'[a-z](?<digit>[0-9])cached' RE-MATCH\" MAP");
+        assertEquals(size, PatternCache.size());
+        assertTrue(size <= PatternCache.MAX_SIZE);
+    }
+
     // ===== Edge Cases =====
 
     @Test
@@ -0,0 +1,126 @@
+package com.forthix.forthic.modules.standard;
+
+import com.forthix.forthic.interpreter.StandardInterpreter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableModuleTest {
+
+    private StandardInterpreter interp;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        interp = new StandardInterpreter();
+        interp.run("['orders'] VARIABLES");
+        interp.run("'[" +
+                "{\"id\": 1, \"region\": \"east\", \"amount\": 10.5, \"qty\": 2}," +
+                "{\"id\": 2, \"region\": \"west\", \"amount\": 4.0, \"qty\": null}," +
+                "{\"id\": 3, \"region\": \"east\", \"amount\": 1.5, \"qty\": 5}," +
+                "{\"id\": 4, \"region\": null, \"amount\": 8.0, \"qty\": 1}" +
+                "]' JSON> orders !");
+    }
+
+    @Test
+    void testRoundTrip() throws Exception {
+        interp.run("orders @ >TABLE");
+        Object table = interp.stackPop();
+        assertTrue(table instanceof Table);
+        assertEquals(4, ((Table) table).size());
+
+        interp.run("orders @ >TABLE >ARRAY orders @ ==");
+        assertEquals(true, interp.stackPop());
+
+        interp.run("orders @ >TABLE TABLE-COLUMNS");
+        assertEquals(List.of("id", "region", "amount", "qty"), interp.stackPop());
+
+        // Integer columns keep their Integer values
+        interp.run("orders @ >TABLE 0 NTH 'id' REC@");
+        assertEquals(1, interp.stackPop());
+    }
+
+    @Test
+    void testColumnAggregates() throws Exception {
+        interp.run("orders @ >TABLE 'amount' |REC@ SUM");
+        assertEquals(24.0, interp.stackPop());
+
+        interp.run("orders @ >TABLE 'qty' |REC@ MEAN");
+        assertEquals(8.0 / 3, (Double) interp.stackPop(), 1e-9);
+
+        interp.run("orders @ >TABLE 'amount' |REC@ MAX");
+        assertEquals(10.5, interp.stackPop());
+
+        interp.run("orders @ >TABLE 'qty' |REC@ MIN");
+        assertEquals(1.0, interp.stackPop());
+
+        interp.run("orders @ >TABLE 'region' |REC@");
+        assertEquals(java.util.Arrays.asList("east", "west", "east", null), new ArrayList<>((List<?>) interp.stackPop()));
+    }
+
+    @Test
+    void testWhere() throws Exception {
+        interp.run("orders @ >TABLE 'amount' '>=' 4 TABLE-WHERE 'id' |REC@ >ARRAY");
+        assertEquals(List.of(1, 2, 4), interp.stackPop());
+
+        interp.run("orders @ >TABLE 'region' '==' 'east' TABLE-WHERE 'id' |REC@ >ARRAY");
+        assertEquals(List.of(1, 3), interp.stackPop());
+
+        interp.run("orders @ >TABLE 'region' '!=' 'east' TABLE-WHERE 'id' |REC@ >ARRAY");
+        assertEquals(List.of(2, 4), interp.stackPop());
+
+        interp.run("orders @ >TABLE 'qty' '==' NULL TABLE-WHERE 'id' |REC@ >ARRAY");
+        assertEquals(List.of(2), interp.stackPop());
+
+        assertThrows(Exception.class, () -> interp.run("orders @ >TABLE 'qty' '=~' 1 TABLE-WHERE"));
+    }
+
+    @Test
+    void testGroupByField() throws Exception {
+        interp.run("orders @ >TABLE 'region' GROUP-BY-FIELD");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> groups = (Map<String, Object>) interp.stackPop();
+        assertEquals(List.of("east", "west"), new ArrayList<>(groups.keySet()));
+        assertTrue(groups.get("east") instanceof Table);
+
+        // Same groups as for the array of records
+        interp.run("orders @ >TABLE 'region' GROUP-BY-FIELD orders @ 'region' GROUP-BY-FIELD ==");
+        assertEquals(true, interp.stackPop());
+    }
+
+    @Test
+    void testAggregate() throws Exception {
+        interp.run("orders @ >TABLE 'region' 'amount' 'SUM' TABLE-AGGREGATE");
+        assertEquals(Map.of("east", 12.0, "west", 4.0), interp.stackPop());
+
+        interp.run("orders @ >TABLE 'region' 'qty' 'COUNT' TABLE-AGGREGATE");
+        assertEquals(Map.of("east", 2, "west", 0), interp.stackPop());
+
+        interp.run("orders @ >TABLE 'region' 'qty' 'MAX' TABLE-AGGREGATE");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> max = (Map<String, Object>) interp.stackPop();
+        assertEquals(5.0, max.get("east"));
+        assertNull(max.get("west"));
+
+        interp.run("orders @ >TABLE 'qty' 'amount' 'SUM' TABLE-AGGREGATE");
+        assertEquals(List.of("2", "5", "1"), new ArrayList<>(((Map<?, ?>) interp.stackPop()).keySet()));
+
+        interp.run("orders @ >TABLE NULL 'amount' 'MEAN' TABLE-AGGREGATE");
+        assertEquals(6.0, interp.stackPop());
+
+        assertThrows(Exception.class, () -> interp.run("orders @ >TABLE 'id' 'region' 'SUM' TABLE-AGGREGATE"));
+    }
+
+    @Test
+    void testArrayWordsOnTable() throws Exception {
+        interp.run("orders @ >TABLE [['id' 5]] REC APPEND LENGTH");
+        assertEquals(5, interp.stackPop());
+
+        interp.run("orders @ >TABLE \"'amount' REC@ 5 >\" SELECT LENGTH");
+        assertEquals(2, interp.stackPop());
+    }
+}
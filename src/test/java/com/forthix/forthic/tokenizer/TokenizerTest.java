@@ -324,4 +324,54 @@ public class TokenizerTest {
         assertEquals(TokenType.END_ARRAY, tokenizer.nextToken().getType());
         assertEquals(TokenType.END_MODULE, tokenizer.nextToken().getType());
     }
+
+    @Test
+    public void testCharSequenceInput() {
+        StringBuilder forthic = new StringBuilder(": DOUBLE   2 * ;\n'''text''' .field 3 DOUBLE");
+        Tokenizer fromBuilder = new Tokenizer(forthic);
+        Tokenizer fromString = new Tokenizer(forthic.toString());
+
+        Token token;
+        do {
+            token = fromBuilder.nextToken();
+            assertEquals(fromString.nextToken(), token);
+        } while (token.getType() != TokenType.EOS);
+    }
+
+    @Test
+    public void testUnescapesOnlyWhenNeeded() {
+        Tokenizer tokenizer = new Tokenizer("'a &lt; b &gt; c' 'plain & simple'");
+        assertEquals("a < b > c", tokenizer.nextToken().getString());
+        assertEquals("plain & simple", tokenizer.nextToken().getString());
+    }
+
+    @Test
+    public void testLocationsRequestedOutOfOrder() {
+        Tokenizer tokenizer = new Tokenizer("ONE\n  TWO\n    THREE");
+        Token one = tokenizer.nextToken();
+        Token two = tokenizer.nextToken();
+        Token three = tokenizer.nextToken();
+
+        assertEquals(3, three.getLocation().getLine());
+        assertEquals(5, three.getLocation().getColumn());
+        assertEquals(1, one.getLocation().getLine());
+        assertEquals(1, one.getLocation().getColumn());
+        assertEquals(2, two.getLocation().getLine());
+        assertEquals(3, two.getLocation().getColumn());
+        assertEquals(6, two.getLocation().getStartPos());
+        assertEquals(9, two.getLocation().getEndPos());
+    }
+
+    @Test
+    public void testDetachedTokensKeepStringAndLocation() {
+        Tokenizer tokenizer = new Tokenizer("ONE\n  [ TWO");
+        tokenizer.nextToken();
+        Token start = tokenizer.nextToken().detach();
+        tokenizer.nextToken();
+
+        assertEquals(TokenType.START_ARRAY, start.getType());
+        assertEquals("[", start.getString());
+        assertEquals(2, start.getLocation().getLine());
+        assertEquals(3, start.getLocation().getColumn());
+    }
 }